@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useAuth } from '../../contexts/AuthContext';
 import applicationService from '../../services/applicationService';
 import ErrorMessage from '../common/ErrorMessage';
@@ -26,6 +26,14 @@ const ApplicationForm = ({ onSuccess, editData }) => {
   // 🔹 NEW: Aadhaar card file state
   const [aadharCard, setAadharCard] = useState(null);
 
+  // 🔹 One idempotency key per submission attempt (double clicks / retries reuse it)
+  const idempotencyKey = useRef(crypto.randomUUID());
+
+  // 🔹 Documents go up in resumable chunks first; a failed submit keeps them
+  //    staged on the server, so a retry with the same file skips the upload
+  const uploaded = useRef({ aadhar: null, caste: null });
+  const [uploadProgress, setUploadProgress] = useState('');
+
   useEffect(() => {
     if (editData) {
       setFormData({
@@ -65,6 +73,19 @@ const ApplicationForm = ({ onSuccess, editData }) => {
     setAadharCard(e.target.files[0]);
   };
 
+  // 🔹 Upload id for a file, uploading it only if this exact file is not staged yet
+  const stageDocument = async (kind, label, file) => {
+    const staged = uploaded.current[kind];
+    if (staged && staged.file === file) {
+      return staged.uploadId;
+    }
+    const uploadId = await applicationService.uploadResumable(file, user.id, {
+      onProgress: (fraction) => setUploadProgress(`Uploading ${label}... ${Math.round(fraction * 100)}%`)
+    });
+    uploaded.current[kind] = { file, uploadId };
+    return uploadId;
+  };
+
   const handleSubmit = async (e) => {
     e.preventDefault();
     setLoading(true);
@@ -85,6 +106,12 @@ const ApplicationForm = ({ onSuccess, editData }) => {
     }
 
     try {
+      const aadharUploadId = await stageDocument('aadhar', 'Aadhaar card', aadharCard);
+      const casteUploadId = isCasteCertRequired
+        ? await stageDocument('caste', 'caste certificate', casteCertificate)
+        : null;
+      setUploadProgress('');
+
       // 🔹 IMPORTANT: use FormData instead of JSON
       const data = new FormData();
 
@@ -97,14 +124,13 @@ const ApplicationForm = ({ onSuccess, editData }) => {
       data.append('category', formData.category);
       data.append('previousCertificateNo', formData.previousCertificateNo);
 
-      if (isCasteCertRequired) {
-        data.append('casteCertificate', casteCertificate);
+      // 🔹 Staged uploads instead of the files themselves
+      if (casteUploadId) {
+        data.append('casteUploadId', casteUploadId);
       }
+      data.append('aadharUploadId', aadharUploadId);
 
-      // 🔹 NEW: Aadhaar card
-      data.append('aadharCard', aadharCard);
-
-      const response = await applicationService.createApplication(data);
+      const response = await applicationService.createApplication(data, idempotencyKey.current);
 
       setSuccess('Application submitted successfully!');
       setFormData({
@@ -115,6 +141,8 @@ const ApplicationForm = ({ onSuccess, editData }) => {
       });
       setCasteCertificate(null);
       setAadharCard(null);
+      uploaded.current = { aadhar: null, caste: null };
+      idempotencyKey.current = crypto.randomUUID();
 
       if (onSuccess) {
         onSuccess(response);
@@ -122,6 +150,7 @@ const ApplicationForm = ({ onSuccess, editData }) => {
     } catch (err) {
       setError(err.message);
     } finally {
+      setUploadProgress('');
       setLoading(false);
     }
   };
@@ -272,7 +301,7 @@ const ApplicationForm = ({ onSuccess, editData }) => {
             className="w-full bg-blue-600 hover:bg-blue-700 text-white py-3 px-4 rounded-md disabled:opacity-50"
           >
             {loading ? (
-              <LoadingSpinner size="sm" text="Submitting..." />
+              <LoadingSpinner size="sm" text={uploadProgress || 'Submitting...'} />
             ) : (
               editData ? 'Update Application' : 'Submit Application'
             )}
@@ -1,4 +1,4 @@
-import React, { useState, useEffect, useCallback } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import applicationService from '../../services/applicationService';
 import ErrorMessage from '../common/ErrorMessage';
 import SuccessMessage from '../common/SuccessMessage';
@@ -7,9 +7,13 @@ import Button from '../ui/Button';
 import Modal from '../ui/Modal';
 import Card from '../ui/Card';
 
+const PAGE_SIZE = 50;
+
 const ApplicationsManagement = () => {
-  const [applications, setApplications] = useState([]);
-  const [filteredApplications, setFilteredApplications] = useState([]);
+  const [applications, setApplications] = useState([]); // current page, already filtered by the server
+  const [counts, setCounts] = useState({});
+  const [total, setTotal] = useState(0);
+  const [page, setPage] = useState(0);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [success, setSuccess] = useState('');
@@ -20,49 +24,63 @@ const ApplicationsManagement = () => {
   const [actionType, setActionType] = useState('');
   const [certificateNo, setCertificateNo] = useState('');
   const [rejectionReason, setRejectionReason] = useState('');
+  const [printing, setPrinting] = useState(false);
+  const [claiming, setClaiming] = useState(false);
+  const [duplicates, setDuplicates] = useState({});
 
-  useEffect(() => {
-    fetchApplications();
-  }, []);
+  // Latest view for the event stream, which is subscribed once
+  const view = useRef({ filter, page });
+  view.current = { filter, page };
 
-  const filterApplications = useCallback(() => {
-    let filtered = applications;
-    
-    switch (filter) {
-      case 'pending':
-        filtered = applications.filter(app => app.status === 'PENDING');
-        break;
-      case 'approved':
-        filtered = applications.filter(app => app.status === 'APPROVED');
-        break;
-      case 'rejected':
-        filtered = applications.filter(app => app.status === 'REJECTED');
-        break;
-      case 'all':
-      default:
-        filtered = applications;
-        break;
-    }
-    
-    setFilteredApplications(filtered);
-  }, [applications, filter]);
+  useEffect(() => {
+    fetchApplications(filter, page);
+  }, [filter, page]);
 
   useEffect(() => {
-    filterApplications();
-  }, [filterApplications]);
+    // Pushed changes can move rows between tabs and pages, so re-query the current view quietly
+    const refresh = () => fetchApplications(view.current.filter, view.current.page, true);
+    const unsubscribe = applicationService.subscribeToStaffEvents({
+      onApplication: (event) => {
+        if (!event.application) return; // outside this staff member's departments
+        refresh();
+      },
+      onResync: refresh
+    });
+    return unsubscribe;
+  }, []);
 
-  const fetchApplications = async () => {
+  // Filtering, tab counts and paging come from the server's in-memory index
+  const fetchApplications = async (tab = view.current.filter, pageNo = view.current.page, quiet = false) => {
     try {
-      setLoading(true);
-      const data = await applicationService.getAllApplications();
-      setApplications(data);
+      if (!quiet) setLoading(true);
+      const result = await applicationService.queryApplications({
+        status: tab === 'all' ? null : tab.toUpperCase(),
+        page: pageNo,
+        size: PAGE_SIZE,
+        withApplications: true
+      });
+      setApplications(result.applications);
+      setCounts(result.countsByStatus);
+      setTotal(result.total);
+      // Flags are advisory - the list still shows if the lookup fails
+      applicationService.getDuplicateFlags(result.applications.map(app => app.appId))
+        .then(setDuplicates)
+        .catch(() => setDuplicates({}));
     } catch (err) {
       setError(err.message);
     } finally {
-      setLoading(false);
+      if (!quiet) setLoading(false);
     }
   };
 
+  const changeFilter = (tab) => {
+    setFilter(tab);
+    setPage(0);
+  };
+
+  const totalCount = Object.values(counts).reduce((sum, count) => sum + count, 0);
+  const pageCount = Math.max(Math.ceil(total / PAGE_SIZE), 1);
+
   const handleStatusUpdate = async (applicationId, status, certificateNumber = null) => {
     try {
       // Update application status
@@ -84,6 +102,40 @@ const ApplicationsManagement = () => {
     }
   };
 
+  // 🔹 Print certificates of the approved list as one PDF
+  const handlePrintCertificates = async () => {
+    const appIds = applications
+      .filter(app => app.currentCertificateNo)
+      .map(app => app.appId);
+    setPrinting(true);
+    try {
+      const pdf = await applicationService.printCertificates(appIds);
+      const url = URL.createObjectURL(pdf);
+      window.open(url, '_blank');
+      setTimeout(() => URL.revokeObjectURL(url), 60000);
+    } catch (err) {
+      setError(err.message);
+    } finally {
+      setPrinting(false);
+    }
+  };
+
+  // 🔹 Take the next oldest pending applications from the department work queue
+  const handleClaimNext = async () => {
+    setClaiming(true);
+    try {
+      const queue = await applicationService.claimFromQueue(5);
+      setSuccess(queue.length
+        ? `Your queue: ${queue.map(app => `#${app.appId}`).join(', ')}`
+        : 'No pending applications left to claim');
+      fetchApplications();
+    } catch (err) {
+      setError(err.message);
+    } finally {
+      setClaiming(false);
+    }
+  };
+
   const openApplicationDetails = (application) => {
     setSelectedApplication(application);
     setIsDetailModalOpen(true);
@@ -99,7 +151,9 @@ const ApplicationsManagement = () => {
     const statusClasses = {
       PENDING: 'bg-yellow-100 text-yellow-800',
       APPROVED: 'bg-green-100 text-green-800',
-      REJECTED: 'bg-red-100 text-red-800'
+      REJECTED: 'bg-red-100 text-red-800',
+      EXPIRED: 'bg-gray-100 text-gray-800',
+      DRAFT: 'bg-blue-100 text-blue-800'
     };
 
     return (
@@ -124,8 +178,8 @@ const ApplicationsManagement = () => {
         return;
       }
 
-      const fileUrl = `http://localhost:8181/${application.casteCertificate}`;
-      window.open(fileUrl, '_blank');
+      // Served by the API, which also reads scans already moved into archive packs
+      window.open(applicationService.getDocumentUrl(application.appId, 'caste'), '_blank');
 
     } catch (err) {
       alert(err.message || 'Unable to open caste certificate');
@@ -140,8 +194,7 @@ const ApplicationsManagement = () => {
         return;
       }
 
-      const fileUrl = `http://localhost:8181/${application.aadharCard}`;
-      window.open(fileUrl, '_blank');
+      window.open(applicationService.getDocumentUrl(application.appId, 'aadhar'), '_blank');
 
     } catch {
       alert('Unable to open Aadhaar card');
@@ -155,7 +208,7 @@ const ApplicationsManagement = () => {
     <div className="space-y-6">
       <div className="flex justify-between items-center">
         <h2 className="text-2xl font-bold text-gray-900">Applications Management</h2>
-        <Button onClick={fetchApplications} variant="outline">
+        <Button onClick={() => fetchApplications()} variant="outline">
           Refresh
         </Button>
       </div>
@@ -167,29 +220,50 @@ const ApplicationsManagement = () => {
       <Card>
         <div className="flex flex-wrap gap-2">
           <button
-            onClick={() => setFilter('all')}
+            onClick={() => changeFilter('all')}
             className={`px-4 py-2 rounded-md text-sm font-medium ${getFilterButtonClass('all')}`}
           >
-            All Applications ({applications.length})
+            All Applications ({totalCount})
           </button>
           <button
-            onClick={() => setFilter('pending')}
+            onClick={() => changeFilter('pending')}
             className={`px-4 py-2 rounded-md text-sm font-medium ${getFilterButtonClass('pending')}`}
           >
-            Pending ({applications.filter(app => app.status === 'PENDING').length})
+            Pending ({counts.PENDING || 0})
           </button>
           <button
-            onClick={() => setFilter('approved')}
+            onClick={() => changeFilter('approved')}
             className={`px-4 py-2 rounded-md text-sm font-medium ${getFilterButtonClass('approved')}`}
           >
-            Approved ({applications.filter(app => app.status === 'APPROVED').length})
+            Approved ({counts.APPROVED || 0})
           </button>
           <button
-            onClick={() => setFilter('rejected')}
+            onClick={() => changeFilter('rejected')}
             className={`px-4 py-2 rounded-md text-sm font-medium ${getFilterButtonClass('rejected')}`}
           >
-            Rejected ({applications.filter(app => app.status === 'REJECTED').length})
+            Rejected ({counts.REJECTED || 0})
           </button>
+          <a
+            href={applicationService.getDocumentBundleUrl({
+              status: filter === 'all' ? null : filter.toUpperCase()
+            })}
+            className="ml-auto px-4 py-2 rounded-md text-sm font-medium border border-gray-300 text-gray-700 hover:bg-gray-50"
+          >
+            Download Documents (ZIP)
+          </a>
+          {filter === 'pending' && (
+            <Button onClick={handleClaimNext} disabled={claiming}>
+              {claiming ? 'Claiming...' : 'Claim Next'}
+            </Button>
+          )}
+          {filter === 'approved' && (
+            <Button
+              onClick={handlePrintCertificates}
+              disabled={printing || !applications.some(app => app.currentCertificateNo)}
+            >
+              {printing ? 'Preparing PDF...' : 'Print Certificates'}
+            </Button>
+          )}
         </div>
       </Card>
 
@@ -208,7 +282,7 @@ const ApplicationsManagement = () => {
               </tr>
             </thead>
             <tbody className="bg-white divide-y divide-gray-200">
-              {filteredApplications.map((application) => (
+              {applications.map((application) => (
                 <tr key={application.appId} className="hover:bg-gray-50">
                   <td className="px-6 py-4 whitespace-nowrap text-sm font-medium text-gray-900">
                     #{application.appId}
@@ -229,6 +303,16 @@ const ApplicationsManagement = () => {
                   </td>
                   <td className="px-6 py-4 whitespace-nowrap">
                     {getStatusBadge(application.status)}
+                    {duplicates[application.appId] && (
+                      <span
+                        className="ml-2 px-2 py-1 rounded-full text-xs font-medium bg-orange-100 text-orange-800"
+                        title={duplicates[application.appId]
+                          .map(m => `${m.document} looks like ${m.matchedDocument} of #${m.matchedAppId} (student ${m.matchedStudentId})`)
+                          .join('\n')}
+                      >
+                        Possible duplicate
+                      </span>
+                    )}
                   </td>
                   <td className="px-6 py-4 whitespace-nowrap text-sm text-gray-900">
                     {application.currentCertificateNo || 'Not assigned'}
@@ -272,11 +356,23 @@ const ApplicationsManagement = () => {
           </table>
         </div>
 
-        {filteredApplications.length === 0 && (
+        {applications.length === 0 && (
           <div className="text-center py-8 text-gray-500">
             No {filter !== 'all' ? filter : ''} applications found.
           </div>
         )}
+
+        {total > PAGE_SIZE && (
+          <div className="flex justify-between items-center mt-4">
+            <Button variant="outline" onClick={() => setPage(page - 1)} disabled={page === 0}>
+              Previous
+            </Button>
+            <span className="text-sm text-gray-600">Page {page + 1} of {pageCount}</span>
+            <Button variant="outline" onClick={() => setPage(page + 1)} disabled={page + 1 >= pageCount}>
+              Next
+            </Button>
+          </div>
+        )}
       </Card>
 
       {/* Application Details Modal */}
@@ -7,7 +7,8 @@ import Card from '../../components/ui/Card';
 import Button from '../../components/ui/Button';
 
 const ReportsPage = () => {
-  const [applications, setApplications] = useState([]);
+  const [counts, setCounts] = useState({});
+  const [preview, setPreview] = useState(null); // { total, applications } for a complete certificate range
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [successMessage, setSuccessMessage] = useState('');
@@ -15,16 +16,49 @@ const ReportsPage = () => {
     start: '',
     end: ''
   });
+  const [trends, setTrends] = useState([]);
+  const [turnaround, setTurnaround] = useState(null);
 
   useEffect(() => {
     fetchReportData();
   }, []);
 
+  // The export only filters on a complete range, so only a complete range is previewed
+  useEffect(() => {
+    if (!certificateRange.start || !certificateRange.end) {
+      setPreview(null);
+      return;
+    }
+    let current = true;
+    const timer = setTimeout(() => {
+      applicationService.getExportPreview(certificateRange.start, certificateRange.end)
+        .then((data) => current && setPreview(data))
+        .catch((err) => current && setError(err.message));
+    }, 300);
+    return () => {
+      current = false;
+      clearTimeout(timer);
+    };
+  }, [certificateRange.start, certificateRange.end]);
+
   const fetchReportData = async () => {
     try {
       setLoading(true);
-      const appsData = await applicationService.getAllApplications();
-      setApplications(appsData);
+      // Counts only - the index answers without loading any application
+      const summary = await applicationService.queryApplications({ size: 1 });
+      setCounts(summary.countsByStatus);
+      // Last twelve weeks, read from the daily aggregates
+      const to = new Date();
+      const from = new Date(to.getTime() - 83 * 24 * 60 * 60 * 1000);
+      const trendData = await applicationService.getApplicationTrends({
+        from: from.toISOString().slice(0, 10),
+        to: to.toISOString().slice(0, 10),
+        granularity: 'WEEK'
+      });
+      setTrends(trendData);
+      // Approval turnaround for decisions this month (overall row)
+      const sla = await applicationService.getSlaPercentiles();
+      setTurnaround(sla[0]);
     } catch (err) {
       setError(err.message);
     } finally {
@@ -65,34 +99,6 @@ const ReportsPage = () => {
     });
   };
 
-  // Get applications within certificate range
-  const getApplicationsInCertificateRange = () => {
-    if (!certificateRange.start && !certificateRange.end) {
-      return applications;
-    }
-
-    return applications.filter(app => {
-      if (!app.currentCertificateNo) return false;
-      
-      const certNo = app.currentCertificateNo.toUpperCase();
-      const startCert = certificateRange.start.toUpperCase();
-      const endCert = certificateRange.end.toUpperCase();
-      
-      // If only start is provided, return certificates >= start
-      if (certificateRange.start && !certificateRange.end) {
-        return certNo >= startCert;
-      }
-      
-      // If only end is provided, return certificates <= end
-      if (!certificateRange.start && certificateRange.end) {
-        return certNo <= endCert;
-      }
-      
-      // If both are provided, return certificates in range
-      return certNo >= startCert && certNo <= endCert;
-    });
-  };
-
   if (loading) return <LoadingSpinner text="Loading reports..." />;
   if (error) return <ErrorMessage message={error} />;
 
@@ -150,7 +156,7 @@ const ReportsPage = () => {
               </div>
               
               <p className="text-xs text-gray-500 mt-2">
-                Leave blank for all certificates. Range is inclusive.
+                Leave blank for all certificates. Enter both ends to filter; the range is inclusive.
               </p>
             </div>
 
@@ -164,8 +170,8 @@ const ReportsPage = () => {
               
               <div className="text-center">
                 <span className="text-sm text-gray-500">
-                  {certificateRange.start || certificateRange.end ? 
-                    `Will export ${getApplicationsInCertificateRange().length} applications` : 
+                  {preview ?
+                    `Will export ${preview.total} applications` :
                     'Will export all applications'
                   }
                 </span>
@@ -179,35 +185,76 @@ const ReportsPage = () => {
           <div className="space-y-4">
             <div className="flex justify-between items-center">
               <span className="text-gray-600">Total Applications</span>
-              <span className="font-bold text-blue-600">{applications.length}</span>
+              <span className="font-bold text-blue-600">
+                {Object.values(counts).reduce((sum, count) => sum + count, 0)}
+              </span>
             </div>
             
             <div className="flex justify-between items-center">
               <span className="text-gray-600">Approved Applications</span>
               <span className="font-bold text-green-600">
-                {applications.filter(app => app.status === 'APPROVED').length}
+                {counts.APPROVED || 0}
               </span>
             </div>
             
             <div className="flex justify-between items-center">
               <span className="text-gray-600">Pending Applications</span>
               <span className="font-bold text-yellow-600">
-                {applications.filter(app => app.status === 'PENDING').length}
+                {counts.PENDING || 0}
               </span>
             </div>
             
             <div className="flex justify-between items-center">
-              <span className="text-gray-600">Certificates Issued</span>
+              <span className="text-gray-600">Concessions Granted (incl. expired)</span>
               <span className="font-bold text-purple-600">
-                {applications.filter(app => app.currentCertificateNo).length}
+                {(counts.APPROVED || 0) + (counts.EXPIRED || 0)}
               </span>
             </div>
+
+            {turnaround && turnaround.count > 0 && (
+              <div className="flex justify-between items-center">
+                <span className="text-gray-600">Time to Approve (this month, p50 / p90 / p99)</span>
+                <span className="font-bold text-gray-900">
+                  {turnaround.p50Hours} / {turnaround.p90Hours} / {turnaround.p99Hours} h
+                </span>
+              </div>
+            )}
           </div>
         </Card>
       </div>
 
+      {/* Weekly Trends */}
+      <Card title="Weekly Trends" subtitle="Applications by week submitted, last 12 weeks">
+        <div className="overflow-x-auto">
+          <table className="min-w-full divide-y divide-gray-200">
+            <thead className="bg-gray-50">
+              <tr>
+                <th className="px-4 py-2 text-left text-xs font-medium text-gray-500 uppercase">Week Of</th>
+                <th className="px-4 py-2 text-left text-xs font-medium text-gray-500 uppercase">Submitted</th>
+                <th className="px-4 py-2 text-left text-xs font-medium text-gray-500 uppercase">Approved</th>
+                <th className="px-4 py-2 text-left text-xs font-medium text-gray-500 uppercase">Rejected</th>
+                <th className="px-4 py-2 text-left text-xs font-medium text-gray-500 uppercase">Median Time to Approve</th>
+              </tr>
+            </thead>
+            <tbody className="divide-y divide-gray-200">
+              {trends.map((point) => (
+                <tr key={point.period}>
+                  <td className="px-4 py-2 text-sm text-gray-900">{point.period}</td>
+                  <td className="px-4 py-2 text-sm text-gray-900">{point.submitted}</td>
+                  <td className="px-4 py-2 text-sm text-green-600">{point.approved}</td>
+                  <td className="px-4 py-2 text-sm text-red-600">{point.rejected}</td>
+                  <td className="px-4 py-2 text-sm text-gray-900">
+                    {point.medianHoursToApprove != null ? `${point.medianHoursToApprove} h` : '-'}
+                  </td>
+                </tr>
+              ))}
+            </tbody>
+          </table>
+        </div>
+      </Card>
+
       {/* Certificate Range Preview */}
-      {(certificateRange.start || certificateRange.end) && (
+      {preview && (
         <Card title="Certificate Range Preview" subtitle="Applications within selected certificate range">
           <div className="overflow-x-auto">
             <table className="min-w-full divide-y divide-gray-200">
@@ -221,7 +268,7 @@ const ReportsPage = () => {
                 </tr>
               </thead>
               <tbody className="divide-y divide-gray-200">
-                {getApplicationsInCertificateRange().slice(0, 10).map((app) => (
+                {preview.applications.map((app) => (
                   <tr key={app.appId}>
                     <td className="px-4 py-2 text-sm font-medium text-gray-900">#{app.appId}</td>
                     <td className="px-4 py-2 text-sm text-gray-900">{app.studentName}</td>
@@ -243,9 +290,9 @@ const ReportsPage = () => {
               </tbody>
             </table>
           </div>
-          {getApplicationsInCertificateRange().length > 10 && (
+          {preview.total > preview.applications.length && (
             <div className="mt-4 text-center text-sm text-gray-500">
-              Showing 10 of {getApplicationsInCertificateRange().length} applications
+              Showing {preview.applications.length} of {preview.total} applications
             </div>
           )}
         </Card>
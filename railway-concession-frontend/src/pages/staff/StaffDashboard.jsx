@@ -16,18 +16,52 @@ const StaffDashboard = () => {
 
   useEffect(() => {
     fetchDashboardData();
+
+    // Apply pushed changes instead of re-fetching stats and lists
+    const unsubscribe = applicationService.subscribeToStaffEvents({
+      onApplication: applyApplicationEvent,
+      onResync: fetchDashboardData
+    });
+    return unsubscribe;
   }, []);
 
+  const applyApplicationEvent = (event) => {
+    setStats((prev) => {
+      const next = { ...prev };
+      if (event.type === 'CREATED') {
+        next.total = (next.total || 0) + 1;
+      }
+      if (event.previousStatus && event.previousStatus !== event.status) {
+        const from = event.previousStatus.toLowerCase();
+        next[from] = Math.max((next[from] || 0) - 1, 0);
+      }
+      if (event.type === 'CREATED' || event.previousStatus !== event.status) {
+        const to = event.status.toLowerCase();
+        next[to] = (next[to] || 0) + 1;
+      }
+      return next;
+    });
+
+    // Only events for this staff member's departments carry the application
+    if (event.application) {
+      setRecentApplications((prev) =>
+        event.type === 'CREATED'
+          ? [event.application, ...prev].slice(0, 5)
+          : prev.map((app) => (app.appId === event.appId ? event.application : app))
+      );
+    }
+  };
+
   const fetchDashboardData = async () => {
     try {
       setLoading(true);
-      const [appsData, statsData, studentsData] = await Promise.all([
-        applicationService.getAllApplications(),
+      const [recent, statsData, studentsData] = await Promise.all([
+        applicationService.queryApplications({ size: 5, withApplications: true }),
         applicationService.getApplicationStats(),
         studentService.getAllStudents()
       ]);
 
-      setRecentApplications(appsData.slice(0, 5));
+      setRecentApplications(recent.applications);
       setStats(statsData);
       setStudentCount(studentsData.length);
     } catch (err) {
@@ -41,7 +75,9 @@ const StaffDashboard = () => {
     const statusClasses = {
       PENDING: 'bg-yellow-100 text-yellow-800',
       APPROVED: 'bg-green-100 text-green-800',
-      REJECTED: 'bg-red-100 text-red-800'
+      REJECTED: 'bg-red-100 text-red-800',
+      EXPIRED: 'bg-gray-100 text-gray-800',
+      DRAFT: 'bg-blue-100 text-blue-800'
     };
 
     return (
@@ -8,9 +8,13 @@ import Button from '../../components/ui/Button';
 import Modal from '../../components/ui/Modal';
 import StudentForm from '../../components/forms/StudentForm';
 
+const SEARCH_PAGE_SIZE = 50;
+
 const StudentsPage = () => {
   const [students, setStudents] = useState([]);
-  const [filteredStudents, setFilteredStudents] = useState([]);
+  const [searchResults, setSearchResults] = useState(null);
+  const [searchPage, setSearchPage] = useState(0);
+  const [searchVersion, setSearchVersion] = useState(0);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [success, setSuccess] = useState('');
@@ -22,9 +26,24 @@ const StudentsPage = () => {
     fetchStudents();
   }, []);
 
+  // Searches run against the server index, debounced while typing
   useEffect(() => {
-    filterStudents();
-  }, [students, searchTerm]);
+    const query = searchTerm.trim();
+    if (!query) {
+      setSearchResults(null);
+      return;
+    }
+    let current = true;
+    const timer = setTimeout(() => {
+      studentService.searchStudents(query, searchPage, SEARCH_PAGE_SIZE)
+        .then((data) => current && setSearchResults(data))
+        .catch((err) => current && setError(err.message));
+    }, 300);
+    return () => {
+      current = false;
+      clearTimeout(timer);
+    };
+  }, [searchTerm, searchPage, searchVersion]);
 
   const fetchStudents = async () => {
     try {
@@ -38,23 +57,14 @@ const StudentsPage = () => {
     }
   };
 
-  const filterStudents = () => {
-    if (!searchTerm.trim()) {
-      setFilteredStudents(students);
-      return;
-    }
-
-    const filtered = students.filter(student =>
-      student.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      student.email.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      student.id.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      student.category.toLowerCase().includes(searchTerm.toLowerCase())
-    );
-    setFilteredStudents(filtered);
+  const refreshStudents = () => {
+    fetchStudents();
+    setSearchVersion((version) => version + 1);
   };
 
   const handleSearch = (e) => {
     setSearchTerm(e.target.value);
+    setSearchPage(0);
   };
 
   const handleAddStudent = () => {
@@ -62,9 +72,15 @@ const StudentsPage = () => {
     setIsModalOpen(true);
   };
 
-  const handleEditStudent = (student) => {
-    setSelectedStudent(student);
-    setIsModalOpen(true);
+  const handleEditStudent = async (student) => {
+    try {
+      // Search hits carry no date of birth, the form needs the full record
+      const fullStudent = student.dob ? student : await studentService.getStudentById(student.id);
+      setSelectedStudent(fullStudent);
+      setIsModalOpen(true);
+    } catch (err) {
+      setError(err.message);
+    }
   };
 
   const handleDeleteStudent = async (studentId) => {
@@ -75,7 +91,7 @@ const StudentsPage = () => {
     try {
       await studentService.deleteStudent(studentId);
       setSuccess('Student deleted successfully!');
-      fetchStudents(); // Refresh the list
+      refreshStudents();
     } catch (err) {
       setError(err.message);
     }
@@ -84,13 +100,16 @@ const StudentsPage = () => {
   const handleStudentSuccess = () => {
     setIsModalOpen(false);
     setSuccess(selectedStudent ? 'Student updated successfully!' : 'Student added successfully!');
-    fetchStudents(); // Refresh the list
+    refreshStudents();
   };
 
   const getApplicationCount = (student) => {
     return student.applications ? student.applications.length : 0;
   };
 
+  const shownStudents = searchResults ? searchResults.items : students;
+  const searchPageCount = searchResults ? Math.max(Math.ceil(searchResults.total / SEARCH_PAGE_SIZE), 1) : 1;
+
   if (loading) return <LoadingSpinner text="Loading students..." />;
   if (error) return <ErrorMessage message={error} />;
 
@@ -121,7 +140,7 @@ const StudentsPage = () => {
               </div>
               <input
                 type="text"
-                placeholder="Search students by name, email, or ID..."
+                placeholder="Search students by name, email, ID, department or route..."
                 value={searchTerm}
                 onChange={handleSearch}
                 className="pl-10 pr-4 py-2 border border-gray-300 rounded-md w-full focus:outline-none focus:ring-2 focus:ring-blue-500 focus:border-blue-500"
@@ -161,7 +180,7 @@ const StudentsPage = () => {
               </tr>
             </thead>
             <tbody className="bg-white divide-y divide-gray-200">
-              {filteredStudents.map((student) => (
+              {shownStudents.map((student) => (
                 <tr key={student.id}>
                   <td className="px-6 py-4 whitespace-nowrap text-sm font-medium text-gray-900">
                     {student.id}
@@ -204,7 +223,25 @@ const StudentsPage = () => {
           </table>
         </div>
 
-        {filteredStudents.length === 0 && (
+        {searchResults && searchResults.total > SEARCH_PAGE_SIZE && (
+          <div className="flex justify-between items-center mt-4">
+            <Button variant="outline" onClick={() => setSearchPage(searchPage - 1)} disabled={searchPage === 0}>
+              Previous
+            </Button>
+            <span className="text-sm text-gray-600">
+              {searchResults.total} matches - page {searchPage + 1} of {searchPageCount}
+            </span>
+            <Button
+              variant="outline"
+              onClick={() => setSearchPage(searchPage + 1)}
+              disabled={searchPage + 1 >= searchPageCount}
+            >
+              Next
+            </Button>
+          </div>
+        )}
+
+        {shownStudents.length === 0 && (
           <div className="text-center py-12">
             <div className="text-gray-400 text-6xl mb-4">👥</div>
             <h3 className="text-lg font-medium text-gray-900 mb-2">
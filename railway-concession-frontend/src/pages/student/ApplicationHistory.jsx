@@ -36,7 +36,9 @@ const ApplicationHistory = () => {
     const statusClasses = {
       PENDING: 'bg-yellow-100 text-yellow-800',
       APPROVED: 'bg-green-100 text-green-800',
-      REJECTED: 'bg-red-100 text-red-800'
+      REJECTED: 'bg-red-100 text-red-800',
+      EXPIRED: 'bg-gray-100 text-gray-800',
+      DRAFT: 'bg-blue-100 text-blue-800'
     };
 
     return (
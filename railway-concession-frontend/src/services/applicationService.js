@@ -1,16 +1,52 @@
 import api from './api';
 
 export const applicationService = {
-  // Get all applications
-  getAllApplications: async () => {
+  // Filter / count the staff member's applications on the server's in-memory index.
+  // Resolves to { total, countsByStatus, appIds, ... }; withApplications adds the page's rows.
+  queryApplications: async ({ status, category, department, from, to, page = 0, size = 50, withApplications = false } = {}) => {
     try {
-      const response = await api.get('/applications/staff/applications',{withCredentials: true});
+      const params = new URLSearchParams({ page, size, withApplications });
+      if (status) params.append('status', status);
+      if (category) params.append('category', category);
+      if (department) params.append('department', department);
+      if (from) params.append('from', from);
+      if (to) params.append('to', to);
+      const response = await api.get(`/applications/staff/applications/query?${params.toString()}`);
       return response.data;
     } catch (error) {
       throw new Error(error.response?.data?.error || 'Failed to fetch applications');
     }
   },
 
+  // Size and first rows of a certificate range CSV export (STAFF)
+  getExportPreview: async (certificateStart, certificateEnd) => {
+    try {
+      const params = new URLSearchParams({ certificateStart, certificateEnd });
+      const response = await api.get(`/applications/reports/applications/preview?${params.toString()}`);
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to preview export');
+    }
+  },
+
+  // Print certificates for approved applications as one merged PDF (STAFF)
+  printCertificates: async (appIds) => {
+    try {
+      const response = await api.post(
+        '/applications/staff/certificates',
+        { appIds },
+        { withCredentials: true, responseType: 'blob' }
+      );
+      return response.data;
+    } catch (error) {
+      // Error bodies arrive as a Blob too
+      const text = error.response?.data instanceof Blob ? await error.response.data.text() : null;
+      let message = null;
+      try { message = text && JSON.parse(text).error; } catch (e) { /* not JSON */ }
+      throw new Error(message || 'Failed to print certificates');
+    }
+  },
+
   // Get application by ID
   getApplicationById: async (id) => {
     try {
@@ -33,7 +69,7 @@ export const applicationService = {
 
   // Create new application
   // Create new application (UPDATED for file upload)
-createApplication: async (applicationData) => {
+createApplication: async (applicationData, idempotencyKey) => {
   try {
     const response = await api.post(
       '/applications',
@@ -41,7 +77,9 @@ createApplication: async (applicationData) => {
       {
         headers: {
           // IMPORTANT: multipart support
-          'Content-Type': 'multipart/form-data'
+          'Content-Type': 'multipart/form-data',
+          // Server replays the first result for repeated submits with the same key
+          ...(idempotencyKey && { 'Idempotency-Key': idempotencyKey })
         }
       }
     );
@@ -53,6 +91,56 @@ createApplication: async (applicationData) => {
   }
 },
 
+  // Resumable chunked upload of one document (see /api/uploads). Resolves to the upload id,
+  // which createApplication accepts as aadharUploadId / casteUploadId instead of the file.
+  // A failed chunk is retried from the offset the server reports, so a dropped connection
+  // only re-sends that chunk.
+  uploadResumable: async (file, studentId, { chunkSize = 1024 * 1024, retries = 5, onProgress } = {}) => {
+    const toBase64 = (text) => btoa(unescape(encodeURIComponent(text)));
+    const tus = { 'Tus-Resumable': '1.0.0' };
+    try {
+      const created = await api.post('/uploads', null, {
+        headers: {
+          ...tus,
+          'Upload-Length': file.size,
+          'Upload-Metadata': `studentId ${toBase64(studentId)},filename ${toBase64(file.name)}`
+        }
+      });
+      const uploadId = created.data.uploadId;
+
+      let offset = 0;
+      let failures = 0;
+      while (offset < file.size) {
+        const chunk = await file.slice(offset, offset + chunkSize).arrayBuffer();
+        const digest = await crypto.subtle.digest('SHA-256', chunk);
+        const checksum = btoa(String.fromCharCode(...new Uint8Array(digest)));
+        try {
+          const response = await api.patch(`/uploads/${uploadId}`, chunk, {
+            headers: {
+              ...tus,
+              'Content-Type': 'application/offset+octet-stream',
+              'Upload-Offset': offset,
+              'Upload-Checksum': `sha256 ${checksum}`
+            }
+          });
+          offset = Number(response.headers['upload-offset']);
+          failures = 0;
+          onProgress?.(offset / file.size);
+        } catch (error) {
+          if (++failures > retries || error.response?.status === 404) throw error;
+          // 429 from admission control says how long to back off
+          const retryAfter = Number(error.response?.headers?.['retry-after']) || failures;
+          await new Promise((resolve) => setTimeout(resolve, 1000 * retryAfter));
+          const status = await api.head(`/uploads/${uploadId}`, { headers: tus });
+          offset = Number(status.headers['upload-offset']);
+        }
+      }
+      return uploadId;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to upload document');
+    }
+  },
+
 
   // Get caste certificate// Get caste certificate path (STAFF)
 getCasteCertificate: async (applicationId) => {
@@ -80,6 +168,56 @@ getCasteCertificate: async (applicationId) => {
     }
   },
 
+  // Possible duplicate flags for a list (STAFF): { appId: [matches with another student's scan] }
+  getDuplicateFlags: async (appIds) => {
+    try {
+      const response = await api.post('/applications/staff/duplicates', { appIds });
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to check for duplicate documents');
+    }
+  },
+
+  // Review work queue (STAFF): lease the next oldest pending applications
+  claimFromQueue: async (count = 5) => {
+    try {
+      const response = await api.post(`/applications/staff/queue/claim?count=${count}`);
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to claim applications');
+    }
+  },
+
+  // Applications currently leased to the logged-in staff member
+  getMyQueue: async () => {
+    try {
+      const response = await api.get('/applications/staff/queue');
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to fetch your queue');
+    }
+  },
+
+  // Keep the current leases alive while reviewing
+  renewMyQueue: async () => {
+    try {
+      const response = await api.post('/applications/staff/queue/renew');
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to renew your queue');
+    }
+  },
+
+  // Hand an application back to the queue without deciding it
+  releaseFromQueue: async (id) => {
+    try {
+      const response = await api.post(`/applications/staff/queue/${id}/release`);
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to release application');
+    }
+  },
+
   // Assign certificate number
   assignCertificateNumber: async (id, certificateNo) => {
     try {
@@ -117,6 +255,62 @@ getCasteCertificate: async (applicationId) => {
     } catch (error) {
       throw new Error(error.response?.data?.error || 'Failed to fetch application statistics');
     }
+  },
+
+  // Submission / approval trends from the daily aggregates (granularity: DAY, WEEK or MONTH)
+  getApplicationTrends: async ({ from, to, granularity = 'DAY', department, category } = {}) => {
+    try {
+      const params = new URLSearchParams({ from, to, granularity });
+      if (department) params.append('department', department);
+      if (category) params.append('category', category);
+      const response = await api.get(`/reports/trends?${params.toString()}`);
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to fetch trends');
+    }
+  },
+
+  // Turnaround percentiles (hours) for decision months from..to (yyyy-MM); first row is the overall total
+  getSlaPercentiles: async ({ from, to, outcome = 'APPROVED', department, category } = {}) => {
+    try {
+      const params = new URLSearchParams({ outcome });
+      if (from) params.append('from', from);
+      if (to) params.append('to', to);
+      if (department) params.append('department', department);
+      if (category) params.append('category', category);
+      const response = await api.get(`/reports/sla?${params.toString()}`);
+      return response.data;
+    } catch (error) {
+      throw new Error(error.response?.data?.error || 'Failed to fetch turnaround percentiles');
+    }
+  },
+
+  // Live application events for the logged-in staff member (Server-Sent Events).
+  // Returns a function that closes the stream.
+  subscribeToStaffEvents: ({ onApplication, onResync }) => {
+    const source = new EventSource(`${api.defaults.baseURL}/applications/staff/events`, {
+      withCredentials: true
+    });
+
+    source.addEventListener('application', (e) => onApplication?.(JSON.parse(e.data)));
+    // Server dropped events for this stream (buffer overflow) - caller should re-fetch once
+    source.addEventListener('resync', () => onResync?.());
+
+    return () => source.close();
+  },
+
+  // One uploaded document (STAFF), type 'aadhar' or 'caste' - a plain link opened in a new tab
+  getDocumentUrl: (id, type) => `${api.defaults.baseURL}/applications/${id}/documents/${type}`,
+
+  // Audit ZIP of all documents (STAFF) - a plain link so the browser streams it to disk
+  getDocumentBundleUrl: ({ department, status, from, to } = {}) => {
+    const params = new URLSearchParams();
+    if (department) params.append('department', department);
+    if (status) params.append('status', status);
+    if (from) params.append('from', from);
+    if (to) params.append('to', to);
+    const query = params.toString();
+    return `${api.defaults.baseURL}/applications/staff/documents/bundle${query ? `?${query}` : ''}`;
   }
 };
 
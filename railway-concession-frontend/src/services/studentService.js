@@ -51,10 +51,10 @@ export const studentService = {
     }
   },
 
-  // Search students by name or email
-  searchStudents: async (query) => {
+  // Search students by ID, name, email, department or route (server-side index, paged)
+  searchStudents: async (query, page = 0, size = 20) => {
     try {
-      const response = await api.get(`/students/search?query=${encodeURIComponent(query)}`);
+      const response = await api.get('/students/search', { params: { query, page, size } });
       return response.data;
     } catch (error) {
       throw new Error(error.response?.data?.error || 'Failed to search students');
@@ -3,7 +3,9 @@ export const constants = {
   APPLICATION_STATUS: {
     PENDING: 'PENDING',
     APPROVED: 'APPROVED',
-    REJECTED: 'REJECTED'
+    REJECTED: 'REJECTED',
+    EXPIRED: 'EXPIRED',
+    DRAFT: 'DRAFT'
   },
 
   // User roles
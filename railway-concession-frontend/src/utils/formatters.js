@@ -28,7 +28,9 @@ export const formatters = {
     const statusMap = {
       PENDING: { text: 'Pending', color: 'text-yellow-600', bg: 'bg-yellow-100' },
       APPROVED: { text: 'Approved', color: 'text-green-600', bg: 'bg-green-100' },
-      REJECTED: { text: 'Rejected', color: 'text-red-600', bg: 'bg-red-100' }
+      REJECTED: { text: 'Rejected', color: 'text-red-600', bg: 'bg-red-100' },
+      EXPIRED: { text: 'Expired', color: 'text-gray-600', bg: 'bg-gray-100' },
+      DRAFT: { text: 'Renewal draft', color: 'text-blue-600', bg: 'bg-blue-100' }
     };
     
     return statusMap[status] || { text: status, color: 'text-gray-600', bg: 'bg-gray-100' };
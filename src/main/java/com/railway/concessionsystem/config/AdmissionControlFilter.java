@@ -0,0 +1,269 @@
+package com.railway.concessionsystem.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control for the upload endpoints. Runs ahead of Spring Security
+ * and, more importantly, ahead of multipart parsing, so a request turned away
+ * here costs a few microseconds instead of a 10 MB buffer and a DB connection.
+ * <p>
+ * - Submissions (POST /api/applications, upload-aadhar, creating a resumable
+ *   upload) draw from a token bucket per client IP and per logged-in student.
+ * - Everything that carries a document body (the multipart posts and resumable
+ *   chunks) shares a global concurrency limit; a request that cannot get a
+ *   permit within queue-timeout-ms is refused instead of piling up.
+ * Refusals are an immediate 429 with Retry-After. admission.requests counts
+ * admitted / rejected per endpoint and reason; admission.uploads.in-flight
+ * shows the permits in use.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String ALLOWED_ORIGIN = "http://localhost:3000"; // same as WebConfig
+
+    private static final Pattern UPLOAD_AADHAR = Pattern.compile("^/api/applications/\\d+/upload-aadhar$");
+    private static final Pattern UPLOAD_CHUNK = Pattern.compile("^/api/uploads/[^/]+$");
+
+    /**
+     * What a matched endpoint is subject to
+     */
+    private enum Endpoint {
+        CREATE("create", true, true),
+        UPLOAD_AADHAR("upload-aadhar", true, true),
+        UPLOAD_CREATE("upload-create", true, false),
+        UPLOAD_CHUNK("upload-chunk", false, true);   // the upload itself was rate limited when created
+
+        private final String tag;
+        private final boolean rateLimited;
+        private final boolean carriesBody;
+
+        Endpoint(String tag, boolean rateLimited, boolean carriesBody) {
+            this.tag = tag;
+            this.rateLimited = rateLimited;
+            this.carriesBody = carriesBody;
+        }
+    }
+
+    private final boolean enabled;
+    private final long queueTimeoutMs;
+    private final long busyRetryAfterSeconds;
+    private final boolean trustForwardedFor;
+
+    private final double ipCapacity;
+    private final double ipRefillPerNanos;
+    private final double studentCapacity;
+    private final double studentRefillPerNanos;
+
+    private final Semaphore permits;
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> studentBuckets = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.max-concurrent-uploads:8}") int maxConcurrent,
+            @Value("${admission.queue-timeout-ms:50}") long queueTimeoutMs,
+            @Value("${admission.busy-retry-after-seconds:2}") long busyRetryAfterSeconds,
+            @Value("${admission.trust-forwarded-for:false}") boolean trustForwardedFor,
+            @Value("${admission.ip.capacity:20}") double ipCapacity,
+            @Value("${admission.ip.refill-per-minute:10}") double ipRefillPerMinute,
+            @Value("${admission.student.capacity:6}") double studentCapacity,
+            @Value("${admission.student.refill-per-minute:3}") double studentRefillPerMinute) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.busyRetryAfterSeconds = busyRetryAfterSeconds;
+        this.trustForwardedFor = trustForwardedFor;
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerNanos = ipRefillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.studentCapacity = studentCapacity;
+        this.studentRefillPerNanos = studentRefillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.permits = new Semaphore(maxConcurrent);
+        Gauge.builder("admission.uploads.in-flight", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Upload requests holding a concurrency permit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Endpoint endpoint = classify(request);
+
+        // 1️⃣ Per-client rate limits (no body read - the student comes from the session)
+        if (endpoint.rateLimited) {
+            long waitNanos = ipBuckets.computeIfAbsent(clientIp(request),
+                    k -> new TokenBucket(ipCapacity, ipRefillPerNanos)).tryTake();
+            if (waitNanos > 0) {
+                reject(request, response, endpoint, "ip", waitNanos);
+                return;
+            }
+            String studentId = sessionStudentId(request);
+            if (studentId != null) {
+                waitNanos = studentBuckets.computeIfAbsent(studentId,
+                        k -> new TokenBucket(studentCapacity, studentRefillPerNanos)).tryTake();
+                if (waitNanos > 0) {
+                    reject(request, response, endpoint, "student", waitNanos);
+                    return;
+                }
+            }
+        }
+
+        // 2️⃣ Global limit on requests streaming a document
+        if (!endpoint.carriesBody) {
+            count(endpoint, "admitted", "none");
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(request, response, endpoint, "concurrency", TimeUnit.SECONDS.toNanos(busyRetryAfterSeconds));
+            return;
+        }
+        count(endpoint, "admitted", "none");
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Endpoint classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("POST".equals(method)) {
+            if ("/api/applications".equals(path) || "/api/applications/".equals(path)) {
+                return Endpoint.CREATE;
+            }
+            if (UPLOAD_AADHAR.matcher(path).matches()) {
+                return Endpoint.UPLOAD_AADHAR;
+            }
+            if ("/api/uploads".equals(path) || "/api/uploads/".equals(path)) {
+                return Endpoint.UPLOAD_CREATE;
+            }
+        } else if ("PATCH".equals(method) && UPLOAD_CHUNK.matcher(path).matches()) {
+            return Endpoint.UPLOAD_CHUNK;
+        }
+        return null;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static String sessionStudentId(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        Object studentId = session != null ? session.getAttribute("studentId") : null;
+        return studentId != null ? studentId.toString() : null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, Endpoint endpoint,
+                        String reason, long waitNanos) throws IOException {
+        count(endpoint, "rejected", reason);
+        long retryAfter = Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        // Answered before the MVC CORS handling, so the browser needs these to read the 429
+        if (ALLOWED_ORIGIN.equals(request.getHeader(HttpHeaders.ORIGIN))) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ALLOWED_ORIGIN);
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.RETRY_AFTER);
+        }
+        response.setContentType("application/json");
+        String message = "concurrency".equals(reason)
+                ? "Server is busy with other uploads, please retry shortly"
+                : "Too many submissions, please retry later";
+        response.getWriter().write("{\"error\":\"" + message + "\",\"retryAfterSeconds\":" + retryAfter + "}");
+    }
+
+    private void count(Endpoint endpoint, String outcome, String reason) {
+        meterRegistry.counter("admission.requests",
+                "endpoint", endpoint.tag, "outcome", outcome, "reason", reason).increment();
+    }
+
+    // ==========================
+    // Idle buckets (full again) are dropped so the maps track only active clients
+    // ==========================
+    @Scheduled(fixedDelayString = "${admission.bucket-sweep-interval-ms:300000}")
+    public void sweepIdleBuckets() {
+        ipBuckets.values().removeIf(TokenBucket::isFull);
+        studentBuckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    /**
+     * Lazily refilled token bucket; tryTake returns 0 when a token was taken,
+     * otherwise the nanoseconds until one is available
+     */
+    private static class TokenBucket {
+        private final double capacity;
+        private final double refillPerNanos;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(double capacity, double refillPerNanos) {
+            this.capacity = capacity;
+            this.refillPerNanos = refillPerNanos;
+            this.tokens = capacity;
+        }
+
+        synchronized long tryTake() {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return refillPerNanos > 0 ? (long) Math.ceil((1 - tokens) / refillPerNanos) : TimeUnit.HOURS.toNanos(1);
+        }
+
+        synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNanos);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.railway.concessionsystem.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Decides whether read-only work may go to the replica.
+ * Polls SHOW REPLICA STATUS on a fixed delay; the replica is taken out of
+ * rotation when replication is stopped, lag exceeds the limit, or a
+ * connection attempt fails, and put back on the next healthy check.
+ * A server with no replication configured (e.g. a second local MySQL
+ * loaded from a dump) reports no status row and is treated as in sync.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+    private final long maxLagSeconds;
+
+    private volatile boolean available = true;
+    private volatile long lagSeconds;
+
+    private final Counter fallbacks;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagSeconds, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.fallbacks = meterRegistry.counter("datasource.replica.fallbacks");
+        Gauge.builder("datasource.replica.available", this, m -> m.available ? 1 : 0).register(meterRegistry);
+        Gauge.builder("datasource.replica.lag.seconds", this, m -> m.lagSeconds).register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Called when a replica connection could not be obtained
+     */
+    public void markFailed(SQLException e) {
+        fallbacks.increment();
+        if (available) {
+            log.warn("Replica unavailable, reads fall back to primary: {}", e.getMessage());
+        }
+        available = false;
+    }
+
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        boolean healthy;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+
+            if (!rs.next()) {
+                lagSeconds = 0;
+                healthy = true;
+            } else {
+                long lag = rs.getLong("Seconds_Behind_Source");
+                // NULL = replication threads stopped
+                healthy = !rs.wasNull() && lag <= maxLagSeconds;
+                lagSeconds = rs.wasNull() ? -1 : lag;
+            }
+        } catch (SQLException e) {
+            healthy = false;
+            lagSeconds = -1;
+        }
+
+        if (healthy != available) {
+            log.info("Replica {} (lag {} s)", healthy ? "back in rotation" : "taken out of rotation", lagSeconds);
+        }
+        available = healthy;
+    }
+}
@@ -2,7 +2,6 @@ package com.railway.concessionsystem.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -15,20 +14,11 @@ public class WebConfig implements WebMvcConfigurer {
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:3000") // React dev server
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "HEAD", "OPTIONS")
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
 
-    // ==========================
-    // STATIC FILE SERVING (NEW)
-    // ==========================
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-
-        // Serve uploaded caste certificates
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/")
-                .setCachePeriod(3600); // cache for 1 hour (optional)
-    }
+    // No static mapping for uploads/: archived scans are no longer on disk, so staff
+    // read documents through /api/applications/{id}/documents/{type} instead
 }
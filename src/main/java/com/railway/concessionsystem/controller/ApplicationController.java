@@ -1,27 +1,47 @@
 package com.railway.concessionsystem.controller;
 
+import com.railway.concessionsystem.dto.ApplicationIndexResult;
+import com.railway.concessionsystem.dto.ApplicationSearchHit;
+import com.railway.concessionsystem.dto.PagedResponse;
 import com.railway.concessionsystem.model.Application;
 import com.railway.concessionsystem.model.ApplicationStatus;
+import com.railway.concessionsystem.service.ApplicationEventService;
+import com.railway.concessionsystem.service.ApplicationIndexService;
+import com.railway.concessionsystem.service.ApplicationQueryService;
 import com.railway.concessionsystem.service.ApplicationService;
+import com.railway.concessionsystem.service.CertificateRenderService;
+import com.railway.concessionsystem.service.DocumentBundleService;
+import com.railway.concessionsystem.service.DocumentStorageService;
+import com.railway.concessionsystem.service.DuplicateDetectionService;
+import com.railway.concessionsystem.service.IdempotencyService;
+import com.railway.concessionsystem.service.ResumableUploadService;
+import com.railway.concessionsystem.service.ReviewQueueService;
+import com.railway.concessionsystem.service.SearchService;
 
 import jakarta.servlet.http.HttpSession;
 
-import com.railway.concessionsystem.repository.ApplicationRepository;
 import com.railway.concessionsystem.repository.StaffRepository;
 import com.railway.concessionsystem.model.Staff;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.MediaType;
 
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/applications")
@@ -32,17 +52,47 @@ public class ApplicationController {
     private ApplicationService applicationService;
 
     @Autowired
-    private ApplicationRepository applicationRepository;
+    private ApplicationQueryService applicationQueryService;
+
+    @Autowired
+    private ApplicationEventService applicationEventService;
 
     @Autowired
     private StaffRepository staffRepository;
 
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Autowired
+    private CertificateRenderService certificateRenderService;
+
+    @Autowired
+    private DocumentBundleService documentBundleService;
+
+    @Autowired
+    private ApplicationIndexService applicationIndexService;
+
+    @Autowired
+    private ReviewQueueService reviewQueueService;
+
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
 
     // ==========================
     // CREATE APPLICATION (Multipart)
     // ==========================
     @PostMapping(consumes = "multipart/form-data")
     public ResponseEntity<?> createApplication(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestParam String studentId,
             @RequestParam String studentName,
             @RequestParam String studentDob,
@@ -51,27 +101,52 @@ public class ApplicationController {
             @RequestParam String category,
             @RequestParam(required = false) String previousCertificateNo,
             @RequestParam(required = false) MultipartFile casteCertificate,
-            @RequestParam MultipartFile aadharCard  // Aadhaar card is required
+            @RequestParam(required = false) MultipartFile aadharCard,  // Aadhaar card is required (file or upload id)
+            @RequestParam(required = false) String aadharUploadId,     // completed resumable uploads (/api/uploads)
+            @RequestParam(required = false) String casteUploadId
     ) {
-        try {
-            Application savedApplication = applicationService.createApplication(
-                    studentId,
-                    studentName,
-                    studentDob,
-                    routeFrom,
-                    routeTo,
-                    category,
-                    previousCertificateNo,
-                    casteCertificate,
-                    aadharCard
-            );
-
-            return ResponseEntity.ok(savedApplication);
+        Supplier<ResponseEntity<?>> submit = () -> {
+            try {
+                MultipartFile aadhar = hasText(aadharUploadId)
+                        ? resumableUploadService.openCompleted(aadharUploadId, studentId, "aadharCard")
+                        : aadharCard;
+                MultipartFile caste = hasText(casteUploadId)
+                        ? resumableUploadService.openCompleted(casteUploadId, studentId, "casteCertificate")
+                        : casteCertificate;
+
+                Application savedApplication = applicationService.createApplication(
+                        studentId,
+                        studentName,
+                        studentDob,
+                        routeFrom,
+                        routeTo,
+                        category,
+                        previousCertificateNo,
+                        caste,
+                        aadhar
+                );
+
+                // Copied into uploads/ by now; on failure the staged files stay for a retry
+                if (hasText(aadharUploadId)) resumableUploadService.delete(aadharUploadId);
+                if (hasText(casteUploadId)) resumableUploadService.delete(casteUploadId);
+
+                return ResponseEntity.ok(savedApplication);
+
+            } catch (Exception e) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", e.getMessage()));
+            }
+        };
 
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of("error", e.getMessage()));
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return submit.get();
         }
+        // Keys are scoped per student so one student can never replay another's result
+        return idempotencyService.execute(studentId + ":" + idempotencyKey, submit);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
     }
 
     // ==========================
@@ -89,7 +164,7 @@ public class ApplicationController {
     // ==========================
     @GetMapping("/{id}")
     public ResponseEntity<Application> getApplicationById(@PathVariable Long id) {
-        return applicationRepository.findById(id)
+        return applicationQueryService.getApplication(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -99,15 +174,30 @@ public class ApplicationController {
     // ==========================
     @GetMapping("/{id}/with-student")
     public ResponseEntity<Application> getApplicationWithStudent(@PathVariable Long id) {
-        Optional<Application> application = applicationRepository.findById(id);
-        if (application.isPresent()) {
-            Application app = application.get();
-            if (app.getStudent() != null) {
-                app.getStudent().getName(); // force load
-            }
-            return ResponseEntity.ok(app);
+        return applicationQueryService.getApplicationWithStudent(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // ==========================
+    // POSSIBLE DUPLICATE DOCUMENTS (STAFF)
+    // ==========================
+    @GetMapping("/{id}/duplicates")
+    public ResponseEntity<?> getDuplicates(@PathVariable Long id, HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        Optional<Application> application = applicationQueryService.getApplication(id);
+        if (application.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Matches name other students, so only staff of the application's department see them
+        List<String> departments = applicationService.getDepartmentsForStaff(staff.get().getDepartment());
+        if (!departments.contains(application.get().getDepartment())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Application is not in your departments"));
         }
-        return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(duplicateDetectionService.findMatches(id));
     }
 
     // ==========================
@@ -116,9 +206,15 @@ public class ApplicationController {
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateApplicationStatus(
             @PathVariable Long id,
-            @RequestBody Map<String, String> request
+            @RequestBody Map<String, String> request,
+            HttpSession session
     ) {
-        Optional<Application> applicationOptional = applicationRepository.findById(id);
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+
+        Optional<Application> applicationOptional = applicationQueryService.getApplication(id);
 
         if (applicationOptional.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -132,12 +228,15 @@ public class ApplicationController {
             }
 
             ApplicationStatus status = ApplicationStatus.valueOf(statusStr.toUpperCase());
-            Application updated = applicationService.updateApplicationStatus(id, status);
+            // The review lease is checked under the row lock taken by the update
+            Application updated = applicationService.updateApplicationStatus(id, status, staff.get().getId());
             return ResponseEntity.ok(updated);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "Invalid status value"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -173,7 +272,7 @@ public class ApplicationController {
     // ==========================
     @GetMapping("/student/{studentId}")
     public List<Application> getApplicationsByStudent(@PathVariable String studentId) {
-        return applicationRepository.findByStudentId(studentId);
+        return applicationQueryService.getApplicationsByStudent(studentId);
     }
 
     // ==========================
@@ -183,23 +282,30 @@ public class ApplicationController {
     public List<Application> getApplicationsByStatus(@PathVariable String status) {
         try {
             ApplicationStatus appStatus = ApplicationStatus.valueOf(status.toUpperCase());
-            return applicationRepository.findByStatus(appStatus);
+            return applicationQueryService.getApplicationsByStatus(appStatus);
         } catch (Exception e) {
             return List.of();
         }
     }
 
+    // ==========================
+    // SEARCH APPLICATIONS (ID, student, route)
+    // ==========================
+    @GetMapping("/search")
+    public PagedResponse<ApplicationSearchHit> searchApplications(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return searchService.searchApplications(query, Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+    }
+
     // ==========================
     // APPLICATION STATISTICS
     // ==========================
     @GetMapping("/stats")
     public Map<String, Long> getApplicationStats() {
-        return Map.of(
-                "total", applicationRepository.count(),
-                "pending", applicationRepository.countByStatus(ApplicationStatus.PENDING),
-                "approved", applicationRepository.countByStatus(ApplicationStatus.APPROVED),
-                "rejected", applicationRepository.countByStatus(ApplicationStatus.REJECTED)
-        );
+        return applicationService.getStatistics();
     }
 
     // ==========================
@@ -225,9 +331,18 @@ public class ApplicationController {
     // Staff: View caste certificate
     // ==============================
     @GetMapping("/{id}/caste-certificate")
-    public ResponseEntity<?> getCasteCertificate(@PathVariable Long id) {
-        return applicationRepository.findById(id)
+    public ResponseEntity<?> getCasteCertificate(@PathVariable Long id, HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        return applicationQueryService.getApplication(id)
                 .map(application -> {
+                    if (!isInDepartments(application, staff.get())) {
+                        return ResponseEntity.status(403)
+                                .body(Map.of("error", "Application is not in your departments"));
+                    }
+
                     // Check category
                     String category = application.getCategory();
                     if (category == null ||
@@ -243,9 +358,9 @@ public class ApplicationController {
                                 .body(Map.of("error", "Caste certificate not uploaded"));
                     }
 
-                    // Return file URL
+                    // Return download URL (works for loose and archived files alike)
                     return ResponseEntity.ok(
-                            Map.of("certificateUrl", certificatePath)
+                            Map.of("certificateUrl", documentUrl(id, "caste"))
                     );
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -255,9 +370,18 @@ public class ApplicationController {
     // Staff: View Aadhaar card
     // ==============================
     @GetMapping("/{id}/aadhar-card")
-    public ResponseEntity<?> getAadharCard(@PathVariable Long id) {
-        return applicationRepository.findById(id)
+    public ResponseEntity<?> getAadharCard(@PathVariable Long id, HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        return applicationQueryService.getApplication(id)
                 .map(application -> {
+                    if (!isInDepartments(application, staff.get())) {
+                        return ResponseEntity.status(403)
+                                .body(Map.of("error", "Application is not in your departments"));
+                    }
+
                     // Check Aadhaar path
                     String aadharPath = application.getAadharCard();
                     if (aadharPath == null || aadharPath.isBlank()) {
@@ -265,14 +389,290 @@ public class ApplicationController {
                                 .body(Map.of("error", "Aadhaar card not uploaded"));
                     }
 
-                    // Return file URL
+                    // Return download URL (works for loose and archived files alike)
                     return ResponseEntity.ok(
-                            Map.of("aadharUrl", aadharPath)
+                            Map.of("aadharUrl", documentUrl(id, "aadhar"))
                     );
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    private static String documentUrl(Long id, String type) {
+        return "/api/applications/" + id + "/documents/" + type;
+    }
+
+    // ==============================
+    // Staff: Download document bytes (loose file or archive pack)
+    // ==============================
+    @GetMapping("/{id}/documents/{type}")
+    public ResponseEntity<?> downloadDocument(@PathVariable Long id, @PathVariable String type, HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        Optional<Application> application = applicationQueryService.getApplication(id);
+        if (application.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isInDepartments(application.get(), staff.get())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Application is not in your departments"));
+        }
+
+        String storedPath;
+        if ("aadhar".equalsIgnoreCase(type)) {
+            storedPath = application.get().getAadharCard();
+        } else if ("caste".equalsIgnoreCase(type)) {
+            storedPath = application.get().getCasteCertificate();
+        } else {
+            return ResponseEntity.badRequest().body(Map.of("error", "Document type must be aadhar or caste"));
+        }
+
+        try {
+            Optional<DocumentStorageService.StoredDocument> document = documentStorageService.open(storedPath);
+            if (document.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of("error", "Document not found"));
+            }
+            DocumentStorageService.StoredDocument doc = document.get();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(doc.getMediaType()))
+                    .contentLength(doc.getLength())
+                    .header("Content-Disposition", "inline; filename=" + doc.getFileName())
+                    .body(new InputStreamResource(doc.getContent()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to read document: " + e.getMessage()));
+        }
+    }
+
+    // ==============================
+    // STAFF: LIVE APPLICATION EVENTS (SSE)
+    // ==============================
+    @GetMapping(value = "/staff/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStaffEvents(HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).build();
+        }
+
+        List<String> departments = applicationService.getDepartmentsForStaff(staff.get().getDepartment());
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no") // nginx: stream, don't buffer
+                .body(applicationEventService.subscribe(departments));
+    }
+
+    // ==============================
+    // STAFF: REVIEW WORK QUEUE (leased batches of the oldest pending applications)
+    // ==============================
+    @PostMapping("/staff/queue/claim")
+    public ResponseEntity<?> claimFromQueue(@RequestParam(defaultValue = "5") int count, HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        if (count < 1 || count > 50) {
+            return ResponseEntity.badRequest().body(Map.of("error", "count must be between 1 and 50"));
+        }
+
+        List<String> departments = applicationService.getDepartmentsForStaff(staff.get().getDepartment());
+        return ResponseEntity.ok(reviewQueueService.claim(staff.get().getId(), departments, count));
+    }
+
+    @GetMapping("/staff/queue")
+    public ResponseEntity<?> getMyQueue(HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        return ResponseEntity.ok(reviewQueueService.getLeases(staff.get().getId()));
+    }
+
+    @PostMapping("/staff/queue/renew")
+    public ResponseEntity<?> renewMyQueue(HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        return ResponseEntity.ok(Map.of("renewed", reviewQueueService.renew(staff.get().getId())));
+    }
+
+    @PostMapping("/staff/queue/{id}/release")
+    public ResponseEntity<?> releaseFromQueue(@PathVariable Long id, HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        if (!reviewQueueService.release(id, staff.get().getId())) {
+            return ResponseEntity.status(404).body(Map.of("error", "Application is not in your queue"));
+        }
+        return ResponseEntity.ok(Map.of("released", id));
+    }
+
+    // ==============================
+    // STAFF: DUPLICATE FLAGS FOR A LIST (appId -> scans shared with another student)
+    // ==============================
+    @PostMapping("/staff/duplicates")
+    public ResponseEntity<?> getDuplicateFlags(@RequestBody Map<String, List<Long>> request, HttpSession session) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        List<Long> appIds = request.get("appIds");
+        if (appIds == null || appIds.size() > 1000) {
+            return ResponseEntity.badRequest().body(Map.of("error", "appIds is required (at most 1000)"));
+        }
+        // Same rule as /{id}/duplicates: ids outside the staff member's departments are dropped
+        List<Long> ownIds = applicationQueryService.getApplicationsInOrder(appIds).stream()
+                .filter(application -> isInDepartments(application, staff.get()))
+                .map(Application::getAppId)
+                .toList();
+        return ResponseEntity.ok(duplicateDetectionService.findCrossStudentMatches(ownIds));
+    }
+
+    // ==============================
+    // STAFF: FILTER / COUNT FROM THE IN-MEMORY INDEX (ids + per-status counts, no DB round trip)
+    // ==============================
+    @GetMapping("/staff/applications/query")
+    public ResponseEntity<?> queryStaffApplications(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean withApplications,
+            HttpSession session
+    ) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        if (page < 0 || size < 1 || size > 500) {
+            return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size between 1 and 500"));
+        }
+
+        List<String> departments = applicationService.getDepartmentsForStaff(staff.get().getDepartment());
+        if (department != null && !department.isBlank()) {
+            if (!departments.contains(department)) {
+                return ResponseEntity.status(403).body(Map.of("error", "Department " + department + " is not assigned to you"));
+            }
+            departments = List.of(department);
+        }
+
+        ApplicationStatus applicationStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                applicationStatus = ApplicationStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid status: " + status));
+            }
+        }
+
+        ApplicationIndexResult result = applicationIndexService.query(
+                departments, applicationStatus, category != null && !category.isBlank() ? category : null,
+                from, to, page, size);
+        // Rows for the page only: one primary-key lookup, never the whole department
+        if (withApplications) {
+            result.setApplications(applicationQueryService.getApplicationsInOrder(result.getAppIds()));
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // ==============================
+    // STAFF: PRINT CERTIFICATES (one merged PDF for a batch of approved applications)
+    // ==============================
+    @PostMapping("/staff/certificates")
+    public ResponseEntity<StreamingResponseBody> printCertificates(
+            @RequestBody Map<String, List<Long>> request,
+            HttpSession session
+    ) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return jsonError(401, "Not authenticated");
+        }
+
+        List<Map<String, String>> pages;
+        try {
+            pages = certificateRenderService.prepareBatch(
+                    request.get("appIds"),
+                    applicationService.getDepartmentsForStaff(staff.get().getDepartment()),
+                    staff.get().getName());
+        } catch (IllegalArgumentException e) {
+            return jsonError(400, e.getMessage());
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header("Content-Disposition", "attachment; filename=certificates.pdf")
+                .body(out -> certificateRenderService.writePdf(pages, out));
+    }
+
+    // ==============================
+    // STAFF: AUDIT BUNDLE (ZIP of all documents for a department / status / date range)
+    // ==============================
+    @GetMapping("/staff/documents/bundle")
+    public ResponseEntity<StreamingResponseBody> downloadDocumentBundle(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpSession session
+    ) {
+        Optional<Staff> staff = currentStaff(session);
+        if (staff.isEmpty()) {
+            return jsonError(401, "Not authenticated");
+        }
+
+        // 1️⃣ Departments: the requested one, if it is the staff member's, otherwise all of theirs
+        List<String> departments = applicationService.getDepartmentsForStaff(staff.get().getDepartment());
+        if (department != null && !department.isBlank()) {
+            if (!departments.contains(department)) {
+                return jsonError(403, "Department " + department + " is not assigned to you");
+            }
+            departments = List.of(department);
+        }
+
+        // 2️⃣ Status / dates
+        String statusName = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                statusName = ApplicationStatus.valueOf(status.toUpperCase()).name();
+            } catch (IllegalArgumentException e) {
+                return jsonError(400, "Invalid status: " + status);
+            }
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return jsonError(400, "from must not be after to");
+        }
+
+        DocumentBundleService.BundleFilter filter =
+                new DocumentBundleService.BundleFilter(departments, statusName, from, to);
+        String fileName = "documents-" + String.join("_", departments) + "-" + LocalDate.now() + ".zip";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header("Content-Disposition", "attachment; filename=" + fileName)
+                .body(out -> documentBundleService.writeBundle(filter, out));
+    }
+
+    // Streaming endpoints cannot return ResponseEntity<?>, so errors are written as a JSON body
+    private ResponseEntity<StreamingResponseBody> jsonError(int status, String message) {
+        String json = "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Logged-in staff member, empty when there is no staff session
+    private Optional<Staff> currentStaff(HttpSession session) {
+        String staffEmail = (String) session.getAttribute("staffEmail");
+        return staffEmail != null ? staffRepository.findByEmail(staffEmail) : Optional.empty();
+    }
+
+    // Documents name the student, so staff only see applications of their own departments
+    private boolean isInDepartments(Application application, Staff staff) {
+        return applicationService.getDepartmentsForStaff(staff.getDepartment()).contains(application.getDepartment());
+    }
+
     // ==============================
     // STAFF: GET APPLICATIONS BY DEPARTMENT (OLD METHOD - Single department)
     // ==============================
@@ -313,12 +713,8 @@ public class ApplicationController {
             
             // Debug: Print first few applications
             applications.stream().limit(3).forEach(app -> {
-                if (app.getStudent() != null) {
-                    System.out.println("DEBUG App: Student ID=" + app.getStudent().getId() + 
-                                      ", Student Dept='" + app.getStudent().getDepartment() + "'");
-                } else {
-                    System.out.println("DEBUG App: Student is null!");
-                }
+                System.out.println("DEBUG App: ID=" + app.getAppId() +
+                                  ", Dept='" + app.getDepartment() + "'");
             });
             
             System.out.println("=== DEBUG: OLD Department Filtering End ===");
@@ -388,9 +784,7 @@ public class ApplicationController {
                 System.out.println("DEBUG: Department distribution:");
                 allowedDepartments.forEach(dept -> {
                     long count = applications.stream()
-                        .filter(app -> app.getStudent() != null && 
-                                      app.getStudent().getDepartment() != null && 
-                                      app.getStudent().getDepartment().equals(dept))
+                        .filter(app -> dept.equals(app.getDepartment()))
                         .count();
                     System.out.println("  - " + dept + ": " + count + " applications");
                 });
@@ -415,7 +809,7 @@ public class ApplicationController {
         System.out.println("TEST: Testing department filter for: " + department);
         
         // Test 1: Direct repository call
-        List<Application> repoResult = applicationRepository.findByStudent_Department(department);
+        List<Application> repoResult = applicationService.getApplicationsByDepartment(department);
         System.out.println("TEST: Repository returned " + repoResult.size() + " applications");
         
         // Test 2: Service call
@@ -452,6 +846,22 @@ public class ApplicationController {
         ));
     }
 
+    // ==========================
+    // CSV REPORT PREVIEW (certificate range: count + first rows)
+    // ==========================
+    @GetMapping("/reports/applications/preview")
+    public ResponseEntity<?> previewApplicationsCSVFiltered(
+            @RequestParam String certificateStart,
+            @RequestParam String certificateEnd,
+            HttpSession session
+    ) {
+        if (currentStaff(session).isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        return ResponseEntity.ok(applicationQueryService.getExportPreview(
+                certificateStart.toUpperCase(), certificateEnd.toUpperCase()));
+    }
+
     // ==========================
     // CSV REPORT
     // ==========================
@@ -460,17 +870,10 @@ public class ApplicationController {
             @RequestParam(required = false) String certificateStart,
             @RequestParam(required = false) String certificateEnd
     ) {
-        List<Application> applications;
-
-        if (certificateStart != null && certificateEnd != null) {
-            applications = applicationRepository
-                    .findByCurrentCertificateNoBetween(
-                            certificateStart.toUpperCase(),
-                            certificateEnd.toUpperCase()
-                    );
-        } else {
-            applications = applicationRepository.findAll();
-        }
+        List<Application> applications = applicationQueryService.getApplicationsForExport(
+                certificateStart != null ? certificateStart.toUpperCase() : null,
+                certificateEnd != null ? certificateEnd.toUpperCase() : null
+        );
 
         StringWriter csvWriter = new StringWriter();
         csvWriter.append(
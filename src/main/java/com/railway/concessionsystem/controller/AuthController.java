@@ -1,9 +1,11 @@
 package com.railway.concessionsystem.controller;
 
+import com.railway.concessionsystem.dto.StudentSummary;
 import com.railway.concessionsystem.model.Staff;
 import com.railway.concessionsystem.model.Student;
 import com.railway.concessionsystem.repository.StaffRepository;
 import com.railway.concessionsystem.repository.StudentRepository;
+import com.railway.concessionsystem.service.SearchService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +31,9 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private SearchService searchService;
+    
     // Student login with ID and DOB
     @PostMapping("/student/login")
     public ResponseEntity<?> studentLogin(@RequestBody Map<String, String> credentials, HttpSession session) {
@@ -37,7 +42,8 @@ public class AuthController {
         
         try {
             LocalDate dob = LocalDate.parse(dobString);
-            Optional<Student> student = studentRepository.findById(studentId);
+            // Projection only - the applications collection is never initialized
+            Optional<StudentSummary> student = studentRepository.findSummaryById(studentId);
             
             if (student.isPresent() && student.get().getDob().equals(dob)) {
                 // Set session attribute for student
@@ -132,9 +138,10 @@ public class AuthController {
             }
             
             Student savedStudent = studentRepository.save(student);
+            searchService.indexStudent(savedStudent);
             return ResponseEntity.ok().body(Map.of(
                 "message", "Registration successful",
-                "student", savedStudent
+                "student", StudentSummary.from(savedStudent)
             ));
             
         } catch (Exception e) {
@@ -0,0 +1,51 @@
+package com.railway.concessionsystem.controller;
+
+import com.railway.concessionsystem.dto.ExpiryRunReport;
+import com.railway.concessionsystem.repository.StaffRepository;
+import com.railway.concessionsystem.service.ConcessionExpiryService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/concessions")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ConcessionController {
+
+    @Autowired
+    private ConcessionExpiryService concessionExpiryService;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    // ==========================
+    // Last expiry / renewal run
+    // ==========================
+    @GetMapping("/expiry")
+    public ResponseEntity<?> getLastExpiryRun() {
+        ExpiryRunReport report = concessionExpiryService.getLastReport();
+        if (report == null) {
+            return ResponseEntity.ok(Map.of("message", "Expiry job has not run yet"));
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // ==========================
+    // Expire concessions and create renewal drafts now
+    // ==========================
+    @PostMapping("/expiry")
+    public ResponseEntity<?> runExpiry(HttpSession session) {
+        String staffEmail = (String) session.getAttribute("staffEmail");
+        if (staffEmail == null || staffRepository.findByEmail(staffEmail).isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        try {
+            return ResponseEntity.ok(concessionExpiryService.expireAndRenew());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
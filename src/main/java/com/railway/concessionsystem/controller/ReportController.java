@@ -1,17 +1,29 @@
 package com.railway.concessionsystem.controller;
 
+import com.railway.concessionsystem.dto.StatsBackfillReport;
 import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.ApplicationStatus;
 import com.railway.concessionsystem.model.Staff;
-import com.railway.concessionsystem.repository.ApplicationRepository;
 import com.railway.concessionsystem.repository.StaffRepository;
+import com.railway.concessionsystem.service.ApplicationService;
+import com.railway.concessionsystem.service.DailyStatsService;
+import com.railway.concessionsystem.service.RouteAnalyticsService;
+import com.railway.concessionsystem.service.SlaHistogramService;
 
+import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.StringWriter;
 import java.security.Principal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -19,11 +31,137 @@ import java.util.List;
 public class ReportController {
 
     @Autowired
-    private ApplicationRepository applicationRepository;
+    private ApplicationService applicationService;
 
     @Autowired
     private StaffRepository staffRepository;
 
+    @Autowired
+    private RouteAnalyticsService routeAnalyticsService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private SlaHistogramService slaHistogramService;
+
+    // ==========================
+    // Top routes per department
+    // ==========================
+    @GetMapping("/routes/top")
+    public ResponseEntity<?> getTopRoutes(
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) List<String> department,
+            HttpSession session
+    ) {
+        if (!isStaff(session)) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        if (k < 1 || k > 100) {
+            return ResponseEntity.badRequest().body(Map.of("error", "k must be between 1 and 100"));
+        }
+        return ResponseEntity.ok(routeAnalyticsService.topRoutes(department, k));
+    }
+
+    // ==========================
+    // Submission / decision trends (daily aggregates only)
+    // ==========================
+    @GetMapping("/trends")
+    public ResponseEntity<?> getTrends(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) List<String> department,
+            @RequestParam(required = false) String category
+    ) {
+        DailyStatsService.Granularity period;
+        try {
+            period = DailyStatsService.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "granularity must be DAY, WEEK or MONTH"));
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "to must not be before from"));
+        }
+        long days = ChronoUnit.DAYS.between(from, to);
+        if (days > (period == DailyStatsService.Granularity.DAY ? 366 : 3660)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Date range too long for " + period));
+        }
+        return ResponseEntity.ok(dailyStatsService.trend(from, to, period, department,
+                category != null && !category.isBlank() ? category : null));
+    }
+
+    // ==========================
+    // Turnaround percentiles (application date -> decision) for decision months from..to (yyyy-MM)
+    // ==========================
+    @GetMapping("/sla")
+    public ResponseEntity<?> getSlaPercentiles(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "APPROVED") String outcome,
+            @RequestParam(required = false) List<String> department,
+            @RequestParam(required = false) String category
+    ) {
+        YearMonth toMonth;
+        YearMonth fromMonth;
+        try {
+            toMonth = to != null ? YearMonth.parse(to) : YearMonth.now();
+            fromMonth = from != null ? YearMonth.parse(from) : toMonth;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from / to must be yyyy-MM"));
+        }
+        if (toMonth.isBefore(fromMonth)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "to must not be before from"));
+        }
+
+        ApplicationStatus decision;
+        try {
+            decision = ApplicationStatus.valueOf(outcome.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            decision = null;
+        }
+        if (decision != ApplicationStatus.APPROVED && decision != ApplicationStatus.REJECTED) {
+            return ResponseEntity.badRequest().body(Map.of("error", "outcome must be APPROVED or REJECTED"));
+        }
+
+        return ResponseEntity.ok(slaHistogramService.percentiles(fromMonth, toMonth, decision, department,
+                category != null && !category.isBlank() ? category : null));
+    }
+
+    // ==========================
+    // Last daily stats backfill
+    // ==========================
+    @GetMapping("/daily-stats/backfill")
+    public ResponseEntity<?> getLastBackfill() {
+        StatsBackfillReport report = dailyStatsService.getLastReport();
+        if (report == null) {
+            return ResponseEntity.ok(Map.of("message", "Daily stats backfill has not run yet"));
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // ==========================
+    // Re-derive daily stats (whole history when no range is given)
+    // ==========================
+    @PostMapping("/daily-stats/backfill")
+    public ResponseEntity<?> runBackfill(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpSession session
+    ) {
+        if (!isStaff(session)) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        try {
+            if (from == null) {
+                return ResponseEntity.ok(dailyStatsService.backfillAll());
+            }
+            return ResponseEntity.ok(dailyStatsService.backfill(from, to != null ? to : LocalDate.now()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // ==========================
     // Generate CSV report (DEPARTMENT FILTERED)
     // ==========================
@@ -48,7 +186,7 @@ public class ReportController {
 
         // 3️⃣ Fetch ONLY allowed applications
         List<Application> applications =
-                applicationRepository.findByStudent_DepartmentIn(allowedDepartments);
+                applicationService.getApplicationsForMultipleDepartments(allowedDepartments);
 
         // 4️⃣ Build CSV
         StringWriter csvWriter = new StringWriter();
@@ -60,7 +198,7 @@ public class ReportController {
             csvWriter.append(String.valueOf(app.getAppId())).append(",");
             csvWriter.append(app.getStudent().getId()).append(",");
             csvWriter.append(escapeCsv(app.getStudentName())).append(",");
-            csvWriter.append(app.getStudent().getDepartment()).append(",");
+            csvWriter.append(app.getDepartment()).append(",");
             csvWriter.append(escapeCsv(app.getRouteFrom())).append(",");
             csvWriter.append(escapeCsv(app.getRouteTo())).append(",");
             csvWriter.append(app.getStatus().toString()).append(",");
@@ -84,4 +222,9 @@ public class ReportController {
         }
         return value;
     }
+
+    private boolean isStaff(HttpSession session) {
+        String staffEmail = (String) session.getAttribute("staffEmail");
+        return staffEmail != null && staffRepository.findByEmail(staffEmail).isPresent();
+    }
 }
@@ -0,0 +1,96 @@
+package com.railway.concessionsystem.controller;
+
+import com.railway.concessionsystem.dto.ReconcileReport;
+import com.railway.concessionsystem.repository.StaffRepository;
+import com.railway.concessionsystem.service.DocumentArchiveService;
+import com.railway.concessionsystem.service.DuplicateDetectionService;
+import com.railway.concessionsystem.service.StorageReconcilerService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/storage")
+@CrossOrigin(origins = "http://localhost:3000")
+public class StorageController {
+
+    @Autowired
+    private StorageReconcilerService storageReconcilerService;
+
+    @Autowired
+    private DocumentArchiveService documentArchiveService;
+
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    // ==========================
+    // Last reconcile run
+    // ==========================
+    @GetMapping("/reconcile")
+    public ResponseEntity<?> getLastReconcile() {
+        ReconcileReport report = storageReconcilerService.getLastReport();
+        if (report == null) {
+            return ResponseEntity.ok(Map.of("message", "Reconciler has not run yet"));
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // ==========================
+    // Run reconcile now
+    // ==========================
+    @PostMapping("/reconcile")
+    public ResponseEntity<?> runReconcile(HttpSession session) {
+        if (!isStaff(session)) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        try {
+            return ResponseEntity.ok(storageReconcilerService.reconcile());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==========================
+    // Pack past academic years into archives now
+    // ==========================
+    @PostMapping("/archive")
+    public ResponseEntity<?> runArchive(HttpSession session) {
+        if (!isStaff(session)) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        try {
+            int archived = documentArchiveService.archivePastYears();
+            return ResponseEntity.ok(Map.of("archivedDocuments", archived));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==========================
+    // Fingerprint documents stored before duplicate detection existed
+    // ==========================
+    @PostMapping("/fingerprints")
+    public ResponseEntity<?> runFingerprintBackfill(HttpSession session) {
+        if (!isStaff(session)) {
+            return ResponseEntity.status(401).body(Map.of("error", "Not authenticated"));
+        }
+        try {
+            long[] result = duplicateDetectionService.backfill();
+            return ResponseEntity.ok(Map.of("fingerprinted", result[0], "unreadable", result[1]));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Jobs that move or delete stored files are staff-only
+    private boolean isStaff(HttpSession session) {
+        String staffEmail = (String) session.getAttribute("staffEmail");
+        return staffEmail != null && staffRepository.findByEmail(staffEmail).isPresent();
+    }
+}
@@ -1,10 +1,20 @@
 package com.railway.concessionsystem.controller;
 
+import com.railway.concessionsystem.dto.PagedResponse;
+import com.railway.concessionsystem.dto.RosterImportReport;
+import com.railway.concessionsystem.dto.StudentSearchHit;
+import com.railway.concessionsystem.dto.StudentSummary;
 import com.railway.concessionsystem.model.Student;
 import com.railway.concessionsystem.repository.StudentRepository;
+import com.railway.concessionsystem.service.ApplicationIndexService;
+import com.railway.concessionsystem.service.RosterImportService;
+import com.railway.concessionsystem.service.SearchService;
+import com.railway.concessionsystem.service.StudentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Map;
@@ -18,33 +28,49 @@ public class StudentController {
     @Autowired
     private StudentRepository studentRepository;
     
-    // Get all students (for staff only)
+    @Autowired
+    private SearchService searchService;
+    
+    @Autowired
+    private StudentService studentService;
+    
+    @Autowired
+    private RosterImportService rosterImportService;
+    
+    @Autowired
+    private ApplicationIndexService applicationIndexService;
+    
+    // Get all students (for staff only) - flat projections, applications are not loaded
     @GetMapping
-    public List<Student> getAllStudents() {
-        return studentRepository.findAll();
+    public List<StudentSummary> getAllStudents() {
+        return studentRepository.findAllSummaries();
+    }
+    
+    // Paged student directory, optionally with per-student application counts
+    @GetMapping("/directory")
+    public PagedResponse<StudentSummary> getStudentDirectory(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String department,
+            @RequestParam(defaultValue = "false") boolean withCounts
+    ) {
+        return studentService.getDirectory(Math.max(page, 0), Math.min(Math.max(size, 1), 100), department, withCounts);
     }
     
     // Get student by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Student> getStudentById(@PathVariable String id) {
-        Optional<Student> student = studentRepository.findById(id);
-        return student.map(ResponseEntity::ok)
+    public ResponseEntity<StudentSummary> getStudentById(@PathVariable String id) {
+        return studentRepository.findSummaryById(id)
+                     .map(ResponseEntity::ok)
                      .orElse(ResponseEntity.notFound().build());
     }
     
     // Get student with applications by ID
     @GetMapping("/{id}/with-applications")
     public ResponseEntity<Student> getStudentWithApplications(@PathVariable String id) {
-        Optional<Student> student = studentRepository.findById(id);
-        if (student.isPresent()) {
-            // Force initialization of applications (if needed)
-            Student s = student.get();
-            if (s.getApplications() != null) {
-                s.getApplications().size(); // This forces Hibernate to load the collection
-            }
-            return ResponseEntity.ok(s);
-        }
-        return ResponseEntity.notFound().build();
+        return studentService.getStudentWithApplications(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
     
     // Update student profile
@@ -67,7 +93,8 @@ public class StudentController {
             }
             
             Student updatedStudent = studentRepository.save(student);
-            return ResponseEntity.ok(updatedStudent);
+            searchService.indexStudent(updatedStudent);
+            return ResponseEntity.ok(StudentSummary.from(updatedStudent));
         }
         
         return ResponseEntity.notFound().build();
@@ -76,16 +103,36 @@ public class StudentController {
     // Delete student (admin only)
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteStudent(@PathVariable String id) {
-        if (studentRepository.existsById(id)) {
-            studentRepository.deleteById(id);
+        Optional<List<Long>> deletedAppIds = studentService.deleteStudent(id);
+        if (deletedAppIds.isPresent()) {
+            searchService.removeStudent(id);
+            applicationIndexService.remove(deletedAppIds.get());
             return ResponseEntity.ok().body(Map.of("message", "Student deleted successfully"));
         }
         return ResponseEntity.notFound().build();
     }
     
-    // Search students by name or email
+    // Bulk roster import (CSV or XLSX) - upserts students, reports per-row errors
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importRoster(@RequestParam("file") MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Roster file is required"));
+        }
+        try {
+            RosterImportReport report = rosterImportService.importRoster(file);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Roster import failed: " + e.getMessage()));
+        }
+    }
+    
+    // Search students by ID, name, email, department or travelled route (in-memory index)
     @GetMapping("/search")
-    public List<Student> searchStudents(@RequestParam String query) {
-        return studentRepository.findByNameContainingOrEmailContaining(query, query);
+    public PagedResponse<StudentSearchHit> searchStudents(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return searchService.searchStudents(query, Math.max(page, 0), Math.min(Math.max(size, 1), 100));
     }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.railway.concessionsystem.controller;
+
+import com.railway.concessionsystem.service.ResumableUploadService;
+import com.railway.concessionsystem.service.ResumableUploadService.Upload;
+import com.railway.concessionsystem.service.ResumableUploadService.UploadException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resumable uploads (tus 1.0.0 core + creation, checksum, termination and
+ * expiration). POST creates an upload, HEAD reports its offset, PATCH appends
+ * a chunk at that offset. Pass the id as aadharUploadId / casteUploadId to
+ * POST /api/applications once the offset reaches the length.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@CrossOrigin(origins = "http://localhost:3000",
+        exposedHeaders = {"Location", "Upload-Offset", "Upload-Length", "Upload-Expires", "Tus-Resumable"})
+public class UploadController {
+
+    private static final String TUS_VERSION = "1.0.0";
+    private static final String OFFSET_CONTENT_TYPE = "application/offset+octet-stream";
+
+    @Autowired
+    private ResumableUploadService resumableUploadService;
+
+    // ==========================
+    // Server capabilities
+    // ==========================
+    @RequestMapping(method = RequestMethod.OPTIONS)
+    public ResponseEntity<?> options() {
+        return ResponseEntity.noContent()
+                .header("Tus-Resumable", TUS_VERSION)
+                .header("Tus-Version", TUS_VERSION)
+                .header("Tus-Extension", "creation,checksum,termination,expiration")
+                .header("Tus-Max-Size", String.valueOf(resumableUploadService.getMaxBytes()))
+                .header("Tus-Checksum-Algorithm", String.join(",", ResumableUploadService.CHECKSUM_ALGORITHMS.keySet()))
+                .build();
+    }
+
+    // ==========================
+    // Create upload
+    // ==========================
+    @PostMapping
+    public ResponseEntity<?> create(
+            @RequestHeader("Upload-Length") long uploadLength,
+            @RequestHeader(value = "Upload-Metadata", required = false) String uploadMetadata
+    ) {
+        try {
+            Map<String, String> metadata = parseMetadata(uploadMetadata);
+            Upload upload = resumableUploadService.create(
+                    metadata.get("studentId"), metadata.get("filename"), uploadLength);
+            return ResponseEntity.created(URI.create("/api/uploads/" + upload.getId()))
+                    .header("Tus-Resumable", TUS_VERSION)
+                    .header("Upload-Offset", "0")
+                    .header("Upload-Expires", httpDate(upload))
+                    .body(Map.of("uploadId", upload.getId()));
+        } catch (UploadException e) {
+            return error(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid Upload-Metadata header"));
+        }
+    }
+
+    // ==========================
+    // Current offset
+    // ==========================
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<?> head(@PathVariable String id) {
+        Optional<Upload> upload = resumableUploadService.find(id);
+        if (upload.isEmpty()) {
+            return ResponseEntity.notFound().header("Tus-Resumable", TUS_VERSION).build();
+        }
+        return ResponseEntity.ok()
+                .header("Tus-Resumable", TUS_VERSION)
+                .header("Upload-Offset", String.valueOf(upload.get().getOffset()))
+                .header("Upload-Length", String.valueOf(upload.get().getLength()))
+                .header("Upload-Expires", httpDate(upload.get()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    // ==========================
+    // Append chunk
+    // ==========================
+    @PatchMapping(value = "/{id}", consumes = OFFSET_CONTENT_TYPE)
+    public ResponseEntity<?> patch(
+            @PathVariable String id,
+            @RequestHeader("Upload-Offset") long uploadOffset,
+            @RequestHeader(value = "Upload-Checksum", required = false) String uploadChecksum,
+            HttpServletRequest request
+    ) {
+        try (InputStream body = request.getInputStream()) {
+            long offset = resumableUploadService.append(id, uploadOffset, body, uploadChecksum);
+            return ResponseEntity.noContent()
+                    .header("Tus-Resumable", TUS_VERSION)
+                    .header("Upload-Offset", String.valueOf(offset))
+                    .build();
+        } catch (UploadException e) {
+            return error(e);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // ==========================
+    // Terminate
+    // ==========================
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(@PathVariable String id) {
+        if (!resumableUploadService.delete(id)) {
+            return ResponseEntity.notFound().header("Tus-Resumable", TUS_VERSION).build();
+        }
+        return ResponseEntity.noContent().header("Tus-Resumable", TUS_VERSION).build();
+    }
+
+    private static ResponseEntity<?> error(UploadException e) {
+        return ResponseEntity.status(e.getStatus())
+                .header("Tus-Resumable", TUS_VERSION)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    /**
+     * "key base64value,key2 base64value2" -> decoded map
+     */
+    private static Map<String, String> parseMetadata(String header) {
+        Map<String, String> metadata = new HashMap<>();
+        if (header == null || header.isBlank()) {
+            return metadata;
+        }
+        for (String pair : header.split(",")) {
+            String[] parts = pair.trim().split(" ", 2);
+            if (parts[0].isEmpty()) {
+                continue;
+            }
+            metadata.put(parts[0], parts.length < 2 ? ""
+                    : new String(Base64.getDecoder().decode(parts[1].trim()), StandardCharsets.UTF_8));
+        }
+        return metadata;
+    }
+
+    private static String httpDate(Upload upload) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(upload.getExpiresAt().atZone(ZoneId.systemDefault()));
+    }
+}
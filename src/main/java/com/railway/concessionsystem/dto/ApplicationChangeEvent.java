@@ -0,0 +1,45 @@
+package com.railway.concessionsystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pushed to staff dashboards over SSE.
+ * Staff outside the application's departments receive the same event
+ * without the application (enough to keep their global counters right).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ApplicationChangeEvent {
+
+    public enum Type { CREATED, STATUS_CHANGED, UPDATED }
+
+    private Type type;
+    private Long appId;
+    private String department;
+    private ApplicationStatus status;
+    private ApplicationStatus previousStatus;
+    private Application application;
+
+    public static ApplicationChangeEvent created(Application app) {
+        return new ApplicationChangeEvent(Type.CREATED, app.getAppId(), app.getDepartment(), app.getStatus(), null, app);
+    }
+
+    public static ApplicationChangeEvent statusChanged(Application app, ApplicationStatus previousStatus) {
+        return new ApplicationChangeEvent(Type.STATUS_CHANGED, app.getAppId(), app.getDepartment(), app.getStatus(), previousStatus, app);
+    }
+
+    public static ApplicationChangeEvent updated(Application app) {
+        return new ApplicationChangeEvent(Type.UPDATED, app.getAppId(), app.getDepartment(), app.getStatus(), app.getStatus(), app);
+    }
+
+    public ApplicationChangeEvent withoutDetails() {
+        return new ApplicationChangeEvent(type, appId, null, status, previousStatus, null);
+    }
+}
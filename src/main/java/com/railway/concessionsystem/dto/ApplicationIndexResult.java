@@ -0,0 +1,26 @@
+package com.railway.concessionsystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.railway.concessionsystem.model.Application;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApplicationIndexResult {
+
+    private long total;                      // matches for the requested status (all statuses when none given)
+    private Map<String, Long> countsByStatus; // same filter without the status, for the filter tabs
+    private List<Long> appIds;               // requested page, newest first
+    private int page;
+    private int size;
+    private long tookMicros;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Application> applications;  // the page's rows, only when asked for (withApplications)
+}
@@ -0,0 +1,19 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApplicationSearchHit {
+
+    private Long appId;
+    private String studentId;
+    private String studentName;
+    private String routeFrom;
+    private String routeTo;
+    private String status;
+    private double score;
+}
@@ -0,0 +1,19 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateMatch {
+
+    private Long appId;
+    private String document;          // AADHAR / CASTE of appId
+    private Long matchedAppId;
+    private String matchedDocument;
+    private String matchedStudentId;
+    private int distance;             // differing hash bits, 0 = same image
+    private boolean sameStudent;      // a student re-using their own scan is expected
+}
@@ -0,0 +1,20 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class ExpiryRunReport {
+
+    private LocalDateTime startedAt;
+    private long elapsedMs;
+    private long chunks;
+    private long approvedScanned;
+    private long validityStamped;   // older approvals given a validUntil
+    private long expired;
+    private long renewalDrafts;
+    private long undated;           // approved without approve/issue date - left alone
+}
@@ -0,0 +1,25 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PagedResponse<T> {
+
+    private List<T> items;
+    private long total;
+    private int page;
+    private int size;
+
+    public static <T> PagedResponse<T> of(List<T> all, int page, int size) {
+        // long arithmetic: callers cap size but not page, and page * size must not wrap negative
+        int from = (int) Math.min((long) page * size, all.size());
+        int to = (int) Math.min((long) from + size, all.size());
+        return new PagedResponse<>(all.subList(from, to), all.size(), page, size);
+    }
+}
@@ -0,0 +1,25 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ReconcileReport {
+
+    private LocalDateTime startedAt;
+    private long elapsedMs;
+    private String mode;
+    private long filesScanned;
+    private long referencedPaths;
+    private long orphansFound;
+    private long orphansInGracePeriod;
+    private long filesReclaimed;
+    private long bytesReclaimed;
+    private long missingFiles;  // referenced by a row but not on disk
+    private List<String> reclaimed = new ArrayList<>();
+}
@@ -0,0 +1,28 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class RosterImportReport {
+
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private long elapsedMs;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int row;          // 1-based line / row number in the uploaded file
+        private String studentId;
+        private String message;
+    }
+}
@@ -0,0 +1,16 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteCount {
+    private Integer fromStationId;
+    private String from;
+    private Integer toStationId;
+    private String to;
+    private long applications;
+}
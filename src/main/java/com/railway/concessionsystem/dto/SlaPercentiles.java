@@ -0,0 +1,20 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlaPercentiles {
+
+    private String department;     // "ALL" on the total row
+    private String category;       // "ALL" on the total and per-department rows
+    private String outcome;
+    private long count;
+    private double p50Hours;
+    private double p90Hours;
+    private double p99Hours;
+    private double maxHours;
+}
@@ -0,0 +1,20 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class StatsBackfillReport {
+
+    private LocalDateTime startedAt;
+    private long elapsedMs;
+    private LocalDate from;         // inclusive
+    private LocalDate to;           // inclusive
+    private long windows;           // one transaction each
+    private long statRows;          // daily_application_stats rows written
+    private long approvalsBucketed;
+}
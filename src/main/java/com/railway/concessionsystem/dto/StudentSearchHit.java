@@ -0,0 +1,18 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentSearchHit {
+
+    private String id;
+    private String name;
+    private String email;
+    private String department;
+    private String category;
+    private double score;
+}
@@ -0,0 +1,47 @@
+package com.railway.concessionsystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.railway.concessionsystem.model.Student;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Flat student view - never touches the lazy applications collection
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StudentSummary {
+
+    private String id;
+    private String name;
+    private LocalDate dob;
+    private String email;
+    private String category;
+    private String department;
+    private Long applicationCount; // only filled when requested
+
+    // Used by JPQL constructor expressions
+    public StudentSummary(String id, String name, LocalDate dob, String email,
+                          String category, String department) {
+        this.id = id;
+        this.name = name;
+        this.dob = dob;
+        this.email = email;
+        this.category = category;
+        this.department = department;
+    }
+
+    public static StudentSummary from(Student student) {
+        return new StudentSummary(
+                student.getId(),
+                student.getName(),
+                student.getDob(),
+                student.getEmail(),
+                student.getCategory(),
+                student.getDepartment()
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package com.railway.concessionsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendPoint {
+
+    private LocalDate period;              // first day of the day / week / month
+    private long submitted;
+    private long approved;
+    private long rejected;
+    private Double medianHoursToApprove;   // null when nothing in the period was approved
+}
@@ -35,6 +35,9 @@ public class Application {
     @Column(name = "category")
     private String category;
 
+    @Column(name = "department")
+    private String department;         // copy of student.department - staff filters stay single-table
+
     @Column(name = "caste_certificate")
     private String casteCertificate;   // ✅ IMPORTANT FIELD
 
@@ -47,6 +50,13 @@ public class Application {
     @Column(name = "route_to", nullable = false)
     private String routeTo;
 
+    // Interned route (station dictionary ids) - route_from / route_to hold the canonical names
+    @Column(name = "route_from_station_id")
+    private Integer routeFromStationId;
+
+    @Column(name = "route_to_station_id")
+    private Integer routeToStationId;
+
     @Column(name = "prev_certificate_no")
     private String prevCertificateNo;
 
@@ -73,6 +83,18 @@ public class Application {
     @Column(name = "issue_date")
     private LocalDateTime issueDate;
 
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;  // concession end, stamped on approval
+
+    // ==========================
+    // Review queue lease (ReviewQueueService)
+    // ==========================
+    @Column(name = "assigned_to")
+    private Integer assignedTo;        // staff id holding the lease
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
     // ==========================
     // Constructors
     // ==========================
@@ -121,6 +143,14 @@ public class Application {
         this.category = category;
     }
 
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
     // ✅ Caste Certificate Getter/Setter
     public String getCasteCertificate() {
         return casteCertificate;
@@ -154,6 +184,22 @@ public class Application {
         this.routeTo = routeTo;
     }
 
+    public Integer getRouteFromStationId() {
+        return routeFromStationId;
+    }
+
+    public void setRouteFromStationId(Integer routeFromStationId) {
+        this.routeFromStationId = routeFromStationId;
+    }
+
+    public Integer getRouteToStationId() {
+        return routeToStationId;
+    }
+
+    public void setRouteToStationId(Integer routeToStationId) {
+        this.routeToStationId = routeToStationId;
+    }
+
     public String getPrevCertificateNo() {
         return prevCertificateNo;
     }
@@ -202,4 +248,28 @@ public class Application {
         this.issueDate = issueDate;
     }
 
+    public LocalDateTime getValidUntil() {
+        return validUntil;
+    }
+
+    public void setValidUntil(LocalDateTime validUntil) {
+        this.validUntil = validUntil;
+    }
+
+    public Integer getAssignedTo() {
+        return assignedTo;
+    }
+
+    public void setAssignedTo(Integer assignedTo) {
+        this.assignedTo = assignedTo;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
 }
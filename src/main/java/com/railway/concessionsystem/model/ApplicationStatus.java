@@ -1,5 +1,7 @@
 package com.railway.concessionsystem.model;
 
 public enum ApplicationStatus {
-    PENDING, APPROVED, REJECTED
+    PENDING, APPROVED, REJECTED,
+    EXPIRED,    // approved concession past its validUntil
+    DRAFT       // renewal pre-created on expiry, not yet submitted
 }
\ No newline at end of file
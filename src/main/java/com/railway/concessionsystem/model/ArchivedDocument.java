@@ -0,0 +1,40 @@
+package com.railway.concessionsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Offset index entry: where a document that used to be a loose file under
+ * uploads/ now lives inside a pack. Entries are STORED (uncompressed), so
+ * the bytes are read straight from dataOffset.
+ */
+@Entity
+@Table(name = "archived_document")
+@Data
+public class ArchivedDocument {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Path as referenced by application.aadhar_card / caste_certificate
+    @Column(name = "original_path", nullable = false, unique = true)
+    private String originalPath;
+
+    @Column(name = "pack_path", nullable = false)
+    private String packPath;
+
+    @Column(name = "data_offset", nullable = false)
+    private Long dataOffset;
+
+    @Column(name = "length", nullable = false)
+    private Long length;
+
+    @Column(name = "crc32", nullable = false)
+    private Long crc32;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
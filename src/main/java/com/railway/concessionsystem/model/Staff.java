@@ -4,9 +4,13 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "staff")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "staff")
 @Data
 public class Staff {
     
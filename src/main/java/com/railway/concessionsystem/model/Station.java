@@ -0,0 +1,20 @@
+package com.railway.concessionsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Canonical station; applications reference it by id (route_*_station_id)
+ */
+@Entity
+@Table(name = "station")
+@Data
+public class Station {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "name", nullable = false, unique = true, length = 100)
+    private String name;
+}
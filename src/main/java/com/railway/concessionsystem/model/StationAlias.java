@@ -0,0 +1,27 @@
+package com.railway.concessionsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A normalized spelling that resolves to a station (canonical names are aliases too)
+ */
+@Entity
+@Table(name = "station_alias")
+@Data
+@NoArgsConstructor
+public class StationAlias {
+
+    @Id
+    @Column(name = "alias_key", length = 100)
+    private String aliasKey;
+
+    @Column(name = "station_id", nullable = false)
+    private Integer stationId;
+
+    public StationAlias(String aliasKey, Integer stationId) {
+        this.aliasKey = aliasKey;
+        this.stationId = stationId;
+    }
+}
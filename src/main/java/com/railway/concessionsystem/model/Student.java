@@ -5,11 +5,17 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
 @Table(name = "student")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student") // entity only - the applications collection is not cached
 @Data
 public class Student {
     
@@ -38,5 +44,7 @@ public class Student {
     
     @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference // Add this annotation
+    @ToString.Exclude // never initialize the lazy collection from toString/equals/hashCode
+    @EqualsAndHashCode.Exclude
     private List<Application> applications;
 }
\ No newline at end of file
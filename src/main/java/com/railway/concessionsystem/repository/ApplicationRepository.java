@@ -2,12 +2,20 @@ package com.railway.concessionsystem.repository;
 
 import com.railway.concessionsystem.model.Application;
 import com.railway.concessionsystem.model.ApplicationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ApplicationRepository extends JpaRepository<Application, Long> {
@@ -18,38 +26,55 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     List<Application> findByStudentId(String studentId);
     List<Application> findByStatus(ApplicationStatus status);
     long countByStatus(ApplicationStatus status);
+    boolean existsByStudent_IdAndStatus(String studentId, ApplicationStatus status);
+    Optional<Application> findFirstByStudent_IdAndStatus(String studentId, ApplicationStatus status);
+
+    // Application plus its student in one query
+    @Query("SELECT a FROM Application a JOIN FETCH a.student WHERE a.appId = :appId")
+    Optional<Application> findWithStudentByAppId(@Param("appId") Long appId);
+
+    // Row lock (SELECT ... FOR UPDATE) for decisions that must re-check the review lease
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Application a WHERE a.appId = :appId")
+    Optional<Application> findByIdForUpdate(@Param("appId") Long appId);
     
     // ==========================
     // Certificate range filtering
     // ==========================
     List<Application> findByCurrentCertificateNoBetween(String startCertificate, String endCertificate);
+
+    // Export preview: size and first rows of the same range
+    long countByCurrentCertificateNoBetween(String startCertificate, String endCertificate);
+
+    List<Application> findTop10ByCurrentCertificateNoBetweenOrderByCurrentCertificateNo(String startCertificate, String endCertificate);
     List<Application> findByCurrentCertificateNoGreaterThanEqual(String startCertificate);
     List<Application> findByCurrentCertificateNoLessThanEqual(String endCertificate);
     
     // ==========================
     // DEPARTMENT FILTERING METHODS
+    // (application.department mirrors student.department - no join needed)
     // ==========================
     
     // Method 1: Derived query method (Spring Data JPA naming convention) - Single department
-    List<Application> findByStudent_Department(String department);
+    List<Application> findByDepartment(String department);
     
     // NEW METHOD: Derived query for multiple departments (Spring Data JPA naming convention)
-    List<Application> findByStudent_DepartmentIn(List<String> departments);
+    List<Application> findByDepartmentIn(List<String> departments);
     
     // Method 2: Explicit JPQL query (more reliable) - Single department
-    @Query("SELECT a FROM Application a WHERE a.student.department = :department")
+    @Query("SELECT a FROM Application a WHERE a.department = :department")
     List<Application> findByStudentDepartmentExplicit(@Param("department") String department);
     
     // NEW METHOD: Explicit JPQL query for multiple departments
-    @Query("SELECT a FROM Application a WHERE a.student.department IN :departments")
+    @Query("SELECT a FROM Application a WHERE a.department IN :departments")
     List<Application> findByStudentDepartmentInExplicit(@Param("departments") List<String> departments);
     
     // Method 3: Case-insensitive search
-    @Query("SELECT a FROM Application a WHERE LOWER(a.student.department) = LOWER(:department)")
+    @Query("SELECT a FROM Application a WHERE LOWER(a.department) = LOWER(:department)")
     List<Application> findByStudentDepartmentIgnoreCase(@Param("department") String department);
     
     // Method 4: Contains search (if you want partial matches)
-    @Query("SELECT a FROM Application a WHERE a.student.department LIKE %:department%")
+    @Query("SELECT a FROM Application a WHERE a.department LIKE %:department%")
     List<Application> findByStudentDepartmentContaining(@Param("department") String department);
     
     // ==========================
@@ -57,18 +82,73 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     // ==========================
     
     // Get all applications with student department (for debugging)
-    @Query("SELECT a FROM Application a WHERE a.student.department IS NOT NULL")
+    @Query("SELECT a FROM Application a WHERE a.department IS NOT NULL")
     List<Application> findAllWithDepartment();
     
-    // Get distinct departments from all applications
-    @Query("SELECT DISTINCT a.student.department FROM Application a WHERE a.student.department IS NOT NULL")
+    // Get distinct departments from all applications (query cache - any application write invalidates it)
+    @Query("SELECT DISTINCT a.department FROM Application a WHERE a.department IS NOT NULL")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<String> findAllDistinctDepartments();
     
     // Count applications by department
-    @Query("SELECT COUNT(a) FROM Application a WHERE a.student.department = :department")
+    @Query("SELECT COUNT(a) FROM Application a WHERE a.department = :department")
     Long countByStudentDepartment(@Param("department") String department);
     
     // Get applications with null student department
-    @Query("SELECT a FROM Application a WHERE a.student.department IS NULL")
+    @Query("SELECT a FROM Application a WHERE a.department IS NULL")
     List<Application> findByStudentDepartmentIsNull();
+
+    // Application counts for a page of students in one aggregate query (studentId, count)
+    @Query("SELECT a.student.id, COUNT(a) FROM Application a WHERE a.student.id IN :studentIds GROUP BY a.student.id")
+    List<Object[]> countByStudentIds(@Param("studentIds") List<String> studentIds);
+
+    // ==========================
+    // Stored document path swaps (compare-and-set on the old path)
+    // ==========================
+    @Modifying
+    @Transactional
+    @Query("UPDATE Application a SET a.aadharCard = :newPath WHERE a.appId = :appId AND a.aadharCard = :oldPath")
+    int replaceAadharCardPath(@Param("appId") Long appId, @Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Application a SET a.casteCertificate = :newPath WHERE a.appId = :appId AND a.casteCertificate = :oldPath")
+    int replaceCasteCertificatePath(@Param("appId") Long appId, @Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+    // ==========================
+    // Archival candidates (appId, department, applicationDate, aadharCard, casteCertificate)
+    // ==========================
+    @Query("SELECT a.appId, a.department, a.applicationDate, a.aadharCard, a.casteCertificate " +
+           "FROM Application a WHERE a.status NOT IN :openStatuses AND a.applicationDate < :before")
+    List<Object[]> findArchiveCandidates(@Param("openStatuses") List<ApplicationStatus> openStatuses,
+                                         @Param("before") LocalDateTime before);
+
+    // ==========================
+    // Route analytics (department, fromStationId, toStationId, count) - index-only GROUP BY
+    // ==========================
+    @Query("SELECT a.department, a.routeFromStationId, a.routeToStationId, COUNT(a) FROM Application a " +
+           "WHERE a.routeFromStationId IS NOT NULL AND a.routeToStationId IS NOT NULL " +
+           "GROUP BY a.department, a.routeFromStationId, a.routeToStationId")
+    List<Object[]> countRoutesByDepartment();
+
+    @Query("SELECT a.department, a.routeFromStationId, a.routeToStationId, COUNT(a) FROM Application a " +
+           "WHERE a.department IN :departments AND a.routeFromStationId IS NOT NULL AND a.routeToStationId IS NOT NULL " +
+           "GROUP BY a.department, a.routeFromStationId, a.routeToStationId")
+    List<Object[]> countRoutesByDepartmentIn(@Param("departments") List<String> departments);
+
+    // ==========================
+    // Review queue: live leases of one reviewer, oldest first
+    // ==========================
+    @Query("SELECT a FROM Application a WHERE a.assignedTo = :staffId " +
+           "AND a.status = com.railway.concessionsystem.model.ApplicationStatus.PENDING " +
+           "AND a.leaseExpiresAt > :now ORDER BY a.applicationDate, a.appId")
+    List<Application> findLeasedTo(@Param("staffId") Integer staffId, @Param("now") LocalDateTime now);
+
+    // ==========================
+    // Search index bootstrap
+    // ==========================
+
+    // Flat rows (appId, studentId, studentName, routeFrom, routeTo, status) - no entity loading
+    @Query("SELECT a.appId, a.student.id, a.studentName, a.routeFrom, a.routeTo, a.status FROM Application a")
+    List<Object[]> findSearchRows();
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.railway.concessionsystem.repository;
+
+import com.railway.concessionsystem.model.ArchivedDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ArchivedDocumentRepository extends JpaRepository<ArchivedDocument, Long> {
+    Optional<ArchivedDocument> findByOriginalPath(String originalPath);
+    boolean existsByOriginalPath(String originalPath);
+}
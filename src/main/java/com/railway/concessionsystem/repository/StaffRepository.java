@@ -1,12 +1,16 @@
 package com.railway.concessionsystem.repository;
 
 import com.railway.concessionsystem.model.Staff;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
 public interface StaffRepository extends JpaRepository<Staff, Integer> { // Changed from Long to Integer ✅
+    // Query cache maps email -> id, the row itself comes from the Staff entity cache
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Staff> findByEmail(String email);
     boolean existsByEmail(String email);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.railway.concessionsystem.repository;
+
+import com.railway.concessionsystem.model.StationAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StationAliasRepository extends JpaRepository<StationAlias, String> {
+}
@@ -0,0 +1,12 @@
+package com.railway.concessionsystem.repository;
+
+import com.railway.concessionsystem.model.Station;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StationRepository extends JpaRepository<Station, Integer> {
+    Optional<Station> findByName(String name);
+}
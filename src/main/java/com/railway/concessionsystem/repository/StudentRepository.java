@@ -1,7 +1,14 @@
 package com.railway.concessionsystem.repository;
 
+import com.railway.concessionsystem.dto.StudentSummary;
 import com.railway.concessionsystem.model.Student;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
@@ -13,4 +20,27 @@ public interface StudentRepository extends JpaRepository<Student, String> {
     boolean existsByEmail(String email);
     Optional<Student> findByIdAndDob(String id, LocalDate dob);
     List<Student> findByNameContainingOrEmailContaining(String name, String email);
+
+    // Student plus all applications in one query
+    @Query("SELECT s FROM Student s LEFT JOIN FETCH s.applications WHERE s.id = :id")
+    Optional<Student> findWithApplicationsById(@Param("id") String id);
+
+    // ==========================
+    // Directory projections (no entity / collection loading)
+    // ==========================
+    @Query(value = "SELECT new com.railway.concessionsystem.dto.StudentSummary(s.id, s.name, s.dob, s.email, s.category, s.department) FROM Student s",
+           countQuery = "SELECT COUNT(s) FROM Student s")
+    Page<StudentSummary> findSummaries(Pageable pageable);
+
+    @Query(value = "SELECT new com.railway.concessionsystem.dto.StudentSummary(s.id, s.name, s.dob, s.email, s.category, s.department) FROM Student s WHERE s.department = :department",
+           countQuery = "SELECT COUNT(s) FROM Student s WHERE s.department = :department")
+    Page<StudentSummary> findSummariesByDepartment(@Param("department") String department, Pageable pageable);
+
+    @Query("SELECT new com.railway.concessionsystem.dto.StudentSummary(s.id, s.name, s.dob, s.email, s.category, s.department) FROM Student s")
+    List<StudentSummary> findAllSummaries();
+
+    // Login lookup - query cache, invalidated whenever the student table changes
+    @Query("SELECT new com.railway.concessionsystem.dto.StudentSummary(s.id, s.name, s.dob, s.email, s.category, s.department) FROM Student s WHERE s.id = :id")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    Optional<StudentSummary> findSummaryById(@Param("id") String id);
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ApplicationChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live application events for staff dashboards (Server-Sent Events).
+ * ApplicationService publishes an ApplicationChangeEvent; it is fanned out
+ * after commit to every open stream. Each stream has its own bounded
+ * buffer drained by a small dispatcher pool, so a slow browser never
+ * blocks the request that changed the application. When a buffer
+ * overflows the oldest events are dropped and the client is told to
+ * resync (re-fetch once) instead.
+ */
+@Service
+public class ApplicationEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationEventService.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${dashboard.events.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${dashboard.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Counter droppedEvents;
+
+    private final ThreadPoolExecutor dispatcher;
+
+    public ApplicationEventService(@Value("${dashboard.events.dispatch-threads:2}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "sse-dispatch-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * One open dashboard stream
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> departments;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+        private boolean draining;
+        private boolean overflowed;
+
+        Subscriber(SseEmitter emitter, Set<String> departments) {
+            this.emitter = emitter;
+            this.departments = departments;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event, boolean onlyIfIdle) {
+            synchronized (this) {
+                if (onlyIfIdle && (draining || !buffer.isEmpty())) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    overflowed = true;
+                    droppedEvents.increment();
+                }
+                buffer.addLast(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            dispatcher.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                boolean resync;
+                synchronized (this) {
+                    resync = overflowed;
+                    overflowed = false;
+                    next = buffer.pollFirst();
+                    if (next == null && !resync) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+                    }
+                    if (next != null) {
+                        emitter.send(next);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away - completeWithError triggers the cleanup callbacks
+                    remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        droppedEvents = meterRegistry.counter("dashboard.events.dropped");
+        meterRegistry.gaugeCollectionSize("dashboard.events.subscribers", Tags.empty(), subscribers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(s -> s.emitter.complete());
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Open a stream that receives full events for the given student departments
+     */
+    public SseEmitter subscribe(Collection<String> departments) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(departments));
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscribers.add(subscriber);
+        subscriber.enqueue(SseEmitter.event().name("ready").data("{}", MediaType.APPLICATION_JSON), false);
+        log.debug("Dashboard stream opened for {} ({} open)", departments, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Fan out after the publishing transaction commits (immediately when there is none)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChange(ApplicationChangeEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String id = String.valueOf(sequence.incrementAndGet());
+        ApplicationChangeEvent summary = event.withoutDetails();
+
+        for (Subscriber subscriber : subscribers) {
+            boolean inScope = event.getDepartment() != null && subscriber.departments.contains(event.getDepartment());
+            subscriber.enqueue(SseEmitter.event()
+                    .id(id)
+                    .name("application")
+                    .data(inScope ? event : summary, MediaType.APPLICATION_JSON), false);
+        }
+    }
+
+    /**
+     * Tell every open stream to re-fetch once (bulk changes made outside the per-application events)
+     */
+    public void requestResync() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON), false);
+        }
+    }
+
+    /**
+     * Keeps proxies from closing idle streams; skipped for streams that are busy anyway
+     */
+    @Scheduled(fixedDelayString = "${dashboard.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(SseEmitter.event().comment("heartbeat"), true);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            log.debug("Dashboard stream closed ({} open)", subscribers.size());
+        }
+    }
+}
@@ -0,0 +1,512 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ApplicationChangeEvent;
+import com.railway.concessionsystem.dto.ApplicationIndexResult;
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Columnar in-memory copy of the attributes staff filter on: one primitive
+ * array per attribute (status as a byte, department / category as dictionary
+ * codes, application date as epoch day) plus row bitmaps per department,
+ * status and category, so most of a filter is word-wise AND / OR and only the
+ * date range looks at individual rows. A row list kept sorted by
+ * application day (latest indexed first within a day) lets newest-first
+ * paging walk back from the end instead of sorting on every read; an
+ * open-addressing long->int table finds the row of an app_id. Built once at
+ * startup, then kept current from the ApplicationChangeEvents
+ * ApplicationService already publishes; roughly
+ * 45 bytes per application including the id table. Deleted applications
+ * leave an empty row behind until the next rebuild.
+ */
+@Service
+public class ApplicationIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationIndexService.class);
+
+    private static final ApplicationStatus[] STATUSES = ApplicationStatus.values();
+    private static final int NONE = -1;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${application-index.build-batch-size:5000}")
+    private int buildBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns(1024);
+
+    // Changes that arrive while a rebuild is reading the table, replayed onto the new columns
+    private List<Consumer<Columns>> replay;
+
+    public ApplicationIndexService(MeterRegistry meterRegistry) {
+        Gauge.builder("application.index.rows", this, s -> s.size()).register(meterRegistry);
+    }
+
+    /**
+     * The column store; replaced wholesale on rebuild
+     */
+    private static class Columns {
+        private long[] ids;
+        private byte[] status;
+        private int[] department;
+        private int[] category;
+        private int[] appliedDay;       // epoch day, NONE when unknown
+        private int size;               // rows allocated, including removed ones
+        private int live;
+
+        // Live rows ordered by (applied day, row); undated rows first
+        private int[] order;
+
+        private final List<String> dictionary = new ArrayList<>();      // shared by department and category
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<BitSet> departmentRows = new ArrayList<>();  // by department code
+        private final List<BitSet> categoryRows = new ArrayList<>();    // by category code
+        private final BitSet[] statusRows = new BitSet[STATUSES.length];
+
+        // app_id -> row, open addressing with linear probing (slot holds row + 1, 0 = empty)
+        private long[] slotIds = new long[2048];
+        private int[] slotRows = new int[2048];
+
+        Columns(int capacity) {
+            for (int i = 0; i < statusRows.length; i++) {
+                statusRows[i] = new BitSet();
+            }
+            ids = new long[capacity];
+            status = new byte[capacity];
+            department = new int[capacity];
+            category = new int[capacity];
+            appliedDay = new int[capacity];
+            order = new int[capacity];
+        }
+
+        int code(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String dictionaryValue(int code) {
+            return code != NONE ? dictionary.get(code) : null;
+        }
+
+        static BitSet rowsOf(List<BitSet> bitmaps, int code) {
+            while (bitmaps.size() <= code) {
+                bitmaps.add(new BitSet());
+            }
+            return bitmaps.get(code);
+        }
+
+        static BitSet rowsOf(List<BitSet> bitmaps, String value, Map<String, Integer> codes) {
+            Integer code = codes.get(value);
+            return code != null && code < bitmaps.size() ? bitmaps.get(code) : null;
+        }
+
+        void setStatus(int row, ApplicationStatus applicationStatus) {
+            if (status[row] != NONE) {
+                statusRows[status[row]].clear(row);
+            }
+            status[row] = (byte) (applicationStatus != null ? applicationStatus.ordinal() : NONE);
+            if (status[row] != NONE) {
+                statusRows[status[row]].set(row);
+            }
+        }
+
+        int find(long appId) {
+            int mask = slotIds.length - 1;
+            for (int slot = mix(appId) & mask; slotRows[slot] != 0; slot = (slot + 1) & mask) {
+                if (slotIds[slot] == appId) {
+                    return slotRows[slot] - 1;
+                }
+            }
+            return NONE;
+        }
+
+        private void remember(long appId, int row) {
+            if ((size + 1) * 2 > slotIds.length) {
+                long[] oldIds = slotIds;
+                int[] oldRows = slotRows;
+                slotIds = new long[oldIds.length * 2];
+                slotRows = new int[oldIds.length * 2];
+                for (int i = 0; i < oldIds.length; i++) {
+                    if (oldRows[i] != 0) {
+                        place(oldIds[i], oldRows[i]);
+                    }
+                }
+            }
+            place(appId, row + 1);
+        }
+
+        private void place(long appId, int rowPlusOne) {
+            int mask = slotIds.length - 1;
+            int slot = mix(appId) & mask;
+            while (slotRows[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slotIds[slot] = appId;
+            slotRows[slot] = rowPlusOne;
+        }
+
+        // Backward-shift delete: later entries of the probe run move into the gap
+        private void forget(long appId) {
+            int mask = slotIds.length - 1;
+            int gap = mix(appId) & mask;
+            while (slotRows[gap] != 0 && slotIds[gap] != appId) {
+                gap = (gap + 1) & mask;
+            }
+            if (slotRows[gap] == 0) {
+                return;
+            }
+            for (int next = (gap + 1) & mask; slotRows[next] != 0; next = (next + 1) & mask) {
+                int home = mix(slotIds[next]) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    slotIds[gap] = slotIds[next];
+                    slotRows[gap] = slotRows[next];
+                    gap = next;
+                }
+            }
+            slotIds[gap] = 0;
+            slotRows[gap] = 0;
+        }
+
+        long orderKey(int row) {
+            long day = appliedDay[row] != NONE ? appliedDay[row] : Integer.MIN_VALUE;
+            return (day << 32) | row;
+        }
+
+        // First position in order whose key is >= key
+        int orderPosition(long key) {
+            int low = 0;
+            int high = live;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (orderKey(order[mid]) < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // New applications are dated today, so this is almost always an append
+        private void orderInsert(int row) {
+            int position = live > 0 && orderKey(order[live - 1]) < orderKey(row) ? live : orderPosition(orderKey(row));
+            System.arraycopy(order, position, order, position + 1, live - position);
+            order[position] = row;
+            live++;
+        }
+
+        private void orderRemove(int row) {
+            int position = orderPosition(orderKey(row));
+            System.arraycopy(order, position + 1, order, position, live - position - 1);
+            live--;
+        }
+
+        private static int recode(List<BitSet> bitmaps, int row, int oldCode, int newCode) {
+            if (oldCode != newCode) {
+                if (oldCode != NONE) {
+                    rowsOf(bitmaps, oldCode).clear(row);
+                }
+                if (newCode != NONE) {
+                    rowsOf(bitmaps, newCode).set(row);
+                }
+            }
+            return newCode;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        void upsert(long appId, ApplicationStatus applicationStatus, String departmentName, String categoryName,
+                    LocalDateTime applicationDate) {
+            int row = find(appId);
+            if (row == NONE) {
+                if (size == ids.length) {
+                    int capacity = ids.length * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    status = Arrays.copyOf(status, capacity);
+                    department = Arrays.copyOf(department, capacity);
+                    category = Arrays.copyOf(category, capacity);
+                    appliedDay = Arrays.copyOf(appliedDay, capacity);
+                    order = Arrays.copyOf(order, capacity);
+                }
+                row = size;
+                remember(appId, row);
+                size++;
+                ids[row] = appId;
+                status[row] = NONE;
+                department[row] = NONE;
+                category[row] = NONE;
+            } else {
+                orderRemove(row);
+            }
+
+            department[row] = recode(departmentRows, row, department[row], code(departmentName));
+            category[row] = recode(categoryRows, row, category[row], code(categoryName));
+            setStatus(row, applicationStatus);
+            appliedDay[row] = applicationDate != null ? (int) applicationDate.toLocalDate().toEpochDay() : NONE;
+            orderInsert(row);
+        }
+
+        void remove(long appId) {
+            int row = find(appId);
+            if (row == NONE) {
+                return;
+            }
+            orderRemove(row);
+            forget(appId);
+            department[row] = recode(departmentRows, row, department[row], NONE);
+            category[row] = recode(categoryRows, row, category[row], NONE);
+            setStatus(row, null);
+            appliedDay[row] = NONE;
+        }
+    }
+
+    // ==========================
+    // Build / maintenance
+    // ==========================
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Columns fresh = new Columns(1024);
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT app_id, status, department, category, application_date FROM application " +
+                    "WHERE app_id > ? ORDER BY app_id LIMIT ?",
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getTimestamp(5)},
+                    lastId, buildBatchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (Object[] row : rows) {
+                Timestamp applied = (Timestamp) row[4];
+                fresh.upsert((Long) row[0],
+                        row[1] != null ? ApplicationStatus.valueOf((String) row[1]) : null,
+                        (String) row[2], (String) row[3],
+                        applied != null ? applied.toLocalDateTime() : null);
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Consumer<Columns> change : replay) {
+                change.accept(fresh);
+            }
+            replay = null;
+            columns = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Application index built: {} rows, {} dictionary entries in {} ms",
+                fresh.live, fresh.dictionary.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Every create / status change / update from ApplicationService, once committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChange(ApplicationChangeEvent event) {
+        Application app = event.getApplication();
+        if (app != null) {
+            index(app.getAppId(), app.getStatus(), app.getDepartment(), app.getCategory(), app.getApplicationDate());
+        }
+    }
+
+    /**
+     * Direct update for batch jobs that write through JDBC
+     */
+    public void index(Long appId, ApplicationStatus status, String department, String category,
+                      LocalDateTime applicationDate) {
+        if (appId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            columns.upsert(appId, status, department, category, applicationDate);
+            if (replay != null) {
+                replay.add(c -> c.upsert(appId, status, department, category, applicationDate));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Status-only change of an indexed row (expiry job)
+     */
+    public void updateStatus(long appId, ApplicationStatus status) {
+        lock.writeLock().lock();
+        try {
+            int row = columns.find(appId);
+            if (row != NONE) {
+                columns.setStatus(row, status);
+                if (replay != null) {
+                    String department = columns.dictionaryValue(columns.department[row]);
+                    String category = columns.dictionaryValue(columns.category[row]);
+                    LocalDateTime applied = columns.appliedDay[row] != NONE
+                            ? LocalDate.ofEpochDay(columns.appliedDay[row]).atStartOfDay() : null;
+                    replay.add(c -> c.upsert(appId, status, department, category, applied));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop deleted applications (a student removed together with their applications)
+     */
+    public void remove(Collection<Long> appIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long appId : appIds) {
+                columns.remove(appId);
+                if (replay != null) {
+                    replay.add(c -> c.remove(appId));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================
+    // Queries
+    // ==========================
+
+    /**
+     * Filter by departments (required), optional status, category and application date range (inclusive).
+     * countsByStatus ignores the status filter so all tabs can be labelled from one call.
+     */
+    public ApplicationIndexResult query(Collection<String> departments, ApplicationStatus status, String category,
+                                        LocalDate from, LocalDate to, int page, int size) {
+        long start = System.nanoTime();
+        long[] counts = new long[STATUSES.length];
+        List<Long> pageIds = new ArrayList<>(size);
+        long total = 0;
+        long skip = (long) page * size;
+
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+
+            // 1️⃣ Candidate rows: union of the department bitmaps, narrowed by category
+            BitSet candidates = new BitSet(c.size);
+            for (String department : departments) {
+                BitSet rows = Columns.rowsOf(c.departmentRows, department, c.codes);
+                if (rows != null) {
+                    candidates.or(rows);
+                }
+            }
+            if (category != null) {
+                BitSet rows = Columns.rowsOf(c.categoryRows, category, c.codes);
+                if (rows == null) {
+                    candidates.clear();
+                } else {
+                    candidates.and(rows);
+                }
+            }
+
+            // 2️⃣ Date range is the only per-row check
+            if (from != null || to != null) {
+                int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+                int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+                for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                    int day = c.appliedDay[row];
+                    if (day == NONE || day < fromDay || day > toDay) {
+                        candidates.clear(row);
+                    }
+                }
+            }
+
+            // 3️⃣ Per-status counts, then the requested status
+            BitSet selected = null;
+            for (ApplicationStatus s : STATUSES) {
+                BitSet withStatus = (BitSet) candidates.clone();
+                withStatus.and(c.statusRows[s.ordinal()]);
+                counts[s.ordinal()] = withStatus.cardinality();
+                if (s == status) {
+                    selected = withStatus;
+                }
+            }
+            if (selected == null) {
+                selected = candidates;
+            }
+            total = selected.cardinality();
+
+            // 4️⃣ Newest first: walk the day-ordered rows back from the end of the date range,
+            // stopping once the page is full or every selected row has been seen
+            int end = to != null ? c.orderPosition((to.toEpochDay() + 1) << 32) : c.live;
+            long seen = 0;
+            for (int i = end - 1; i >= 0 && pageIds.size() < size && seen < total; i--) {
+                int row = c.order[i];
+                if (selected.get(row) && seen++ >= skip) {
+                    pageIds.add(c.ids[row]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Long> countsByStatus = new LinkedHashMap<>();
+        for (ApplicationStatus s : STATUSES) {
+            countsByStatus.put(s.name(), counts[s.ordinal()]);
+        }
+        return new ApplicationIndexResult(total, countsByStatus, pageIds, page, size,
+                (System.nanoTime() - start) / 1000, null);
+    }
+}
@@ -0,0 +1,73 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read side for application endpoints.
+ * open-in-view is off, so every method returns fully loaded data (student
+ * fetched in the same query where an endpoint needs it) and the connection
+ * goes back to the pool before the response is serialized.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ApplicationQueryService {
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    public Optional<Application> getApplication(Long appId) {
+        return applicationRepository.findById(appId);
+    }
+
+    public Optional<Application> getApplicationWithStudent(Long appId) {
+        return applicationRepository.findWithStudentByAppId(appId);
+    }
+
+    public List<Application> getApplicationsByStudent(String studentId) {
+        return applicationRepository.findByStudentId(studentId);
+    }
+
+    public List<Application> getApplicationsByStatus(ApplicationStatus status) {
+        return applicationRepository.findByStatus(status);
+    }
+
+    /**
+     * One page of index results, in the order of the given IDs (IDs deleted since are skipped)
+     */
+    public List<Application> getApplicationsInOrder(List<Long> appIds) {
+        Map<Long, Application> byId = new HashMap<>();
+        applicationRepository.findAllById(appIds).forEach(app -> byId.put(app.getAppId(), app));
+        return appIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Applications for the filtered CSV export (certificate range, or everything)
+     */
+    public List<Application> getApplicationsForExport(String certificateStart, String certificateEnd) {
+        if (certificateStart != null && certificateEnd != null) {
+            return applicationRepository.findByCurrentCertificateNoBetween(certificateStart, certificateEnd);
+        }
+        return applicationRepository.findAll();
+    }
+
+    /**
+     * Count and first ten rows of a certificate range export, without loading the range
+     */
+    public Map<String, Object> getExportPreview(String certificateStart, String certificateEnd) {
+        return Map.of(
+                "total", applicationRepository.countByCurrentCertificateNoBetween(certificateStart, certificateEnd),
+                "applications", applicationRepository.findTop10ByCurrentCertificateNoBetweenOrderByCurrentCertificateNo(
+                        certificateStart, certificateEnd));
+    }
+}
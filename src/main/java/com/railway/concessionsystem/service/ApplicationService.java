@@ -1,12 +1,21 @@
 package com.railway.concessionsystem.service;
 
+import com.railway.concessionsystem.dto.ApplicationChangeEvent;
 import com.railway.concessionsystem.model.Application;
 import com.railway.concessionsystem.model.ApplicationStatus;
+import com.railway.concessionsystem.model.Station;
 import com.railway.concessionsystem.model.Student;
 import com.railway.concessionsystem.repository.ApplicationRepository;
 import com.railway.concessionsystem.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
@@ -16,6 +25,8 @@ import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -30,6 +41,33 @@ public class ApplicationService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private DocumentValidationService documentValidationService;
+
+    @Autowired
+    private ImageNormalizationService imageNormalizationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StationService stationService;
+
+    @Autowired
+    private DuplicateDetectionService duplicateDetectionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReviewQueueService reviewQueueService;
+
+    @Value("${concession.validity-months:3}")
+    private int validityMonths;
+
     /**
      * Create new application with both caste certificate and Aadhaar handling
      */
@@ -53,9 +91,16 @@ public class ApplicationService {
                     newStudent.setId(studentId);
                     newStudent.setName(studentName);
                     newStudent.setDob(LocalDate.parse(studentDob));
-                    return studentRepository.save(newStudent);
+                    Student saved = studentRepository.save(newStudent);
+                    searchService.indexStudent(saved);
+                    return saved;
                 });
 
+        // 1️⃣b One open application per student - checked before any upload is written
+        if (applicationRepository.existsByStudent_IdAndStatus(studentId, ApplicationStatus.PENDING)) {
+            throw new Exception("You already have a pending application");
+        }
+
         // 2️⃣ SC / ST validation for caste certificate
         boolean isSCorST = isSCorST(category);
 
@@ -67,54 +112,112 @@ public class ApplicationService {
             throw new Exception("Caste certificate should not be uploaded for this category");
         }
 
+        // 2️⃣b Route text is required (resolved against the dictionary only once everything is valid)
+        if (StationService.normalize(routeFrom).isEmpty() || StationService.normalize(routeTo).isEmpty()) {
+            throw new Exception("Station name is required");
+        }
+
         // 3️⃣ Aadhaar validation (mandatory for all)
         if (aadharCard == null || aadharCard.isEmpty()) {
             throw new Exception("Aadhaar card is required for address verification");
         }
 
-        // 4️⃣ Validate Aadhaar file type
-        validateAadhaarFile(aadharCard);
-
-        // 5️⃣ Save caste certificate (if applicable)
-        String casteCertPath = null;
+        // 4️⃣ Validate file contents (magic bytes, dimensions, PDF structure) before anything is stored
+        DocumentValidationService.DocumentType aadharType = validateAadhaarFile(aadharCard);
+        DocumentValidationService.DocumentType casteType = null;
         if (isSCorST && casteCertificate != null) {
-            casteCertPath = saveFile(casteCertificate, CASTE_CERT_DIR, studentId, "caste");
+            casteType = documentValidationService.validate(casteCertificate, "Caste certificate");
         }
 
+        // 4️⃣b Perceptual fingerprints for duplicate detection (reduced-resolution decode, a few ms)
+        Optional<DuplicateDetectionService.Fingerprint> aadharFingerprint =
+                duplicateDetectionService.fingerprint(aadharCard.getBytes(), aadharType);
+        Optional<DuplicateDetectionService.Fingerprint> casteFingerprint = casteType != null
+                ? duplicateDetectionService.fingerprint(casteCertificate.getBytes(), casteType)
+                : Optional.empty();
+
+        // 5️⃣ Save caste certificate (if applicable)
+        String casteCertPath = casteType != null
+                ? saveFile(casteCertificate, CASTE_CERT_DIR, studentId, "caste", casteType)
+                : null;
+
         // 6️⃣ Save Aadhaar card (mandatory for all)
-        String aadharPath = saveFile(aadharCard, AADHAR_CARD_DIR, studentId, "aadhar");
+        String aadharPath = saveFile(aadharCard, AADHAR_CARD_DIR, studentId, "aadhar", aadharType);
 
-        // 7️⃣ Build Application entity
-        Application application = new Application();
+        // 7️⃣ Resolve stations and insert in one transaction, so a rejected submission
+        //    leaves no new stations or spellings behind
+        Application saved;
+        try {
+            saved = transactionTemplate.execute(status -> insertApplication(student, studentName, studentDob,
+                    routeFrom, routeTo, category, previousCertificateNo, casteCertPath, aadharPath));
+        } catch (DataIntegrityViolationException e) {
+            // 8️⃣ Unique pending_student_id guards against concurrent duplicates
+            deleteQuietly(casteCertPath);
+            deleteQuietly(aadharPath);
+            throw new Exception("You already have a pending application");
+        } catch (RuntimeException e) {
+            deleteQuietly(casteCertPath);
+            deleteQuietly(aadharPath);
+            throw e;
+        }
+        searchService.indexApplication(saved);
+        long appId = saved.getAppId();
+        aadharFingerprint.ifPresent(fp -> duplicateDetectionService.record(
+                appId, studentId, DuplicateDetectionService.Document.AADHAR, fp));
+        casteFingerprint.ifPresent(fp -> duplicateDetectionService.record(
+                appId, studentId, DuplicateDetectionService.Document.CASTE, fp));
+        eventPublisher.publishEvent(ApplicationChangeEvent.created(saved));
+
+        // 9️⃣ Shrink stored scans in the background
+        imageNormalizationService.normalizeAsync(saved.getAppId(), aadharPath, casteCertPath);
+        return saved;
+    }
+
+    /**
+     * Resolve both stations against the dictionary (fixes spelling variants) and insert.
+     * A renewal draft left by the expiry job is submitted in place.
+     */
+    private Application insertApplication(Student student, String studentName, String studentDob,
+                                          String routeFrom, String routeTo, String category,
+                                          String previousCertificateNo, String casteCertPath, String aadharPath) {
+        Station fromStation = stationService.resolve(routeFrom);
+        Station toStation = stationService.resolve(routeTo);
+
+        Application application = applicationRepository
+                .findFirstByStudent_IdAndStatus(student.getId(), ApplicationStatus.DRAFT)
+                .orElseGet(Application::new);
         application.setStudent(student);
         application.setStudentName(studentName);
         application.setStudentDob(LocalDate.parse(studentDob));
-        application.setRouteFrom(routeFrom);
-        application.setRouteTo(routeTo);
+        application.setRouteFrom(fromStation.getName());
+        application.setRouteTo(toStation.getName());
+        application.setRouteFromStationId(fromStation.getId());
+        application.setRouteToStationId(toStation.getId());
         application.setCategory(category);
-        application.setPrevCertificateNo(previousCertificateNo);
+        application.setDepartment(student.getDepartment());
+        if (previousCertificateNo != null && !previousCertificateNo.isBlank()) {
+            application.setPrevCertificateNo(previousCertificateNo);
+        }
         application.setCasteCertificate(casteCertPath);
         application.setAadharCard(aadharPath);
         application.setStatus(ApplicationStatus.PENDING);
         application.setApplicationDate(LocalDateTime.now());
-
-        // 8️⃣ Save application
-        return applicationRepository.save(application);
+        return applicationRepository.saveAndFlush(application);
     }
 
     /**
      * Save file to local server
      */
-    private String saveFile(MultipartFile file, String uploadDir, String studentId, String fileType) throws Exception {
+    private String saveFile(MultipartFile file, String uploadDir, String studentId, String fileType,
+                            DocumentValidationService.DocumentType type) throws Exception {
         // Create directory if it doesn't exist
         File dir = new File(uploadDir);
         if (!dir.exists()) {
             dir.mkdirs();
         }
 
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = getFileExtension(originalFilename);
+        // Generate unique filename (extension follows the sniffed content, not the client name)
+        String fileExtension = type.getExtension();
         
         String uniqueFileName = studentId + "_" + fileType + "_" + 
                                UUID.randomUUID().toString().substring(0, 8) + 
@@ -127,15 +230,28 @@ public class ApplicationService {
         return uploadDir + uniqueFileName;
     }
 
+    /**
+     * Remove a stored upload that never got referenced
+     */
+    private void deleteQuietly(String path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (Exception ignored) {
+            // Left for manual cleanup
+        }
+    }
+
     /**
      * Upload Aadhaar card for existing application
      */
+    @Transactional
     public void uploadAadharCard(Long appId, MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("Aadhaar card file is required");
         }
 
-        validateAadhaarFile(file);
+        DocumentValidationService.DocumentType type = validateAadhaarFile(file);
 
         Application application = applicationRepository.findById(appId)
                 .orElseThrow(() -> new RuntimeException("Application not found"));
@@ -146,13 +262,24 @@ public class ApplicationService {
 
             String fileName = application.getStudent().getId()
                     + "_aadhar_update_" + UUID.randomUUID().toString().substring(0, 8)
-                    + getFileExtension(file.getOriginalFilename());
+                    + type.getExtension();
 
             Path filePath = Paths.get(AADHAR_CARD_DIR + fileName);
             Files.write(filePath, file.getBytes());
 
-            application.setAadharCard(filePath.toString());
+            String newPath = filePath.toString();
+            String previousPath = application.getAadharCard();
+            afterTransaction(() -> {
+                // Only once the row points at the new scan: the old one is unreferenced and
+                // the normalizer's compare-and-set on the new path can see the committed row
+                deleteQuietly(previousPath);
+                imageNormalizationService.normalizeAsync(appId, newPath, null);
+            }, () -> deleteQuietly(newPath));
+
+            application.setAadharCard(newPath);
             applicationRepository.save(application);
+            duplicateDetectionService.fingerprint(file.getBytes(), type).ifPresent(fp -> duplicateDetectionService.record(
+                    appId, application.getStudent().getId(), DuplicateDetectionService.Document.AADHAR, fp));
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload Aadhaar card: " + e.getMessage());
@@ -160,35 +287,35 @@ public class ApplicationService {
     }
 
     /**
-     * Validate Aadhaar file type
+     * Runs onCommit after the surrounding transaction commits, onRollback if it rolls back
      */
-    private void validateAadhaarFile(MultipartFile file) {
-        if (file == null) return;
-        
-        String contentType = file.getContentType();
-        String filename = file.getOriginalFilename();
-        
-        // Check by content type
-        boolean isValidByContentType = contentType != null && (
-                contentType.equals("image/jpeg") ||
-                contentType.equals("image/png") ||
-                contentType.equals("image/jpg") ||
-                contentType.equals("application/pdf")
-        );
-        
-        // Also check by file extension as fallback
-        boolean isValidByExtension = filename != null && (
-                filename.toLowerCase().endsWith(".jpg") ||
-                filename.toLowerCase().endsWith(".jpeg") ||
-                filename.toLowerCase().endsWith(".png") ||
-                filename.toLowerCase().endsWith(".pdf")
-        );
-        
-        if (!isValidByContentType && !isValidByExtension) {
-            throw new RuntimeException("Only JPG, PNG or PDF files are allowed for Aadhaar");
+    private void afterTransaction(Runnable onCommit, Runnable onRollback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    onCommit.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        onRollback.run();
+                    }
+                }
+            });
+        } else {
+            onCommit.run();
         }
     }
 
+    /**
+     * Validate Aadhaar file by content (see DocumentValidationService)
+     */
+    private DocumentValidationService.DocumentType validateAadhaarFile(MultipartFile file) {
+        return documentValidationService.validate(file, "Aadhaar card");
+    }
+
     /**
      * Check if category requires caste certificate
      */
@@ -197,40 +324,82 @@ public class ApplicationService {
     }
 
     /**
-     * Extract file extension safely
+     * Update application status. The row is locked before the review lease is checked,
+     * so two reviewers cannot both pass the check and decide the same application.
      */
-    private String getFileExtension(String filename) {
-        if (filename == null || !filename.contains(".")) {
-            return ".jpg"; // Default extension
+    @Transactional
+    public Application updateApplicationStatus(Long appId, ApplicationStatus status, Integer staffId) {
+        // Drafts are created and expired concessions retired only by the expiry job
+        if (status == ApplicationStatus.DRAFT || status == ApplicationStatus.EXPIRED) {
+            throw new RuntimeException("Status can only be set to PENDING, APPROVED or REJECTED");
         }
-        return filename.substring(filename.lastIndexOf("."));
-    }
 
-    /**
-     * Update application status
-     */
-    public Application updateApplicationStatus(Long appId, ApplicationStatus status) {
-        Application application = applicationRepository.findById(appId)
+        Application application = applicationRepository.findByIdForUpdate(appId)
                 .orElseThrow(() -> new RuntimeException("Application not found"));
 
+        // Another reviewer has claimed it from the work queue
+        if (reviewQueueService.isLeasedToOther(application, staffId)) {
+            throw new IllegalStateException("Application is being reviewed by another staff member");
+        }
+
+        ApplicationStatus previousStatus = application.getStatus();
         application.setStatus(status);
 
         if (status == ApplicationStatus.APPROVED) {
             application.setApproveDate(LocalDateTime.now());
+            application.setValidUntil(application.getApproveDate().plusMonths(validityMonths));
         }
 
-        return applicationRepository.save(application);
+        // Decided applications leave the review queue
+        if (status != ApplicationStatus.PENDING) {
+            application.setAssignedTo(null);
+            application.setLeaseExpiresAt(null);
+        }
+
+        Application saved = applicationRepository.save(application);
+        searchService.indexApplication(saved);
+        eventPublisher.publishEvent(ApplicationChangeEvent.statusChanged(saved, previousStatus));
+        return saved;
     }
 
     /**
      * Assign certificate number
      */
+    @Transactional
     public Application assignCertificateNumber(Long appId, String certificateNo) {
         Application application = applicationRepository.findById(appId)
                 .orElseThrow(() -> new RuntimeException("Application not found"));
 
         application.setCurrentCertificateNo(certificateNo);
-        return applicationRepository.save(application);
+        Application saved = applicationRepository.save(application);
+        eventPublisher.publishEvent(ApplicationChangeEvent.updated(saved));
+        return saved;
+    }
+
+    /**
+     * Student departments a staff member works with (same mapping as /staff/applications)
+     */
+    public List<String> getDepartmentsForStaff(String staffDepartment) {
+        if ("IT".equalsIgnoreCase(staffDepartment)) {
+            return List.of("FEIT", "SEIT", "TEIT", "BEIT");
+        } else if ("MECH".equalsIgnoreCase(staffDepartment)) {
+            return List.of("FEMECH", "SEMECH", "TEMECH", "BEMECH");
+        }
+        return List.of(staffDepartment);
+    }
+
+    /**
+     * Application counts by status (polled by the staff dashboard)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> getStatistics() {
+        return Map.of(
+                "total", applicationRepository.count(),
+                "pending", applicationRepository.countByStatus(ApplicationStatus.PENDING),
+                "approved", applicationRepository.countByStatus(ApplicationStatus.APPROVED),
+                "rejected", applicationRepository.countByStatus(ApplicationStatus.REJECTED),
+                "expired", applicationRepository.countByStatus(ApplicationStatus.EXPIRED)
+        );
     }
 
     /**
@@ -238,6 +407,7 @@ public class ApplicationService {
      * OLD METHOD - Kept as it is for backward compatibility
      * (Single department only)
      */
+    @Transactional(readOnly = true)
     public List<Application> getApplicationsForStaffDepartment(String staffDepartment) {
         System.out.println("=== SERVICE DEBUG START (SINGLE DEPT) ===");
         System.out.println("SERVICE: Looking for department = '" + staffDepartment + "'");
@@ -248,8 +418,8 @@ public class ApplicationService {
         }
         
         // Use the single department method
-        System.out.println("SERVICE: Calling findByStudent_Department()");
-        List<Application> result = applicationRepository.findByStudent_Department(staffDepartment);
+        System.out.println("SERVICE: Calling findByDepartment()");
+        List<Application> result = applicationRepository.findByDepartment(staffDepartment);
         
         System.out.println("SERVICE: Repository returned " + result.size() + " applications");
         
@@ -261,24 +431,14 @@ public class ApplicationService {
             System.out.println("SERVICE DEBUG: Total applications in DB: " + allApps.size());
             
             allApps.stream().limit(5).forEach(app -> {
-                if (app.getStudent() != null) {
-                    System.out.println("SERVICE DEBUG: App ID " + app.getAppId() + 
-                                     " - Student " + app.getStudent().getId() + 
-                                     " - Student Dept: '" + app.getStudent().getDepartment() + "'");
-                } else {
-                    System.out.println("SERVICE DEBUG: App ID " + app.getAppId() + " - Student is null!");
-                }
+                System.out.println("SERVICE DEBUG: App ID " + app.getAppId() +
+                                 " - Dept: '" + app.getDepartment() + "'");
             });
         } else {
             // Log department of first few results
             result.stream().limit(3).forEach(app -> {
-                if (app.getStudent() != null) {
-                    System.out.println("SERVICE DEBUG: Found App ID " + app.getAppId() + 
-                                     " - Student " + app.getStudent().getId() + 
-                                     " - Student Dept: '" + app.getStudent().getDepartment() + "'");
-                } else {
-                    System.out.println("SERVICE DEBUG: Found App ID " + app.getAppId() + " - Student is null!");
-                }
+                System.out.println("SERVICE DEBUG: Found App ID " + app.getAppId() +
+                                 " - Dept: '" + app.getDepartment() + "'");
             });
         }
         
@@ -295,6 +455,7 @@ public class ApplicationService {
      * @param departments List of department codes to search for
      * @return List of applications belonging to any of the specified departments
      */
+    @Transactional(readOnly = true)
     public List<Application> getApplicationsForMultipleDepartments(List<String> departments) {
         System.out.println("=== MULTI-DEPT SERVICE DEBUG START ===");
         System.out.println("SERVICE: Looking for departments = " + departments);
@@ -315,10 +476,10 @@ public class ApplicationService {
         }
         
         System.out.println("SERVICE: Cleaned department list = " + cleanDepartments);
-        System.out.println("SERVICE: Calling findByStudent_DepartmentIn() with " + cleanDepartments.size() + " departments");
+        System.out.println("SERVICE: Calling findByDepartmentIn() with " + cleanDepartments.size() + " departments");
         
         // Use the new repository method for multiple departments
-        List<Application> result = applicationRepository.findByStudent_DepartmentIn(cleanDepartments);
+        List<Application> result = applicationRepository.findByDepartmentIn(cleanDepartments);
         
         System.out.println("SERVICE: Repository returned " + result.size() + " applications");
         
@@ -327,9 +488,7 @@ public class ApplicationService {
             System.out.println("SERVICE DEBUG: Department distribution:");
             cleanDepartments.forEach(dept -> {
                 long count = result.stream()
-                    .filter(app -> app.getStudent() != null && 
-                                  app.getStudent().getDepartment() != null && 
-                                  app.getStudent().getDepartment().equals(dept))
+                    .filter(app -> dept.equals(app.getDepartment()))
                     .count();
                 System.out.println("  - " + dept + ": " + count + " applications");
             });
@@ -366,8 +525,9 @@ public class ApplicationService {
      * OLD METHOD - Kept as it is for backward compatibility
      * (Single department only)
      */
+    @Transactional(readOnly = true)
     public List<Application> getApplicationsByDepartment(String department) {
         System.out.println("SERVICE (getApplicationsByDepartment): Department = '" + department + "'");
-        return applicationRepository.findByStudent_Department(department);
+        return applicationRepository.findByDepartment(department);
     }
 }
\ No newline at end of file
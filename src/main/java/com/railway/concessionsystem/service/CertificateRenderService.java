@@ -0,0 +1,329 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Prints concession certificates for a batch of approved applications as one PDF.
+ * The layout is compiled once (CertificateTemplate); fonts are the standard
+ * Helvetica pair, so nothing is embedded, and the optional logo JPEG is read
+ * once and written to each document as a single shared image. Pages are
+ * rendered and deflated on a dedicated fork-join pool a bounded window ahead
+ * of the writer, which streams them straight to the response in order.
+ */
+@Service
+public class CertificateRenderService {
+
+    private static final Logger log = LoggerFactory.getLogger(CertificateRenderService.class);
+
+    public static final Set<String> FIELDS = Set.of(
+            "certificateNo", "appId", "studentName", "studentId", "studentDob", "department", "category",
+            "routeFrom", "routeTo", "prevCertificateNo", "approveDate", "validUntil", "issueDate", "issuedBy");
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    // A4 portrait; object numbers before the first page
+    private static final String MEDIA_BOX = "[0 0 595 842]";
+    private static final int CATALOG = 1, PAGES = 2, FONT_REGULAR = 3, FONT_BOLD = 4, RESOURCES = 5, LOGO = 6;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Value("${certificates.template:classpath:certificates/concession-certificate.tpl}")
+    private Resource templateResource;
+
+    // Optional JPEG (RGB or greyscale) drawn by the template's IMAGE logo op
+    @Value("${certificates.logo:}")
+    private String logoPath;
+
+    // 0 = one thread per core
+    @Value("${certificates.render-threads:0}")
+    private int renderThreads;
+
+    // Pages rendered ahead of the writer (bounds memory for large batches)
+    @Value("${certificates.look-ahead:64}")
+    private int lookAhead;
+
+    @Value("${certificates.max-batch:1000}")
+    private int maxBatch;
+
+    private CertificateTemplate template;
+    private byte[] logoObject;      // complete image XObject body, null without a logo
+    private byte[] fontRegular;     // font dictionaries, same in every document
+    private byte[] fontBold;
+    private ForkJoinPool pool;
+
+    /**
+     * Counts bytes so each object's offset for the xref table is known
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        // 1️⃣ Logo, read and wrapped as a DCTDecode image once
+        if (logoPath != null && !logoPath.isBlank()) {
+            logoObject = loadLogo(logoPath);
+        }
+
+        // 2️⃣ Compile the layout
+        String source;
+        try (InputStream in = templateResource.getInputStream()) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        template = CertificateTemplate.compile(source, FIELDS, logoObject != null ? Set.of("logo") : Set.of());
+
+        // 3️⃣ Shared font objects
+        fontRegular = (FONT_REGULAR + " 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica "
+                + "/Encoding /WinAnsiEncoding >>\nendobj\n").getBytes(StandardCharsets.ISO_8859_1);
+        fontBold = (FONT_BOLD + " 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold "
+                + "/Encoding /WinAnsiEncoding >>\nendobj\n").getBytes(StandardCharsets.ISO_8859_1);
+
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads, p -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("certificate-render-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Field values for each printable application, in the order requested.
+     * Only approved applications with a certificate number in the given departments
+     * print; the first print stamps issueDate.
+     */
+    @Transactional
+    public List<Map<String, String>> prepareBatch(List<Long> appIds, Collection<String> departments, String issuedBy) {
+        if (appIds == null || appIds.isEmpty()) {
+            throw new IllegalArgumentException("No applications selected");
+        }
+        if (appIds.size() > maxBatch) {
+            throw new IllegalArgumentException("At most " + maxBatch + " certificates per batch");
+        }
+
+        Map<Long, Application> byId = new HashMap<>();
+        applicationRepository.findAllById(appIds).forEach(app -> byId.put(app.getAppId(), app));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, String>> pages = new ArrayList<>();
+        for (Long appId : new LinkedHashSet<>(appIds)) {
+            Application app = byId.get(appId);
+            if (app == null || app.getStatus() != ApplicationStatus.APPROVED
+                    || app.getCurrentCertificateNo() == null || !departments.contains(app.getDepartment())) {
+                continue;
+            }
+            if (app.getIssueDate() == null) {
+                app.setIssueDate(now);
+            }
+            pages.add(fieldsOf(app, issuedBy));
+        }
+        if (pages.isEmpty()) {
+            throw new IllegalArgumentException("None of the selected applications is approved with a certificate number");
+        }
+        return pages;
+    }
+
+    /**
+     * Write all pages as one PDF. The stream is not closed.
+     */
+    public void writePdf(List<Map<String, String>> pages, OutputStream target) throws IOException {
+        long start = System.currentTimeMillis();
+        int firstPage = logoObject != null ? LOGO + 1 : LOGO;
+        long[] offsets = new long[firstPage + pages.size() * 2];
+
+        CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(target, 64 * 1024));
+        ArrayDeque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+        try {
+            // 1️⃣ Header, catalog, page tree, shared fonts / resources / logo
+            ascii(out, "%PDF-1.4\n%âãÏÓ\n");
+
+            offsets[CATALOG] = out.count;
+            ascii(out, CATALOG + " 0 obj\n<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+            offsets[PAGES] = out.count;
+            StringBuilder kids = new StringBuilder();
+            for (int i = 0; i < pages.size(); i++) {
+                kids.append(firstPage + i * 2).append(" 0 R ");
+            }
+            ascii(out, PAGES + " 0 obj\n<< /Type /Pages /Count " + pages.size() + " /Kids [" + kids + "] >>\nendobj\n");
+
+            offsets[FONT_REGULAR] = out.count;
+            out.write(fontRegular);
+            offsets[FONT_BOLD] = out.count;
+            out.write(fontBold);
+
+            offsets[RESOURCES] = out.count;
+            ascii(out, RESOURCES + " 0 obj\n<< /ProcSet [/PDF /Text /ImageC /ImageB] /Font << /F1 " + FONT_REGULAR
+                    + " 0 R /F2 " + FONT_BOLD + " 0 R >>"
+                    + (logoObject != null ? " /XObject << /logo " + LOGO + " 0 R >>" : "") + " >>\nendobj\n");
+
+            if (logoObject != null) {
+                offsets[LOGO] = out.count;
+                ascii(out, LOGO + " 0 obj\n");
+                out.write(logoObject);
+                ascii(out, "\nendobj\n");
+            }
+
+            // 2️⃣ Pages: rendered in parallel a window ahead, written in order
+            int next = 0;
+            for (int i = 0; i < pages.size(); i++) {
+                while (next < pages.size() && next < i + lookAhead) {
+                    Map<String, String> values = pages.get(next++);
+                    inFlight.add(pool.submit(() -> renderPage(values)));
+                }
+                byte[] content = inFlight.poll().join();
+
+                int pageObject = firstPage + i * 2;
+                offsets[pageObject] = out.count;
+                ascii(out, pageObject + " 0 obj\n<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox " + MEDIA_BOX
+                        + " /Resources " + RESOURCES + " 0 R /Contents " + (pageObject + 1) + " 0 R >>\nendobj\n");
+
+                offsets[pageObject + 1] = out.count;
+                ascii(out, (pageObject + 1) + " 0 obj\n<< /Length " + content.length
+                        + " /Filter /FlateDecode >>\nstream\n");
+                out.write(content);
+                ascii(out, "\nendstream\nendobj\n");
+            }
+
+            // 3️⃣ Cross-reference table and trailer
+            long xref = out.count;
+            StringBuilder table = new StringBuilder("xref\n0 ").append(offsets.length).append("\n0000000000 65535 f \n");
+            for (int i = 1; i < offsets.length; i++) {
+                table.append(String.format("%010d 00000 n \n", offsets[i]));
+            }
+            table.append("trailer\n<< /Size ").append(offsets.length).append(" /Root ").append(CATALOG)
+                    .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+            ascii(out, table.toString());
+            out.flush();
+        } finally {
+            // Client gone mid-stream: stop rendering the rest
+            inFlight.forEach(task -> task.cancel(true));
+        }
+        log.info("Rendered {} certificates ({} KB) in {} ms",
+                pages.size(), out.count / 1024, System.currentTimeMillis() - start);
+    }
+
+    private byte[] renderPage(Map<String, String> values) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(4096);
+        template.render(values, raw);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(2048);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+            raw.writeTo(deflate);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory streams do not throw
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+
+    private Map<String, String> fieldsOf(Application app, String issuedBy) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("certificateNo", app.getCurrentCertificateNo());
+        values.put("appId", String.valueOf(app.getAppId()));
+        values.put("studentName", app.getStudentName());
+        values.put("studentId", app.getStudent() != null ? app.getStudent().getId() : "");
+        values.put("studentDob", app.getStudentDob() != null ? app.getStudentDob().format(DATE) : "");
+        values.put("department", app.getDepartment());
+        values.put("category", app.getCategory());
+        values.put("routeFrom", app.getRouteFrom());
+        values.put("routeTo", app.getRouteTo());
+        values.put("prevCertificateNo", app.getPrevCertificateNo() != null ? app.getPrevCertificateNo() : "-");
+        values.put("approveDate", app.getApproveDate() != null ? app.getApproveDate().format(DATE) : "");
+        values.put("validUntil", app.getValidUntil() != null ? app.getValidUntil().format(DATE) : "");
+        values.put("issueDate", app.getIssueDate() != null ? app.getIssueDate().format(DATE) : "");
+        values.put("issuedBy", issuedBy != null ? issuedBy : "");
+        return values;
+    }
+
+    private byte[] loadLogo(String path) throws IOException {
+        byte[] jpeg = Files.readAllBytes(Paths.get(path));
+        BufferedImage image = jpeg.length > 2 && (jpeg[0] & 0xFF) == 0xFF && (jpeg[1] & 0xFF) == 0xD8
+                ? ImageIO.read(new ByteArrayInputStream(jpeg)) : null;
+        if (image == null) {
+            log.warn("Certificate logo {} is not a readable JPEG, printing without it", path);
+            return null;
+        }
+        int components = image.getColorModel().getNumColorComponents();
+        if (components != 1 && components != 3) {
+            log.warn("Certificate logo {} must be RGB or greyscale, printing without it", path);
+            return null;
+        }
+
+        ByteArrayOutputStream object = new ByteArrayOutputStream(jpeg.length + 256);
+        object.writeBytes(("<< /Type /XObject /Subtype /Image /Width " + image.getWidth() + " /Height " + image.getHeight()
+                + " /ColorSpace " + (components == 1 ? "/DeviceGray" : "/DeviceRGB")
+                + " /BitsPerComponent 8 /Filter /DCTDecode /Length " + jpeg.length + " >>\nstream\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        object.writeBytes(jpeg);
+        object.writeBytes("\nendstream".getBytes(StandardCharsets.ISO_8859_1));
+        return object.toByteArray();
+    }
+
+    private static void ascii(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,175 @@
+package com.railway.concessionsystem.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A certificate layout compiled to PDF content-stream bytes.
+ * Everything that does not depend on the application (operators, positions,
+ * fonts, fixed text) is encoded once; rendering a page only escapes the field
+ * values and copies the precompiled segments.
+ */
+public class CertificateTemplate {
+
+    public static final Set<String> FONTS = Set.of("F1", "F2");
+
+    private static final Pattern FIELD = Pattern.compile("\\{([a-zA-Z]+)}");
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    // Either a precompiled byte run or a field to escape at render time
+    private static class Segment {
+        private final byte[] literal;
+        private final String field;
+
+        Segment(byte[] literal, String field) {
+            this.literal = literal;
+            this.field = field;
+        }
+    }
+
+    private final List<Segment> segments;
+    private final Set<String> images;
+
+    private CertificateTemplate(List<Segment> segments, Set<String> images) {
+        this.segments = segments;
+        this.images = images;
+    }
+
+    /**
+     * Images the compiled layout draws (only those that were available at compile time)
+     */
+    public Set<String> getImages() {
+        return images;
+    }
+
+    /**
+     * Compile template source; IMAGE ops naming an image not in availableImages are dropped.
+     * Unknown fields, fonts or malformed lines fail here, at startup, not on the first print.
+     */
+    public static CertificateTemplate compile(String source, Set<String> fields, Set<String> availableImages) {
+        List<Segment> segments = new ArrayList<>();
+        Set<String> usedImages = new LinkedHashSet<>();
+        StringBuilder literal = new StringBuilder();
+
+        String[] lines = source.split("\\R");
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+", 6);
+            String op = parts[0];
+            try {
+                switch (op) {
+                    case "TEXT" -> {
+                        require(parts, 6);
+                        if (!FONTS.contains(parts[3])) {
+                            throw new IllegalArgumentException("unknown font " + parts[3]);
+                        }
+                        literal.append("BT /").append(parts[3]).append(' ').append(number(parts[4])).append(" Tf ")
+                                .append(number(parts[1])).append(' ').append(number(parts[2])).append(" Td (");
+                        Matcher m = FIELD.matcher(parts[5]);
+                        int last = 0;
+                        while (m.find()) {
+                            if (!fields.contains(m.group(1))) {
+                                throw new IllegalArgumentException("unknown field {" + m.group(1) + "}");
+                            }
+                            literal.append(escape(parts[5].substring(last, m.start())));
+                            flush(literal, segments);
+                            segments.add(new Segment(null, m.group(1)));
+                            last = m.end();
+                        }
+                        literal.append(escape(parts[5].substring(last))).append(") Tj ET\n");
+                    }
+                    case "LINE" -> {
+                        require(parts, 6);
+                        literal.append(number(parts[5])).append(" w ")
+                                .append(number(parts[1])).append(' ').append(number(parts[2])).append(" m ")
+                                .append(number(parts[3])).append(' ').append(number(parts[4])).append(" l S\n");
+                    }
+                    case "RECT" -> {
+                        require(parts, 6);
+                        literal.append(number(parts[5])).append(" w ")
+                                .append(number(parts[1])).append(' ').append(number(parts[2])).append(' ')
+                                .append(number(parts[3])).append(' ').append(number(parts[4])).append(" re S\n");
+                    }
+                    case "IMAGE" -> {
+                        require(parts, 6);
+                        if (availableImages.contains(parts[5])) {
+                            usedImages.add(parts[5]);
+                            literal.append("q ").append(number(parts[3])).append(" 0 0 ").append(number(parts[4]))
+                                    .append(' ').append(number(parts[1])).append(' ').append(number(parts[2]))
+                                    .append(" cm /").append(parts[5]).append(" Do Q\n");
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("unknown op " + op);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Certificate template line " + (n + 1) + ": " + e.getMessage());
+            }
+        }
+        flush(literal, segments);
+        return new CertificateTemplate(List.copyOf(segments), Set.copyOf(usedImages));
+    }
+
+    /**
+     * Write the page's content stream (uncompressed) for one application's values
+     */
+    public void render(Map<String, String> values, ByteArrayOutputStream out) {
+        for (Segment segment : segments) {
+            if (segment.literal != null) {
+                out.writeBytes(segment.literal);
+            } else {
+                String value = values.get(segment.field);
+                out.writeBytes(escape(value != null ? value : "").getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+    }
+
+    private static void flush(StringBuilder literal, List<Segment> segments) {
+        if (!literal.isEmpty()) {
+            segments.add(new Segment(literal.toString().getBytes(StandardCharsets.ISO_8859_1), null));
+            literal.setLength(0);
+        }
+    }
+
+    private static void require(String[] parts, int count) {
+        if (parts.length < count) {
+            throw new IllegalArgumentException("expected " + (count - 1) + " arguments");
+        }
+    }
+
+    private static String number(String token) {
+        if (!NUMBER.matcher(token).matches()) {
+            throw new IllegalArgumentException("not a number: " + token);
+        }
+        return token;
+    }
+
+    /**
+     * PDF literal string escaping; characters outside Latin-1 (WinAnsi fonts) become '?'
+     */
+    static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(' ');
+            } else if (c > 0xFF) {
+                sb.append('?');
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
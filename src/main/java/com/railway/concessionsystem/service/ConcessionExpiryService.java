@@ -0,0 +1,314 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ExpiryRunReport;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nightly expiry of approved concessions and pre-creation of renewal drafts.
+ * Approved rows are walked in app_id order (keyset pages, never OFFSET) and
+ * each page is written in its own short transaction with batched JDBC, so
+ * row locks are held for one chunk at a time and staff keep working during
+ * the run. Every statement re-checks the status it expects, so a run that
+ * overlaps a staff action or a previous run changes nothing twice.
+ */
+@Service
+public class ConcessionExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcessionExpiryService.class);
+
+    // Approvals from before valid_until existed get their end from approve / issue date
+    private static final String APPROVED_PAGE_SQL =
+            "SELECT app_id, student_id, student_name, route_from, route_to, valid_until, " +
+            "DATE_ADD(COALESCE(issue_date, approve_date), INTERVAL ? MONTH) " +
+            "FROM application WHERE app_id > ? AND status = 'APPROVED' ORDER BY app_id LIMIT ?";
+
+    private static final String STAMP_SQL =
+            "UPDATE application SET valid_until = ? WHERE app_id = ? AND valid_until IS NULL";
+
+    private static final String EXPIRE_SQL =
+            "UPDATE application SET status = 'EXPIRED', valid_until = ? WHERE app_id = ? AND status = 'APPROVED'";
+
+    // One draft per student, from their latest expired concession, unless they already
+    // hold something newer (pending, approved or an earlier draft). Name, DOB, category
+    // and department are taken from the current roster - the student has moved up a year.
+    private static final String RENEWAL_DRAFT_SQL =
+            "INSERT INTO application (student_id, student_name, student_dob, category, department, " +
+            "route_from, route_to, route_from_station_id, route_to_station_id, prev_certificate_no, " +
+            "status, application_date) " +
+            "SELECT a.student_id, COALESCE(s.name, a.student_name), COALESCE(s.dob, a.student_dob), " +
+            "COALESCE(s.category, a.category), COALESCE(s.department, a.department), " +
+            "a.route_from, a.route_to, a.route_from_station_id, a.route_to_station_id, a.current_certificate_no, " +
+            "'DRAFT', ? " +
+            "FROM application a JOIN student s ON s.id = a.student_id " +
+            "WHERE a.app_id IN (%s) AND a.status = 'EXPIRED' AND a.current_certificate_no IS NOT NULL " +
+            "AND a.app_id = (SELECT MAX(x.app_id) FROM application x " +
+            "                WHERE x.student_id = a.student_id AND x.status = 'EXPIRED') " +
+            "AND NOT EXISTS (SELECT 1 FROM application d WHERE d.student_id = a.student_id " +
+            "                AND d.status IN ('PENDING', 'APPROVED', 'DRAFT'))";
+
+    // Re-check for batch rows whose driver count came back as SUCCESS_NO_INFO
+    private static final String STAMPED_IDS_SQL =
+            "SELECT app_id FROM application WHERE app_id IN (%s) AND valid_until IS NOT NULL";
+
+    private static final String EXPIRED_IDS_SQL =
+            "SELECT app_id FROM application WHERE app_id IN (%s) AND status = 'EXPIRED'";
+
+    private static final String DRAFTS_FOR_STUDENTS_SQL =
+            "SELECT app_id, student_id, student_name, route_from, route_to, department, category, application_date " +
+            "FROM application WHERE student_id IN (%s) AND status = 'DRAFT'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ApplicationEventService applicationEventService;
+
+    @Autowired
+    private ApplicationIndexService applicationIndexService;
+
+    // Used only for approvals that predate valid_until; new approvals are stamped by ApplicationService
+    @Value("${concession.validity-months:3}")
+    private int validityMonths;
+
+    @Value("${concession.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${concession.renewal.create-drafts:true}")
+    private boolean createDrafts;
+
+    private final Counter expiredCounter;
+    private final Counter draftCounter;
+    private final AtomicReference<ExpiryRunReport> lastReport = new AtomicReference<>();
+    private final ReentrantLock running = new ReentrantLock();
+
+    public ConcessionExpiryService(MeterRegistry meterRegistry) {
+        this.expiredCounter = Counter.builder("concession.expired")
+                .description("Approved concessions marked expired")
+                .register(meterRegistry);
+        this.draftCounter = Counter.builder("concession.renewal.drafts")
+                .description("Renewal drafts pre-created on expiry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One approved row of a keyset page
+     */
+    private static class ApprovedRow {
+        private final long appId;
+        private final String studentId;
+        private final String studentName;
+        private final String routeFrom;
+        private final String routeTo;
+        private final LocalDateTime validUntil;   // null until stamped
+        private final LocalDateTime derivedEnd;   // from approve / issue date, null when both are missing
+
+        ApprovedRow(long appId, String studentId, String studentName, String routeFrom, String routeTo,
+                    LocalDateTime validUntil, LocalDateTime derivedEnd) {
+            this.appId = appId;
+            this.studentId = studentId;
+            this.studentName = studentName;
+            this.routeFrom = routeFrom;
+            this.routeTo = routeTo;
+            this.validUntil = validUntil;
+            this.derivedEnd = derivedEnd;
+        }
+    }
+
+    @Scheduled(cron = "${concession.expiry.cron:0 15 2 * * *}")
+    public void scheduledRun() {
+        expireAndRenew();
+    }
+
+    public ExpiryRunReport getLastReport() {
+        return lastReport.get();
+    }
+
+    public ExpiryRunReport expireAndRenew() {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Concession expiry is already running");
+        }
+        try {
+            ExpiryRunReport report = new ExpiryRunReport();
+            report.setStartedAt(LocalDateTime.now());
+            long start = System.currentTimeMillis();
+            LocalDateTime now = report.getStartedAt();
+
+            long lastId = 0;
+            while (true) {
+                // 1️⃣ Next page of approved concessions (primary key range, no lock)
+                List<ApprovedRow> page = jdbcTemplate.query(APPROVED_PAGE_SQL,
+                        (rs, i) -> new ApprovedRow(
+                                rs.getLong(1),
+                                rs.getString(2),
+                                rs.getString(3),
+                                rs.getString(4),
+                                rs.getString(5),
+                                toLocalDateTime(rs.getTimestamp(6)),
+                                toLocalDateTime(rs.getTimestamp(7))),
+                        validityMonths, lastId, chunkSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).appId;
+
+                // 2️⃣ Sort the page into still-valid (maybe unstamped) and expired
+                List<Object[]> stamp = new ArrayList<>();
+                List<Object[]> expire = new ArrayList<>();
+                List<ApprovedRow> expiring = new ArrayList<>();
+                for (ApprovedRow row : page) {
+                    LocalDateTime end = row.validUntil != null ? row.validUntil : row.derivedEnd;
+                    if (end == null) {
+                        report.setUndated(report.getUndated() + 1);
+                    } else if (!end.isAfter(now)) {
+                        expire.add(new Object[]{Timestamp.valueOf(end), row.appId});
+                        expiring.add(row);
+                    } else if (row.validUntil == null) {
+                        stamp.add(new Object[]{Timestamp.valueOf(end), row.appId});
+                    }
+                }
+
+                // 3️⃣ Write the chunk in one short transaction
+                ChunkResult written = transactionTemplate.execute(status -> writeChunk(stamp, expire, expiring, now));
+
+                report.setChunks(report.getChunks() + 1);
+                report.setApprovedScanned(report.getApprovedScanned() + page.size());
+                report.setValidityStamped(report.getValidityStamped() + written.stamped);
+                report.setExpired(report.getExpired() + written.expired.size());
+                report.setRenewalDrafts(report.getRenewalDrafts() + written.drafts);
+
+                // 4️⃣ Search hits and the filter index show the status, keep them current
+                //    (only rows this run expired - staff may have decided others meanwhile)
+                for (ApprovedRow row : written.expired) {
+                    searchService.indexApplication(row.appId, row.studentId, row.studentName,
+                            row.routeFrom, row.routeTo, ApplicationStatus.EXPIRED);
+                    applicationIndexService.updateStatus(row.appId, ApplicationStatus.EXPIRED);
+                }
+                if (written.drafts > 0) {
+                    indexDrafts(written.expired);
+                }
+            }
+
+            expiredCounter.increment(report.getExpired());
+            draftCounter.increment(report.getRenewalDrafts());
+
+            // Open dashboards re-fetch once instead of receiving thousands of events
+            if (report.getExpired() > 0 || report.getRenewalDrafts() > 0) {
+                applicationEventService.requestResync();
+            }
+
+            report.setElapsedMs(System.currentTimeMillis() - start);
+            lastReport.set(report);
+            log.info("Concession expiry: {} approved scanned, {} expired, {} renewal drafts, {} stamped in {} ms",
+                    report.getApprovedScanned(), report.getExpired(), report.getRenewalDrafts(),
+                    report.getValidityStamped(), report.getElapsedMs());
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * What one chunk actually changed
+     */
+    private static class ChunkResult {
+        private final long stamped;
+        private final List<ApprovedRow> expired;
+        private final long drafts;
+
+        ChunkResult(long stamped, List<ApprovedRow> expired, long drafts) {
+            this.stamped = stamped;
+            this.expired = expired;
+            this.drafts = drafts;
+        }
+    }
+
+    private ChunkResult writeChunk(List<Object[]> stamp, List<Object[]> expire, List<ApprovedRow> expiring,
+                                   LocalDateTime now) {
+        long stamped = updatedIds(jdbcTemplate.batchUpdate(STAMP_SQL, stamp), stamp, STAMPED_IDS_SQL).size();
+
+        // Rows staff decided after the page was read fail the status re-check and stay as they are
+        Set<Long> expiredIds = updatedIds(jdbcTemplate.batchUpdate(EXPIRE_SQL, expire), expire, EXPIRED_IDS_SQL);
+        List<ApprovedRow> expired = expiring.stream().filter(row -> expiredIds.contains(row.appId)).toList();
+
+        long drafts = 0;
+        if (createDrafts && !expired.isEmpty()) {
+            List<Object> args = new ArrayList<>();
+            args.add(Timestamp.valueOf(now));
+            expired.forEach(row -> args.add(row.appId));
+            drafts = jdbcTemplate.update(
+                    String.format(RENEWAL_DRAFT_SQL, placeholders(expired.size())), args.toArray());
+        }
+        return new ChunkResult(stamped, expired, drafts);
+    }
+
+    private void indexDrafts(List<ApprovedRow> expiring) {
+        List<String> studentIds = expiring.stream().map(row -> row.studentId).distinct().toList();
+        jdbcTemplate.query(String.format(DRAFTS_FOR_STUDENTS_SQL, placeholders(studentIds.size())),
+                rs -> {
+                    searchService.indexApplication(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getString(5), ApplicationStatus.DRAFT);
+                    applicationIndexService.index(rs.getLong(1), ApplicationStatus.DRAFT, rs.getString(6),
+                            rs.getString(7), toLocalDateTime(rs.getTimestamp(8)));
+                },
+                studentIds.toArray());
+    }
+
+    /**
+     * App ids (the last batch argument) the batch really updated. Rewritten batches may
+     * report SUCCESS_NO_INFO instead of a count; those rows are re-read inside the same
+     * transaction, where our own row locks keep the answer stable.
+     */
+    private Set<Long> updatedIds(int[] counts, List<Object[]> batch, String recheckSql) {
+        Set<Long> updated = new HashSet<>();
+        List<Object> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            Object[] args = batch.get(i);
+            Long appId = (Long) args[args.length - 1];
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(appId);
+            } else if (counts[i] > 0) {
+                updated.add(appId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            updated.addAll(jdbcTemplate.queryForList(
+                    String.format(recheckSql, placeholders(unknown.size())), Long.class, unknown.toArray()));
+        }
+        return updated;
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,449 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ApplicationChangeEvent;
+import com.railway.concessionsystem.dto.StatsBackfillReport;
+import com.railway.concessionsystem.dto.TrendPoint;
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Materialized daily aggregates behind the trend reports. Each row covers the
+ * applications submitted on one day in one department and category: how many
+ * were submitted, approved and rejected, plus a log-scale histogram of their
+ * time to approval. Status changes adjust the rows once the changing
+ * transaction has committed, on a single background thread so requests never
+ * wait for them; a batch job re-derives whole date ranges from application,
+ * one window per transaction, and repairs any missed delta. Trend queries
+ * read only these tables.
+ */
+@Service
+public class DailyStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyStatsService.class);
+
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    // 8 buckets per doubling of minutes: a bucket spans ~9%, so is the median's error
+    private static final int BUCKETS_PER_OCTAVE = 8;
+
+    private static final String STATS_DELTA_SQL =
+            "INSERT INTO daily_application_stats (stat_date, department, category, submitted, approved, rejected) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "submitted = submitted + VALUES(submitted), approved = approved + VALUES(approved), " +
+            "rejected = rejected + VALUES(rejected)";
+
+    private static final String APPROVAL_DELTA_SQL =
+            "INSERT INTO daily_approval_time (stat_date, department, category, bucket, approvals) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE approvals = approvals + VALUES(approvals)";
+
+    private static final String DELETE_STATS_SQL =
+            "DELETE FROM daily_application_stats WHERE stat_date >= ? AND stat_date < ?";
+
+    private static final String DELETE_APPROVALS_SQL =
+            "DELETE FROM daily_approval_time WHERE stat_date >= ? AND stat_date < ?";
+
+    // status IN (...) keeps both backfill reads on idx_application_status_date ranges
+    private static final String BACKFILL_STATS_SQL =
+            "INSERT INTO daily_application_stats (stat_date, department, category, submitted, approved, rejected) " +
+            "SELECT DATE(application_date), COALESCE(department, ''), COALESCE(category, ''), COUNT(*), " +
+            "SUM(status IN ('APPROVED', 'EXPIRED')), SUM(status = 'REJECTED') " +
+            "FROM application WHERE status IN ('PENDING', 'APPROVED', 'REJECTED', 'EXPIRED') " +
+            "AND application_date >= ? AND application_date < ? " +
+            "GROUP BY DATE(application_date), COALESCE(department, ''), COALESCE(category, '')";
+
+    private static final String BACKFILL_APPROVALS_SQL =
+            "SELECT DATE(application_date), COALESCE(department, ''), COALESCE(category, ''), " +
+            "TIMESTAMPDIFF(MINUTE, application_date, approve_date) " +
+            "FROM application WHERE status IN ('APPROVED', 'EXPIRED') " +
+            "AND application_date >= ? AND application_date < ? AND approve_date IS NOT NULL";
+
+    private static final String FIRST_DAY_SQL =
+            "SELECT DATE(MIN(application_date)) FROM application WHERE status IN ('PENDING', 'APPROVED', 'REJECTED', 'EXPIRED')";
+
+    private static final String TREND_SQL =
+            "SELECT stat_date, SUM(submitted), SUM(approved), SUM(rejected) FROM daily_application_stats " +
+            "WHERE stat_date >= ? AND stat_date <= ?%s GROUP BY stat_date";
+
+    private static final String TREND_BUCKETS_SQL =
+            "SELECT stat_date, bucket, SUM(approvals) FROM daily_approval_time " +
+            "WHERE stat_date >= ? AND stat_date <= ?%s GROUP BY stat_date, bucket";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${daily-stats.backfill.window-days:31}")
+    private int windowDays;
+
+    // The nightly run re-derives this many recent days (late roster moves, missed deltas)
+    @Value("${daily-stats.repair-days:35}")
+    private int repairDays;
+
+    private TransactionTemplate deltaTransaction;
+
+    // One thread: deltas of the same application apply in the order they were published
+    private final ThreadPoolExecutor deltaExecutor;
+
+    private final AtomicReference<StatsBackfillReport> lastReport = new AtomicReference<>();
+    private final ReentrantLock running = new ReentrantLock();
+
+    public DailyStatsService(@Value("${daily-stats.delta-queue-size:10000}") int queueSize) {
+        this.deltaExecutor = new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "daily-stats-delta");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    // ==========================
+    // Incremental maintenance
+    // ==========================
+
+    @PostConstruct
+    void init() {
+        // After-commit work still sees the finished transaction's resources; writes need their own
+        deltaTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        deltaTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Queued deltas are cheap single-row upserts; give them a moment before the pool closes
+        deltaExecutor.shutdown();
+        deltaExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs after the publishing transaction commits (immediately when there is none, as
+     * for submissions) and only queues the delta; the delta thread writes it in a
+     * transaction of its own. A failed or dropped delta never fails the change that
+     * triggered it - it is logged and the nightly repair re-derives the day.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChange(ApplicationChangeEvent event) {
+        Application app = event.getApplication();
+        if (app == null || app.getApplicationDate() == null) {
+            return;
+        }
+        try {
+            deltaExecutor.execute(() -> {
+                try {
+                    deltaTransaction.executeWithoutResult(status -> applyChange(event, app));
+                } catch (RuntimeException e) {
+                    log.warn("Daily stats delta for application {} failed, left to the nightly repair: {}",
+                            app.getAppId(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Daily stats delta queue full, application {} left to the nightly repair", app.getAppId());
+        }
+    }
+
+    private void applyChange(ApplicationChangeEvent event, Application app) {
+        switch (event.getType()) {
+            case CREATED -> {
+                if (app.getStatus() != ApplicationStatus.DRAFT) {
+                    applyDelta(app, 1, outcome(app.getStatus()), 1);
+                }
+            }
+            case STATUS_CHANGED -> {
+                ApplicationStatus before = event.getPreviousStatus();
+                ApplicationStatus after = event.getStatus();
+                if (before == after) {
+                    return;
+                }
+                // Leaving / entering a decided state; the approve date of a withdrawn approval is still on the row
+                if (outcome(before) != null) {
+                    applyDelta(app, 0, outcome(before), -1);
+                }
+                if (outcome(after) != null) {
+                    applyDelta(app, 0, outcome(after), 1);
+                }
+            }
+            default -> { }
+        }
+    }
+
+    /**
+     * Counter an application status lands in (null for undecided)
+     */
+    private static ApplicationStatus outcome(ApplicationStatus status) {
+        if (status == ApplicationStatus.APPROVED || status == ApplicationStatus.EXPIRED) {
+            return ApplicationStatus.APPROVED;
+        }
+        return status == ApplicationStatus.REJECTED ? ApplicationStatus.REJECTED : null;
+    }
+
+    private void applyDelta(Application app, int submitted, ApplicationStatus outcome, int sign) {
+        Date day = Date.valueOf(app.getApplicationDate().toLocalDate());
+        String department = app.getDepartment() != null ? app.getDepartment() : "";
+        String category = app.getCategory() != null ? app.getCategory() : "";
+        int approved = outcome == ApplicationStatus.APPROVED ? sign : 0;
+        int rejected = outcome == ApplicationStatus.REJECTED ? sign : 0;
+
+        jdbcTemplate.update(STATS_DELTA_SQL, day, department, category, submitted, approved, rejected);
+        if (approved != 0 && app.getApproveDate() != null) {
+            long minutes = Duration.between(app.getApplicationDate(), app.getApproveDate()).toMinutes();
+            jdbcTemplate.update(APPROVAL_DELTA_SQL, day, department, category, bucketOf(minutes), approved);
+        }
+    }
+
+    // ==========================
+    // Batch backfill
+    // ==========================
+
+    @Scheduled(cron = "${daily-stats.repair.cron:0 45 2 * * *}")
+    public void scheduledRepair() {
+        LocalDate today = LocalDate.now();
+        backfill(today.minusDays(repairDays), today);
+    }
+
+    public StatsBackfillReport getLastReport() {
+        return lastReport.get();
+    }
+
+    /**
+     * Re-derive every day since the first application
+     */
+    public StatsBackfillReport backfillAll() {
+        Date first = jdbcTemplate.queryForObject(FIRST_DAY_SQL, Date.class);
+        LocalDate today = LocalDate.now();
+        return backfill(first != null ? first.toLocalDate() : today, today);
+    }
+
+    /**
+     * Replace the aggregates of [from, to] with ones computed from application
+     */
+    public StatsBackfillReport backfill(LocalDate from, LocalDate to) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Daily stats backfill is already running");
+        }
+        try {
+            StatsBackfillReport report = new StatsBackfillReport();
+            report.setStartedAt(LocalDateTime.now());
+            report.setFrom(from);
+            report.setTo(to);
+            long start = System.currentTimeMillis();
+
+            LocalDate windowStart = from;
+            while (!windowStart.isAfter(to)) {
+                LocalDate windowEnd = windowStart.plusDays(windowDays);
+                if (windowEnd.isAfter(to.plusDays(1))) {
+                    windowEnd = to.plusDays(1);
+                }
+                LocalDate startDay = windowStart;
+                LocalDate endDay = windowEnd;
+
+                // One window per transaction: readers see either the old or the new days, never a gap
+                long[] written = transactionTemplate.execute(status -> rebuildWindow(startDay, endDay));
+
+                report.setWindows(report.getWindows() + 1);
+                report.setStatRows(report.getStatRows() + written[0]);
+                report.setApprovalsBucketed(report.getApprovalsBucketed() + written[1]);
+                windowStart = windowEnd;
+            }
+
+            report.setElapsedMs(System.currentTimeMillis() - start);
+            lastReport.set(report);
+            log.info("Daily stats backfill {}..{}: {} rows, {} approvals in {} windows, {} ms",
+                    from, to, report.getStatRows(), report.getApprovalsBucketed(),
+                    report.getWindows(), report.getElapsedMs());
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Re-derive just the given days (e.g. of students the roster moved to another
+     * department, which may lie outside the nightly repair window). Consecutive days
+     * are rebuilt together; waits for a running backfill instead of racing it.
+     */
+    public void rebuildDays(Collection<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        running.lock();
+        try {
+            TreeSet<LocalDate> sorted = new TreeSet<>(days);
+            LocalDate runStart = sorted.first();
+            LocalDate runEnd = runStart.plusDays(1);
+            for (LocalDate day : sorted.tailSet(runStart, false)) {
+                if (day.equals(runEnd) && runEnd.isBefore(runStart.plusDays(windowDays))) {
+                    runEnd = day.plusDays(1);
+                    continue;
+                }
+                LocalDate from = runStart;
+                LocalDate to = runEnd;
+                transactionTemplate.execute(status -> rebuildWindow(from, to));
+                runStart = day;
+                runEnd = day.plusDays(1);
+            }
+            LocalDate from = runStart;
+            LocalDate to = runEnd;
+            transactionTemplate.execute(status -> rebuildWindow(from, to));
+            log.info("Daily stats re-derived for {} days", sorted.size());
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Returns {stat rows, approvals bucketed} for days [from, to)
+     */
+    private long[] rebuildWindow(LocalDate from, LocalDate to) {
+        Date fromDate = Date.valueOf(from);
+        Date toDate = Date.valueOf(to);
+        Timestamp fromTs = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp toTs = Timestamp.valueOf(to.atStartOfDay());
+
+        // 1️⃣ Drop the window
+        jdbcTemplate.update(DELETE_STATS_SQL, fromDate, toDate);
+        jdbcTemplate.update(DELETE_APPROVALS_SQL, fromDate, toDate);
+
+        // 2️⃣ Counts straight from a GROUP BY
+        long rows = jdbcTemplate.update(BACKFILL_STATS_SQL, fromTs, toTs);
+
+        // 3️⃣ Approval times bucketed here, so they land exactly where bucketOf puts new ones
+        Map<List<Object>, Integer> buckets = new HashMap<>();
+        AtomicLong approvals = new AtomicLong();
+        jdbcTemplate.query(BACKFILL_APPROVALS_SQL, rs -> {
+            List<Object> key = List.of(rs.getDate(1), rs.getString(2), rs.getString(3), bucketOf(rs.getLong(4)));
+            buckets.merge(key, 1, Integer::sum);
+            approvals.incrementAndGet();
+        }, fromTs, toTs);
+
+        List<Object[]> args = new ArrayList<>(buckets.size());
+        buckets.forEach((key, count) -> args.add(new Object[]{key.get(0), key.get(1), key.get(2), key.get(3), count}));
+        jdbcTemplate.batchUpdate(APPROVAL_DELTA_SQL, args);
+
+        return new long[]{rows, approvals.get()};
+    }
+
+    // ==========================
+    // Trend queries (aggregates only)
+    // ==========================
+
+    /**
+     * One point per day / week (Monday) / month in [from, to], including empty periods
+     */
+    public List<TrendPoint> trend(LocalDate from, LocalDate to, Granularity granularity,
+                                  List<String> departments, String category) {
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        StringBuilder where = new StringBuilder();
+        if (departments != null && !departments.isEmpty()) {
+            where.append(" AND department IN (")
+                    .append(String.join(", ", Collections.nCopies(departments.size(), "?")))
+                    .append(")");
+            args.addAll(departments);
+        }
+        if (category != null) {
+            where.append(" AND category = ?");
+            args.add(category);
+        }
+
+        TreeMap<LocalDate, TrendPoint> points = new TreeMap<>();
+        for (LocalDate day = periodStart(from, granularity); !day.isAfter(to); day = nextPeriod(day, granularity)) {
+            points.put(day, new TrendPoint(day, 0, 0, 0, null));
+        }
+
+        jdbcTemplate.query(String.format(TREND_SQL, where), rs -> {
+            TrendPoint point = points.get(periodStart(rs.getDate(1).toLocalDate(), granularity));
+            point.setSubmitted(point.getSubmitted() + rs.getLong(2));
+            point.setApproved(point.getApproved() + rs.getLong(3));
+            point.setRejected(point.getRejected() + rs.getLong(4));
+        }, args.toArray());
+
+        Map<LocalDate, TreeMap<Integer, Long>> histograms = new HashMap<>();
+        jdbcTemplate.query(String.format(TREND_BUCKETS_SQL, where), rs -> {
+            histograms.computeIfAbsent(periodStart(rs.getDate(1).toLocalDate(), granularity), k -> new TreeMap<>())
+                    .merge(rs.getInt(2), rs.getLong(3), Long::sum);
+        }, args.toArray());
+        histograms.forEach((period, histogram) -> points.get(period).setMedianHoursToApprove(medianHours(histogram)));
+
+        return new ArrayList<>(points.values());
+    }
+
+    private static LocalDate periodStart(LocalDate day, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate nextPeriod(LocalDate periodStart, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> periodStart.plusDays(1);
+            case WEEK -> periodStart.plusWeeks(1);
+            case MONTH -> periodStart.plusMonths(1);
+        };
+    }
+
+    // ==========================
+    // Log-scale duration buckets
+    // ==========================
+
+    static int bucketOf(long minutes) {
+        return (int) Math.floor(BUCKETS_PER_OCTAVE * Math.log1p(Math.max(minutes, 0)) / Math.log(2));
+    }
+
+    /**
+     * Median of a bucket histogram, as the geometric middle of its bucket, in hours (one decimal)
+     */
+    static Double medianHours(TreeMap<Integer, Long> histogram) {
+        long total = histogram.values().stream().mapToLong(Long::longValue).sum();
+        if (total <= 0) {
+            return null;
+        }
+        long rank = (total + 1) / 2;
+        long seen = 0;
+        for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+            seen += entry.getValue();
+            if (seen >= rank) {
+                double minutes = Math.pow(2, (entry.getKey() + 0.5) / BUCKETS_PER_OCTAVE) - 1;
+                return Math.round(minutes / 6.0) / 10.0;
+            }
+        }
+        return null;
+    }
+}
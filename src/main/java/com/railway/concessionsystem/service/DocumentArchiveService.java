@@ -0,0 +1,251 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.model.ApplicationStatus;
+import com.railway.concessionsystem.model.ArchivedDocument;
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import com.railway.concessionsystem.repository.ArchivedDocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Moves documents of closed applications from past academic years out of
+ * the loose uploads/ tree into per-year, per-department ZIP packs.
+ * Entries are STORED, so the data offset recorded in archived_document is
+ * all that is needed to serve an entry later. Loose files are only removed
+ * after the pack is renamed into place, every entry is re-read and
+ * CRC-checked, and the index rows are saved.
+ */
+@Service
+public class DocumentArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentArchiveService.class);
+
+    private static final DateTimeFormatter PACK_STAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ArchivedDocumentRepository archivedDocumentRepository;
+
+    @Value("${archive.directory:uploads/archive}")
+    private String archiveDirectory;
+
+    // Academic year starts in this month (June for Mumbai colleges)
+    @Value("${archive.academic-year-start-month:6}")
+    private int academicYearStartMonth;
+
+    private final ReentrantLock running = new ReentrantLock();
+
+    private static class PackEntry {
+        private final String storedPath;
+        private long crc;
+        private long length;
+        private long dataOffset;
+
+        PackEntry(String storedPath) {
+            this.storedPath = storedPath;
+        }
+    }
+
+    /**
+     * Tracks the byte position so the data offset of each STORED entry is known
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    @Scheduled(cron = "${archive.cron:0 0 4 1 * *}")
+    public void scheduledRun() {
+        archivePastYears();
+    }
+
+    /**
+     * Pack every decided (not pending or draft) application's documents from before the current academic year.
+     * Returns the number of documents archived.
+     */
+    public int archivePastYears() {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Archival is already running");
+        }
+        try {
+            LocalDateTime before = currentAcademicYearStart().atStartOfDay();
+
+            // 1️⃣ Group loose documents by academic year + department
+            Map<String, List<PackEntry>> groups = new TreeMap<>();
+            for (Object[] row : applicationRepository.findArchiveCandidates(
+                    List.of(ApplicationStatus.PENDING, ApplicationStatus.DRAFT), before)) {
+                String department = row[1] != null ? (String) row[1] : "UNKNOWN";
+                String year = academicYear(((LocalDateTime) row[2]).toLocalDate());
+                for (int i = 3; i <= 4; i++) {
+                    String path = (String) row[i];
+                    if (path != null && Files.isRegularFile(Paths.get(path))
+                            && !archivedDocumentRepository.existsByOriginalPath(path)) {
+                        groups.computeIfAbsent(year + "/" + department, k -> new ArrayList<>())
+                                .add(new PackEntry(path));
+                    }
+                }
+            }
+
+            // 2️⃣ One pack per group
+            int archived = 0;
+            for (Map.Entry<String, List<PackEntry>> group : groups.entrySet()) {
+                try {
+                    archived += writePack(group.getKey(), group.getValue());
+                } catch (IOException e) {
+                    log.warn("Archiving {} failed, loose files kept: {}", group.getKey(), e.getMessage());
+                }
+            }
+            log.info("Archived {} documents into {} packs", archived, groups.size());
+            return archived;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private int writePack(String group, List<PackEntry> entries) throws IOException {
+        String[] parts = group.split("/", 2);
+        Path dir = Paths.get(archiveDirectory, parts[0]);
+        Files.createDirectories(dir);
+
+        String packName = parts[1] + "-" + LocalDateTime.now().format(PACK_STAMP) + ".zip";
+        Path part = dir.resolve(packName + ".part");
+        Path pack = dir.resolve(packName);
+
+        // 1️⃣ Write STORED entries, recording where each entry's data starts
+        Map<String, Integer> nameCounts = new LinkedHashMap<>();
+        try (CountingOutputStream counting = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(part)));
+             ZipOutputStream zip = new ZipOutputStream(counting)) {
+            zip.setMethod(ZipOutputStream.STORED);
+
+            for (PackEntry entry : entries) {
+                Path source = Paths.get(entry.storedPath);
+                entry.length = Files.size(source);
+                entry.crc = crcOf(source);
+
+                String name = source.getFileName().toString();
+                int seen = nameCounts.merge(name, 1, Integer::sum);
+                ZipEntry zipEntry = new ZipEntry(seen == 1 ? name : seen + "_" + name);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(entry.length);
+                zipEntry.setCompressedSize(entry.length);
+                zipEntry.setCrc(entry.crc);
+
+                zip.putNextEntry(zipEntry);
+                entry.dataOffset = counting.count; // local header is written by putNextEntry
+                Files.copy(source, zip);
+                zip.closeEntry();
+            }
+        }
+        Files.move(part, pack, StandardCopyOption.ATOMIC_MOVE);
+
+        // 2️⃣ Verify each entry by seeking to its offset
+        try (RandomAccessFile file = new RandomAccessFile(pack.toFile(), "r")) {
+            byte[] buffer = new byte[8192];
+            for (PackEntry entry : entries) {
+                file.seek(entry.dataOffset);
+                CRC32 crc = new CRC32();
+                long remaining = entry.length;
+                while (remaining > 0) {
+                    int read = file.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) break;
+                    crc.update(buffer, 0, read);
+                    remaining -= read;
+                }
+                if (remaining != 0 || crc.getValue() != entry.crc) {
+                    Files.deleteIfExists(pack);
+                    throw new IOException("Verification failed for " + entry.storedPath);
+                }
+            }
+        }
+
+        // 3️⃣ Index, then drop the loose files
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedDocument> index = new ArrayList<>();
+        for (PackEntry entry : entries) {
+            ArchivedDocument doc = new ArchivedDocument();
+            doc.setOriginalPath(entry.storedPath);
+            doc.setPackPath(pack.toString().replace('\\', '/'));
+            doc.setDataOffset(entry.dataOffset);
+            doc.setLength(entry.length);
+            doc.setCrc32(entry.crc);
+            doc.setArchivedAt(now);
+            index.add(doc);
+        }
+        archivedDocumentRepository.saveAll(index);
+
+        for (PackEntry entry : entries) {
+            Files.deleteIfExists(Paths.get(entry.storedPath));
+        }
+        return entries.size();
+    }
+
+    private long crcOf(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private LocalDate currentAcademicYearStart() {
+        LocalDate today = LocalDate.now();
+        int year = today.getMonthValue() >= academicYearStartMonth ? today.getYear() : today.getYear() - 1;
+        return LocalDate.of(year, academicYearStartMonth, 1);
+    }
+
+    /**
+     * e.g. 2024-25 for any date from June 2024 to May 2025
+     */
+    private String academicYear(LocalDate date) {
+        int start = date.getMonthValue() >= academicYearStartMonth ? date.getYear() : date.getYear() - 1;
+        return start + "-" + String.format("%02d", (start + 1) % 100);
+    }
+}
@@ -0,0 +1,283 @@
+package com.railway.concessionsystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Audit bundles: every stored document of a filtered set of applications as
+ * one ZIP, built while it is being downloaded. Application rows are read in
+ * keyset pages, each document is copied straight from disk (or its archive
+ * pack) into the response, and the manifest is spooled to a temp file and
+ * added last, so memory stays flat however large the bundle gets.
+ * JPEG / PNG / PDF are already compressed and go in STORED; the CRC a STORED
+ * entry needs up front comes from the archive index, or a read-ahead pass
+ * over loose files through the same open handle as the copy. A document gone
+ * before its entry is started is listed in the manifest as missing.
+ */
+@Service
+public class DocumentBundleService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentBundleService.class);
+
+    private static final String PAGE_SQL =
+            "SELECT app_id, student_id, student_name, department, status, application_date, aadhar_card, caste_certificate " +
+            "FROM application WHERE department IN (%s)%s AND app_id > ? ORDER BY app_id LIMIT ?";
+
+    private static final String MANIFEST_HEADER =
+            "App ID,Student ID,Student Name,Department,Status,Application Date,Document,Entry,Bytes,CRC32,Note\n";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    @Value("${bundles.page-size:500}")
+    private int pageSize;
+
+    /**
+     * Bundle filter; departments are already limited to the caller's
+     */
+    public static class BundleFilter {
+        private final List<String> departments;
+        private final String status;
+        private final LocalDate from;   // inclusive
+        private final LocalDate to;     // inclusive
+
+        public BundleFilter(List<String> departments, String status, LocalDate from, LocalDate to) {
+            this.departments = departments;
+            this.status = status;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private static class BundleRow {
+        private long appId;
+        private String studentId;
+        private String studentName;
+        private String department;
+        private String status;
+        private Timestamp applicationDate;
+        private String aadharCard;
+        private String casteCertificate;
+    }
+
+    /**
+     * Write the ZIP to out. The stream is finished but not closed.
+     */
+    public void writeBundle(BundleFilter filter, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Path manifest = Files.createTempFile("bundle-manifest-", ".csv");
+        int documents = 0;
+        long bytes = 0;
+
+        try (BufferedWriter manifestWriter = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+            manifestWriter.write(MANIFEST_HEADER);
+
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+            byte[] buffer = new byte[64 * 1024];
+
+            long lastId = 0;
+            while (true) {
+                // 1️⃣ Next page of matching applications (short query, no connection held while streaming)
+                List<BundleRow> page = nextPage(filter, lastId);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).appId;
+
+                // 2️⃣ Each document as its own entry
+                for (BundleRow row : page) {
+                    String folder = row.appId + "_" + safeName(row.studentId) + "/";
+                    for (String[] doc : new String[][]{{"aadhar", row.aadharCard}, {"caste", row.casteCertificate}}) {
+                        if (doc[1] == null) {
+                            continue;
+                        }
+                        String note = "";
+                        String entryName = "";
+                        long length = 0;
+                        long crc = 0;
+
+                        Optional<DocumentStorageService.StoredDocument> stored = documentStorageService.open(doc[1]);
+                        if (stored.isEmpty()) {
+                            note = "missing";
+                        } else {
+                            DocumentStorageService.StoredDocument document = stored.get();
+                            entryName = folder + doc[0] + extension(document.getFileName());
+                            length = document.getLength();
+                            crc = writeEntry(zip, entryName, document, buffer);
+                            documents++;
+                            bytes += length;
+                        }
+                        manifestWriter.write(csv(row, doc[0], entryName, length, crc, note));
+                    }
+                }
+            }
+
+            // 3️⃣ Manifest last, once every entry's size and CRC is known
+            manifestWriter.flush();
+            ZipEntry entry = new ZipEntry("manifest.csv");
+            entry.setMethod(ZipEntry.DEFLATED);
+            zip.putNextEntry(entry);
+            Files.copy(manifest, zip);
+            zip.closeEntry();
+            zip.finish();
+            zip.flush();
+        } finally {
+            Files.deleteIfExists(manifest);
+        }
+        log.info("Bundle of {} documents ({} MB) for {} streamed in {} ms",
+                documents, bytes / (1024 * 1024), filter.departments, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Copy one document into the ZIP (consumes and closes document's stream); returns its CRC
+     */
+    private long writeEntry(ZipOutputStream zip, String name,
+                            DocumentStorageService.StoredDocument document, byte[] buffer) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        InputStream content = document.getContent();
+        try {
+            long crc;
+            if (isCompressed(document.getFileName())) {
+                // STORED needs size and CRC before the data: archived entries have it indexed,
+                // loose files are read once ahead (the copy pass then hits the page cache)
+                if (document.getCrc32() != null) {
+                    crc = document.getCrc32();
+                } else {
+                    CRC32 ahead = new CRC32();
+                    drain(content, null, buffer, ahead);
+                    // Same handle for the copy: a normalizer swap or deletion since open() cannot
+                    // change or take away the bytes the CRC was computed over
+                    content = document.rewind();
+                    crc = ahead.getValue();
+                }
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(document.getLength());
+                entry.setCompressedSize(document.getLength());
+                entry.setCrc(crc);
+                zip.putNextEntry(entry);
+                drain(content, zip, buffer, null);
+            } else {
+                entry.setMethod(ZipEntry.DEFLATED);
+                zip.putNextEntry(entry);
+                CRC32 running = new CRC32();
+                drain(content, zip, buffer, running);
+                crc = running.getValue();
+            }
+            zip.closeEntry();
+            return crc;
+        } finally {
+            content.close();
+        }
+    }
+
+    private void drain(InputStream in, OutputStream out, byte[] buffer, CRC32 crc) throws IOException {
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out != null) {
+                out.write(buffer, 0, read);
+            }
+            if (crc != null) {
+                crc.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private List<BundleRow> nextPage(BundleFilter filter, long lastId) {
+        List<Object> args = new ArrayList<>(filter.departments);
+        StringBuilder where = new StringBuilder();
+        if (filter.status != null) {
+            where.append(" AND status = ?");
+            args.add(filter.status);
+        }
+        if (filter.from != null) {
+            where.append(" AND application_date >= ?");
+            args.add(Timestamp.valueOf(filter.from.atStartOfDay()));
+        }
+        if (filter.to != null) {
+            where.append(" AND application_date < ?");
+            args.add(Timestamp.valueOf(filter.to.plusDays(1).atStartOfDay()));
+        }
+        args.add(lastId);
+        args.add(pageSize);
+
+        String sql = String.format(PAGE_SQL,
+                String.join(", ", Collections.nCopies(filter.departments.size(), "?")), where);
+        return jdbcTemplate.query(sql, (rs, i) -> {
+            BundleRow row = new BundleRow();
+            row.appId = rs.getLong(1);
+            row.studentId = rs.getString(2);
+            row.studentName = rs.getString(3);
+            row.department = rs.getString(4);
+            row.status = rs.getString(5);
+            row.applicationDate = rs.getTimestamp(6);
+            row.aadharCard = rs.getString(7);
+            row.casteCertificate = rs.getString(8);
+            return row;
+        }, args.toArray());
+    }
+
+    private String csv(BundleRow row, String document, String entry, long length, long crc, String note) {
+        return String.join(",",
+                String.valueOf(row.appId),
+                quote(row.studentId),
+                quote(row.studentName),
+                quote(row.department),
+                quote(row.status),
+                row.applicationDate != null ? row.applicationDate.toLocalDateTime().toString() : "",
+                document,
+                quote(entry),
+                note.isEmpty() ? String.valueOf(length) : "",
+                note.isEmpty() ? String.format("%08x", crc) : "",
+                note) + "\n";
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static boolean isCompressed(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png") || name.endsWith(".pdf");
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String safeName(String value) {
+        return value == null ? "unknown" : value.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+}
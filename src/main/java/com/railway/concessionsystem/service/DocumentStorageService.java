@@ -0,0 +1,136 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.model.ArchivedDocument;
+import com.railway.concessionsystem.repository.ArchivedDocumentRepository;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Read access to stored documents, wherever they live: a loose file under
+ * uploads/ or an entry inside an archive pack (found through the offset
+ * index and read by seeking straight to it).
+ */
+@Service
+public class DocumentStorageService {
+
+    @Autowired
+    private ArchivedDocumentRepository archivedDocumentRepository;
+
+    public static class StoredDocument {
+        private final FileChannel channel;
+        private final long offset;
+        private final InputStream content;
+        private final long length;
+        private final String mediaType;
+        private final String fileName;
+        private final Long crc32;   // known for archived entries, null for loose files
+
+        StoredDocument(FileChannel channel, long offset, long length, String mediaType, String fileName, Long crc32)
+                throws IOException {
+            this.channel = channel;
+            this.offset = offset;
+            this.content = streamFrom(channel, offset, length);
+            this.length = length;
+            this.mediaType = mediaType;
+            this.fileName = fileName;
+            this.crc32 = crc32;
+        }
+
+        public InputStream getContent() {
+            return content;
+        }
+
+        /**
+         * A fresh stream over the same open file, from the start of the document. Reads through
+         * the handle already held, so a file swapped or removed since open() is still the one read.
+         * Closing either stream closes the file.
+         */
+        public InputStream rewind() throws IOException {
+            return streamFrom(channel, offset, length);
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public Long getCrc32() {
+            return crc32;
+        }
+
+        private static InputStream streamFrom(FileChannel channel, long offset, long length) throws IOException {
+            channel.position(offset);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        }
+    }
+
+    /**
+     * Open a document by the path stored on the application row.
+     * The caller must close the returned stream.
+     */
+    public Optional<StoredDocument> open(String storedPath) throws IOException {
+        if (storedPath == null || storedPath.isBlank()) {
+            return Optional.empty();
+        }
+
+        Path loose = Paths.get(storedPath);
+        String fileName = loose.getFileName().toString();
+
+        if (Files.isRegularFile(loose)) {
+            try {
+                FileChannel channel = FileChannel.open(loose, StandardOpenOption.READ);
+                try {
+                    // Size from the open handle, so it always matches the bytes read through it
+                    return Optional.of(new StoredDocument(channel, 0, channel.size(), mediaType(fileName), fileName, null));
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+            } catch (NoSuchFileException e) {
+                // Removed or moved into an archive pack since the check - look it up there
+            }
+        }
+
+        Optional<ArchivedDocument> archived = archivedDocumentRepository.findByOriginalPath(storedPath);
+        if (archived.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ArchivedDocument entry = archived.get();
+        FileChannel channel = FileChannel.open(Paths.get(entry.getPackPath()), StandardOpenOption.READ);
+        try {
+            return Optional.of(new StoredDocument(channel, entry.getDataOffset(), entry.getLength(),
+                    mediaType(fileName), fileName, entry.getCrc32()));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static String mediaType(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".pdf")) return "application/pdf";
+        if (name.endsWith(".png")) return "image/png";
+        return "image/jpeg";
+    }
+}
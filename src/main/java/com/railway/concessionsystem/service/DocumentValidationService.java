@@ -0,0 +1,291 @@
+package com.railway.concessionsystem.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-based validation of uploaded documents.
+ * The real type is sniffed from magic bytes (client Content-Type and file
+ * name are ignored), image headers are checked for sane dimensions before
+ * any pixel is decoded, and every file must end with its format's end
+ * marker (JPEG EOI, PNG IEND, PDF startxref/%%EOF); a PDF's startxref
+ * offset must also point at its cross-reference table or stream. This is a
+ * structural sanity check, not a full PDF parse. Work runs on a
+ * small bounded pool with a timeout so bad uploads fail fast and never get
+ * written to uploads/.
+ */
+@Service
+public class DocumentValidationService {
+
+    public enum DocumentType {
+        JPEG(".jpg", "image/jpeg"),
+        PNG(".png", "image/png"),
+        PDF(".pdf", "application/pdf");
+
+        private final String extension;
+        private final String mediaType;
+
+        DocumentType(String extension, String mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] PDF_MAGIC = {'%', 'P', 'D', 'F', '-'};
+
+    // Bytes kept from the end of a file to find its end marker / trailer
+    private static final int TAIL_BYTES = 1024;
+
+    // startxref <offset> %%EOF, and what that offset must point at: a classic xref table or
+    // an xref stream object (PDF 1.5+), whose dictionary comes right after "n g obj"
+    private static final Pattern PDF_STARTXREF = Pattern.compile("startxref\\s+(\\d{1,15})\\s+%%EOF");
+    private static final Pattern PDF_XREF_TABLE = Pattern.compile("\\s*xref\\b");
+    private static final Pattern PDF_XREF_STREAM = Pattern.compile(
+            "\\s*\\d+\\s+\\d+\\s+obj\\b.*?/Type\\s*/XRef\\b", Pattern.DOTALL);
+    private static final int XREF_PROBE_BYTES = 1024;
+
+    @Value("${documents.validation.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Value("${documents.validation.max-dimension:8000}")
+    private int maxDimension;
+
+    @Value("${documents.validation.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${documents.validation.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final ThreadPoolExecutor executor;
+
+    public DocumentValidationService(
+            @Value("${documents.validation.threads:4}") int threads,
+            @Value("${documents.validation.queue-capacity:32}") int queueCapacity
+    ) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "doc-validate-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Validate an upload and return its sniffed type.
+     * Throws RuntimeException with a user-facing message when rejected.
+     */
+    public DocumentType validate(MultipartFile file, String label) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException(label + " file is empty");
+        }
+        if (file.getSize() > maxBytes) {
+            throw new RuntimeException(label + " exceeds the maximum size of " + (maxBytes / (1024 * 1024)) + " MB");
+        }
+
+        Future<DocumentType> task;
+        try {
+            task = executor.submit(() -> inspect(file, label));
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Server is busy validating documents, please retry shortly");
+        }
+
+        try {
+            return task.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            throw new RuntimeException(label + " could not be validated in time");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(label + " could not be read: " + cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(label + " validation was interrupted");
+        }
+    }
+
+    private DocumentType inspect(MultipartFile file, String label) throws IOException {
+        DocumentType type;
+        try (InputStream in = new BufferedInputStream(file.getInputStream())) {
+            in.mark(16);
+            byte[] head = in.readNBytes(8);
+            in.reset();
+
+            if (startsWith(head, JPEG_MAGIC)) {
+                type = DocumentType.JPEG;
+                checkImage(in, label);
+            } else if (startsWith(head, PNG_MAGIC)) {
+                type = DocumentType.PNG;
+                checkImage(in, label);
+            } else if (startsWith(head, PDF_MAGIC)) {
+                type = DocumentType.PDF;
+                checkPdfHeader(in, label);
+            } else {
+                throw new RuntimeException("Only JPG, PNG or PDF files are allowed for " + label);
+            }
+        }
+
+        // Second streaming pass: a truncated upload is missing its end marker
+        String tail;
+        try (InputStream in = file.getInputStream()) {
+            tail = readTail(in);
+        }
+        boolean complete = switch (type) {
+            case JPEG -> tail.contains("\u00FF\u00D9");
+            case PNG -> tail.contains("IEND");
+            case PDF -> tail.contains("startxref") && tail.contains("%%EOF");
+        };
+        if (!complete) {
+            throw new RuntimeException(label + " is corrupt or truncated");
+        }
+        if (type == DocumentType.PDF) {
+            checkPdfXref(file, tail, label);
+        }
+        return type;
+    }
+
+    /**
+     * Reads only the image header - dimensions are checked before any
+     * decoding so a small file that inflates to gigapixels is rejected.
+     */
+    private void checkImage(InputStream in, String label) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis != null ? ImageIO.getImageReaders(iis) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new RuntimeException(label + " is not a readable image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                if (width <= 0 || height <= 0) {
+                    throw new RuntimeException(label + " has invalid image dimensions");
+                }
+                if (width > maxDimension || height > maxDimension || (long) width * height > maxPixels) {
+                    throw new RuntimeException(label + " image is too large (" + width + "x" + height + ")");
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(label + " is corrupt or truncated");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void checkPdfHeader(InputStream in, String label) throws IOException {
+        String header = new String(in.readNBytes(8), StandardCharsets.US_ASCII);
+        if (!header.matches("%PDF-[12]\\.\\d.*")) {
+            throw new RuntimeException(label + " has an invalid PDF header");
+        }
+    }
+
+    /**
+     * The last startxref offset must point inside the file at a cross-reference
+     * table ("xref") or a cross-reference stream ("n g obj" with /Type /XRef)
+     */
+    private void checkPdfXref(MultipartFile file, String tail, String label) throws IOException {
+        Matcher matcher = PDF_STARTXREF.matcher(tail);
+        long offset = -1;
+        while (matcher.find()) {
+            offset = parseOffset(matcher.group(1));
+        }
+        if (offset < 0 || offset >= file.getSize()) {
+            throw new RuntimeException(label + " is corrupt or truncated");
+        }
+
+        String target;
+        try (InputStream in = file.getInputStream()) {
+            in.skipNBytes(offset);
+            target = new String(in.readNBytes(XREF_PROBE_BYTES), StandardCharsets.ISO_8859_1);
+        }
+        boolean table = PDF_XREF_TABLE.matcher(target).lookingAt();
+        boolean stream = PDF_XREF_STREAM.matcher(target).lookingAt();
+        if (!table && !stream) {
+            throw new RuntimeException(label + " is corrupt or truncated");
+        }
+    }
+
+    private static long parseOffset(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Last TAIL_BYTES of the stream (ISO-8859-1 so every byte maps to one char)
+     */
+    private String readTail(InputStream in) throws IOException {
+        byte[] tail = new byte[TAIL_BYTES];
+        int tailLength = 0;
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (read >= TAIL_BYTES) {
+                System.arraycopy(buffer, read - TAIL_BYTES, tail, 0, TAIL_BYTES);
+                tailLength = TAIL_BYTES;
+            } else {
+                int keep = Math.min(tailLength, TAIL_BYTES - read);
+                System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+                System.arraycopy(buffer, 0, tail, keep, read);
+                tailLength = keep + read;
+            }
+        }
+        return new String(Arrays.copyOf(tail, tailLength), StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,351 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.DuplicateMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Possible-duplicate detection for uploaded documents. Each scan gets a
+ * 64-bit difference hash (dHash) when it is uploaded: the image is decoded
+ * at reduced resolution, averaged down to 9x8 grey cells, and each bit says
+ * whether a cell is brighter than its right neighbour. Re-encoded, resized or
+ * re-photographed copies of one image land a few bits apart, so duplicates are
+ * a Hamming-distance lookup in a multi-index hash table (HammingIndex)
+ * instead of comparing images. PDFs are not rendered here; they are matched
+ * on their exact content hash instead.
+ */
+@Service
+public class DuplicateDetectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetectionService.class);
+
+    public enum Document { AADHAR, CASTE }
+
+    public enum Kind { DHASH, SHA256 }
+
+    /**
+     * Hash of one document, computed before it is stored
+     */
+    public record Fingerprint(Kind kind, long hash) { }
+
+    private record DocumentKey(long appId, Document document) { }
+
+    // Longest edge decoded for hashing - the 9x8 grid needs nothing near full resolution
+    private static final int DECODE_EDGE = 256;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO document_fingerprint (app_id, document, student_id, kind, hash, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "student_id = VALUES(student_id), kind = VALUES(kind), hash = VALUES(hash), created_at = VALUES(created_at)";
+
+    private static final String LOAD_SQL =
+            "SELECT app_id, document, student_id, kind, hash FROM document_fingerprint";
+
+    // Documents uploaded before fingerprints existed
+    private static final String MISSING_SQL =
+            "SELECT a.app_id, a.student_id, a.aadhar_card, a.caste_certificate, " +
+            "EXISTS (SELECT 1 FROM document_fingerprint f WHERE f.app_id = a.app_id AND f.document = 'AADHAR'), " +
+            "EXISTS (SELECT 1 FROM document_fingerprint f WHERE f.app_id = a.app_id AND f.document = 'CASTE') " +
+            "FROM application a WHERE a.app_id > ? ORDER BY a.app_id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DocumentStorageService documentStorageService;
+
+    // Most differing bits still reported as a possible duplicate (of 64)
+    @Value("${duplicates.max-distance:8}")
+    private int maxDistance;
+
+    @Value("${duplicates.backfill.page-size:200}")
+    private int backfillPageSize;
+
+    private final HammingIndex<DocumentKey> perceptual = new HammingIndex<>();
+    private final HammingIndex<DocumentKey> exact = new HammingIndex<>();
+    private final Map<DocumentKey, String> students = new ConcurrentHashMap<>();
+    private final Map<DocumentKey, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+    private final ReentrantLock backfilling = new ReentrantLock();
+
+    // ==========================
+    // Hashing
+    // ==========================
+
+    /**
+     * Fingerprint of an upload; empty when the image cannot be decoded
+     */
+    public Optional<Fingerprint> fingerprint(byte[] content, DocumentValidationService.DocumentType type) {
+        try {
+            if (type == DocumentValidationService.DocumentType.PDF) {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+                return Optional.of(new Fingerprint(Kind.SHA256, ByteBuffer.wrap(digest).getLong()));
+            }
+            BufferedImage image = decodeSmall(content);
+            return image == null ? Optional.empty() : Optional.of(new Fingerprint(Kind.DHASH, dHash(image)));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.debug("No fingerprint for {} upload: {}", type, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Decode with source subsampling, so a 12 MP photo costs about as much as a thumbnail
+     */
+    private BufferedImage decodeSmall(byte[] content) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / DECODE_EDGE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 64-bit difference hash: 9x8 mean-luminance grid, one bit per horizontal neighbour pair
+     */
+    static long dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] sums = new double[9 * 8];
+        int[] counts = new int[9 * 8];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellY = y * 8 / height;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                double luminance = 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                int cell = cellY * 9 + x * 9 / width;
+                sums[cell] += luminance;
+                counts[cell]++;
+            }
+        }
+
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                int left = y * 9 + x;
+                double a = counts[left] > 0 ? sums[left] / counts[left] : 0;
+                double b = counts[left + 1] > 0 ? sums[left + 1] / counts[left + 1] : 0;
+                hash = (hash << 1) | (a > b ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    // ==========================
+    // Index maintenance
+    // ==========================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            index(new DocumentKey(rs.getLong(1), Document.valueOf(rs.getString(2))), rs.getString(3),
+                    new Fingerprint(Kind.valueOf(rs.getString(4)), rs.getLong(5)));
+        });
+        log.info("Duplicate index ready: {} document fingerprints in {} ms",
+                fingerprints.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Store a document's fingerprint; the index picks it up once the surrounding transaction commits
+     */
+    public void record(long appId, String studentId, Document document, Fingerprint fingerprint) {
+        jdbcTemplate.update(UPSERT_SQL, appId, document.name(), studentId, fingerprint.kind().name(),
+                fingerprint.hash(), Timestamp.valueOf(LocalDateTime.now()));
+
+        DocumentKey key = new DocumentKey(appId, document);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(key, studentId, fingerprint);
+                }
+            });
+        } else {
+            index(key, studentId, fingerprint);
+        }
+    }
+
+    private void index(DocumentKey key, String studentId, Fingerprint fingerprint) {
+        students.put(key, studentId);
+        Fingerprint previous = fingerprints.put(key, fingerprint);
+        if (previous != null && previous.kind() != fingerprint.kind()) {
+            (previous.kind() == Kind.DHASH ? perceptual : exact).remove(key);
+        }
+        (fingerprint.kind() == Kind.DHASH ? perceptual : exact).put(key, fingerprint.hash());
+    }
+
+    // ==========================
+    // Lookups
+    // ==========================
+
+    /**
+     * Other stored documents that look like the documents of appId, nearest first
+     */
+    public List<DuplicateMatch> findMatches(long appId) {
+        List<DuplicateMatch> matches = new ArrayList<>();
+        for (Document document : Document.values()) {
+            DocumentKey key = new DocumentKey(appId, document);
+            Fingerprint fingerprint = fingerprints.get(key);
+            if (fingerprint == null || isFeatureless(fingerprint)) {
+                continue;
+            }
+            List<HammingIndex.Match<DocumentKey>> hits = fingerprint.kind() == Kind.DHASH
+                    ? perceptual.search(fingerprint.hash(), maxDistance)
+                    : exact.search(fingerprint.hash(), 0);
+            String studentId = students.get(key);
+            for (HammingIndex.Match<DocumentKey> hit : hits) {
+                DocumentKey other = hit.getKey();
+                if (other.appId() == appId) {
+                    continue;
+                }
+                String otherStudent = students.get(other);
+                matches.add(new DuplicateMatch(appId, document.name(), other.appId(), other.document().name(),
+                        otherStudent, hit.getDistance(), otherStudent != null && otherStudent.equals(studentId)));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Possible duplicates for a page of applications - only scans shared with another student
+     */
+    public Map<Long, List<DuplicateMatch>> findCrossStudentMatches(Collection<Long> appIds) {
+        Map<Long, List<DuplicateMatch>> result = new LinkedHashMap<>();
+        for (Long appId : appIds) {
+            List<DuplicateMatch> matches = findMatches(appId).stream().filter(m -> !m.isSameStudent()).toList();
+            if (!matches.isEmpty()) {
+                result.put(appId, matches);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Blank or uniform scans hash to (nearly) all zeros / ones and would match each other
+     */
+    private static boolean isFeatureless(Fingerprint fingerprint) {
+        int bits = Long.bitCount(fingerprint.hash());
+        return fingerprint.kind() == Kind.DHASH && (bits < 4 || bits > 60);
+    }
+
+    // ==========================
+    // Backfill for documents stored before fingerprinting
+    // ==========================
+
+    /**
+     * Returns {fingerprinted, unreadable}
+     */
+    public long[] backfill() {
+        if (!backfilling.tryLock()) {
+            throw new IllegalStateException("Fingerprint backfill is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long fingerprinted = 0;
+            long unreadable = 0;
+            long lastId = 0;
+            while (true) {
+                // 1️⃣ Next page of applications (keyset on app_id)
+                List<Object[]> page = jdbcTemplate.query(MISSING_SQL, (rs, i) -> new Object[]{
+                        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getBoolean(5), rs.getBoolean(6)}, lastId, backfillPageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = (Long) page.get(page.size() - 1)[0];
+
+                // 2️⃣ Hash whatever is stored but not yet fingerprinted
+                for (Object[] row : page) {
+                    long appId = (Long) row[0];
+                    String studentId = (String) row[1];
+                    for (Document document : Document.values()) {
+                        String path = (String) row[document == Document.AADHAR ? 2 : 3];
+                        boolean done = (Boolean) row[document == Document.AADHAR ? 4 : 5];
+                        if (path == null || done) {
+                            continue;
+                        }
+                        Optional<Fingerprint> fingerprint = readFingerprint(path);
+                        if (fingerprint.isPresent()) {
+                            record(appId, studentId, document, fingerprint.get());
+                            fingerprinted++;
+                        } else {
+                            unreadable++;
+                        }
+                    }
+                }
+            }
+            log.info("Fingerprint backfill: {} documents hashed, {} unreadable, {} ms",
+                    fingerprinted, unreadable, System.currentTimeMillis() - start);
+            return new long[]{fingerprinted, unreadable};
+        } finally {
+            backfilling.unlock();
+        }
+    }
+
+    private Optional<Fingerprint> readFingerprint(String storedPath) {
+        try {
+            Optional<DocumentStorageService.StoredDocument> stored = documentStorageService.open(storedPath);
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            byte[] content;
+            try (InputStream in = stored.get().getContent()) {
+                content = in.readAllBytes();
+            }
+            String name = stored.get().getFileName().toLowerCase(Locale.ROOT);
+            DocumentValidationService.DocumentType type = name.endsWith(".pdf")
+                    ? DocumentValidationService.DocumentType.PDF
+                    : name.endsWith(".png") ? DocumentValidationService.DocumentType.PNG
+                    : DocumentValidationService.DocumentType.JPEG;
+            return fingerprint(content, type);
+        } catch (IOException e) {
+            log.debug("Could not read {} for fingerprinting: {}", storedPath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.railway.concessionsystem.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Multi-index hashing over 64-bit perceptual hashes.
+ * Each hash is split into four 16-bit chunks with one table per chunk. Two
+ * hashes within Hamming distance r agree to within r/4 bits on at least one
+ * chunk (pigeonhole), so a query only probes the chunk values that close to
+ * its own - a few hundred bucket lookups however many hashes are stored -
+ * and verifies the candidates it finds there.
+ */
+class HammingIndex<K> {
+
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+
+    // Per chunk: chunk value -> slots (ids into hashes / keys), with fill counts
+    private final int[][][] buckets = new int[CHUNKS][1 << CHUNK_BITS][];
+    private final int[][] bucketSizes = new int[CHUNKS][1 << CHUNK_BITS];
+
+    private long[] hashes = new long[1024];
+    private final List<K> keys = new ArrayList<>();
+    private final Map<K, Integer> slotByKey = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    static class Match<K> {
+        private final K key;
+        private final int distance;
+
+        Match(K key, int distance) {
+            this.key = key;
+            this.distance = distance;
+        }
+
+        K getKey() {
+            return key;
+        }
+
+        int getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * Add or replace the hash stored for key
+     */
+    void put(K key, long hash) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotByKey.get(key);
+            if (existing != null) {
+                if (hashes[existing] == hash) {
+                    return;
+                }
+                unlink(existing);
+                keys.set(existing, null);  // slot stays dead, ids never shift
+            }
+            int slot = keys.size();
+            keys.add(key);
+            if (slot == hashes.length) {
+                hashes = Arrays.copyOf(hashes, slot * 2);
+            }
+            hashes[slot] = hash;
+            slotByKey.put(key, slot);
+            for (int c = 0; c < CHUNKS; c++) {
+                int value = chunk(hash, c);
+                int[] bucket = buckets[c][value];
+                int size = bucketSizes[c][value];
+                if (bucket == null) {
+                    bucket = new int[2];
+                } else if (size == bucket.length) {
+                    bucket = Arrays.copyOf(bucket, size * 2);
+                }
+                bucket[size] = slot;
+                buckets[c][value] = bucket;
+                bucketSizes[c][value] = size + 1;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByKey.remove(key);
+            if (slot != null) {
+                unlink(slot);
+                keys.set(slot, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slotByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every stored key within maxDistance of hash (0..63), nearest first
+     */
+    List<Match<K>> search(long hash, int maxDistance) {
+        int chunkRadius = maxDistance / CHUNKS;
+        List<Match<K>> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Integer> seen = new HashSet<>();
+            for (int c = 0; c < CHUNKS; c++) {
+                probe(c, chunk(hash, c), 0, chunkRadius, hash, maxDistance, seen, matches);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort((a, b) -> Integer.compare(a.distance, b.distance));
+        return matches;
+    }
+
+    /**
+     * Visit every chunk value within radius flips of value (flipping bits at or above fromBit)
+     */
+    private void probe(int c, int value, int fromBit, int radius, long hash, int maxDistance,
+                       Set<Integer> seen, List<Match<K>> matches) {
+        collect(c, value, hash, maxDistance, seen, matches);
+        if (radius == 0) {
+            return;
+        }
+        for (int bit = fromBit; bit < CHUNK_BITS; bit++) {
+            probe(c, value ^ (1 << bit), bit + 1, radius - 1, hash, maxDistance, seen, matches);
+        }
+    }
+
+    private void collect(int c, int value, long hash, int maxDistance, Set<Integer> seen, List<Match<K>> matches) {
+        int[] bucket = buckets[c][value];
+        int size = bucketSizes[c][value];
+        for (int i = 0; i < size; i++) {
+            int slot = bucket[i];
+            if (!seen.add(slot)) {
+                continue;
+            }
+            int distance = Long.bitCount(hashes[slot] ^ hash);
+            if (distance <= maxDistance) {
+                matches.add(new Match<>(keys.get(slot), distance));
+            }
+        }
+    }
+
+    private void unlink(int slot) {
+        long hash = hashes[slot];
+        for (int c = 0; c < CHUNKS; c++) {
+            int value = chunk(hash, c);
+            int[] bucket = buckets[c][value];
+            int size = bucketSizes[c][value];
+            for (int i = 0; i < size; i++) {
+                if (bucket[i] == slot) {
+                    bucket[i] = bucket[size - 1];
+                    bucketSizes[c][value] = size - 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int chunk(long hash, int c) {
+        return (int) (hash >>> (c * CHUNK_BITS)) & 0xFFFF;
+    }
+}
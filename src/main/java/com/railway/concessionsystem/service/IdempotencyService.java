@@ -0,0 +1,102 @@
+package com.railway.concessionsystem.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for write endpoints.
+ * The first request with a key runs; concurrent duplicates wait on the same
+ * in-flight result, and later duplicates inside the window get the cached
+ * response back without doing the work (or writing the uploads) again.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    @Value("${idempotency.window-seconds:600}")
+    private long windowSeconds;
+
+    @Value("${idempotency.in-flight-timeout-seconds:60}")
+    private long inFlightTimeoutSeconds;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private static class Entry {
+        private final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+        private final long createdAt = System.currentTimeMillis();
+    }
+
+    public ResponseEntity<?> execute(String key, Supplier<ResponseEntity<?>> action) {
+        Entry mine = new Entry();
+
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, mine);
+            if (existing == null) {
+                break;
+            }
+            if (!isExpired(existing)) {
+                return replay(existing);
+            }
+            // Stale entry - take it over
+            if (entries.replace(key, existing, mine)) {
+                break;
+            }
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+
+        // Only successful results are remembered; a rejected submit can be fixed and retried
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            entries.remove(key, mine);
+        }
+        mine.result.complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Entry entry) {
+        try {
+            ResponseEntity<?> original = entry.result.get(inFlightTimeoutSeconds, TimeUnit.SECONDS);
+            return ResponseEntity.status(original.getStatusCode())
+                    .headers(original.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(original.getBody());
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(409)
+                    .body(Map.of("error", "A request with this idempotency key is still being processed"));
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", String.valueOf(cause.getMessage())));
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.result.isDone()
+                && System.currentTimeMillis() - entry.createdAt > TimeUnit.SECONDS.toMillis(windowSeconds);
+    }
+
+    /**
+     * Drop completed entries older than the replay window
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        entries.values().removeIf(this::isExpired);
+    }
+}
@@ -0,0 +1,299 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background normalization of stored document scans.
+ * Phone photos are decoded, rotated per their EXIF orientation, downsampled
+ * to the configured DPI (at A4 size) and re-encoded as baseline JPEG - the
+ * re-encode drops all EXIF/GPS metadata. The original file is only deleted
+ * after the new file has been read back and the application row has been
+ * switched to it.
+ */
+@Service
+public class ImageNormalizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageNormalizationService.class);
+
+    // A4 long edge in inches - scans are sized for reviewers, not for print
+    private static final double A4_LONG_EDGE_INCHES = 11.69;
+
+    static final String NORMALIZED_SUFFIX = "_n.jpg";
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Value("${documents.normalize.enabled:true}")
+    private boolean enabled;
+
+    @Value("${documents.normalize.max-dpi:150}")
+    private int maxDpi;
+
+    @Value("${documents.normalize.jpeg-quality:0.75}")
+    private float jpegQuality;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            r -> {
+                Thread t = new Thread(r, "doc-normalize");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queue both documents of an application for normalization
+     */
+    public void normalizeAsync(Long appId, String aadharPath, String casteCertPath) {
+        if (!enabled) {
+            return;
+        }
+        executor.execute(() -> {
+            normalizeDocument(appId, aadharPath, true);
+            normalizeDocument(appId, casteCertPath, false);
+        });
+    }
+
+    private void normalizeDocument(Long appId, String storedPath, boolean aadhar) {
+        if (storedPath == null || !isImage(storedPath) || storedPath.endsWith(NORMALIZED_SUFFIX)) {
+            return;
+        }
+
+        String newPath = stripExtension(storedPath) + NORMALIZED_SUFFIX;
+        Path original = Paths.get(storedPath);
+        Path normalized = Paths.get(newPath);
+
+        try {
+            long originalSize = Files.size(original);
+
+            // 1️⃣ Decode, orient, downsample, re-encode
+            BufferedImage image = ImageIO.read(original.toFile());
+            if (image == null) {
+                return;
+            }
+            image = applyOrientation(image, readExifOrientation(original));
+            image = downsample(toRgb(image), maxLongEdge());
+            writeJpeg(image, normalized);
+
+            // 2️⃣ Verify: readable, same geometry, actually smaller
+            BufferedImage check = ImageIO.read(normalized.toFile());
+            long normalizedSize = Files.size(normalized);
+            if (check == null || check.getWidth() != image.getWidth() || check.getHeight() != image.getHeight()
+                    || normalizedSize >= originalSize) {
+                Files.deleteIfExists(normalized);
+                return;
+            }
+
+            // 3️⃣ Switch the row only if it still points at the original
+            int updated = aadhar
+                    ? applicationRepository.replaceAadharCardPath(appId, storedPath, newPath)
+                    : applicationRepository.replaceCasteCertificatePath(appId, storedPath, newPath);
+
+            if (updated == 1) {
+                Files.deleteIfExists(original);
+                log.debug("Normalized {} -> {} ({} -> {} bytes)", storedPath, newPath, originalSize, normalizedSize);
+            } else {
+                Files.deleteIfExists(normalized);
+            }
+        } catch (Exception e) {
+            log.warn("Normalization failed for {}: {}", storedPath, e.getMessage());
+            try {
+                Files.deleteIfExists(normalized);
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+    }
+
+    private int maxLongEdge() {
+        return (int) Math.ceil(A4_LONG_EDGE_INCHES * maxDpi);
+    }
+
+    // ==========================
+    // Image operations
+    // ==========================
+    private BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(Color.WHITE); // transparent PNG areas become white paper
+        g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return rgb;
+    }
+
+    /**
+     * Progressive halving keeps text legible (single-step bilinear aliases badly)
+     */
+    private BufferedImage downsample(BufferedImage image, int maxEdge) {
+        int longEdge = Math.max(image.getWidth(), image.getHeight());
+        if (longEdge <= maxEdge) {
+            return image;
+        }
+        double scale = (double) maxEdge / longEdge;
+        int targetW = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetH = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(targetW, w / 2);
+            h = Math.max(targetH, h / 2);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = next;
+        } while (w != targetW || h != targetH);
+        return current;
+    }
+
+    /**
+     * EXIF orientation values 2-8 (1 = as stored)
+     */
+    private BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean swap = orientation >= 5;
+
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { t.translate(w, 0); t.scale(-1, 1); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.translate(0, h); t.scale(1, -1); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.scale(-1, 1); t.translate(-h, 0); t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            case 8 -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            default -> { }
+        }
+
+        BufferedImage rotated = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rotated.createGraphics();
+        g.drawImage(image, t, null);
+        g.dispose();
+        return rotated;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        // Files.newOutputStream truncates - an ImageOutputStream on a File would leave stale bytes
+        try (OutputStream os = Files.newOutputStream(target);
+             ImageOutputStream out = ImageIO.createImageOutputStream(os)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            // No metadata passed - the output carries no EXIF
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Reads the orientation tag (0x0112) from the JPEG APP1/Exif segment.
+     * Returns 1 when absent or unreadable.
+     */
+    private int readExifOrientation(Path path) {
+        if (!path.toString().toLowerCase(Locale.ROOT).matches(".*\\.jpe?g$")) {
+            return 1;
+        }
+        try (InputStream raw = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+
+            if (in.readUnsignedShort() != 0xFFD8) return 1;
+
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) return 1; // start of scan - no EXIF
+                int length = in.readUnsignedShort() - 2;
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = in.readNBytes(length);
+                if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+                    continue;
+                }
+                int tiff = 6;
+                boolean little = segment[tiff] == 'I';
+                int ifd = tiff + readInt(segment, tiff + 4, little);
+                int entries = readShort(segment, ifd, little);
+                for (int i = 0; i < entries; i++) {
+                    int entry = ifd + 2 + i * 12;
+                    if (entry + 12 > segment.length) break;
+                    if (readShort(segment, entry, little) == 0x0112) {
+                        return readShort(segment, entry + 8, little);
+                    }
+                }
+                return 1;
+            }
+        } catch (Exception e) {
+            return 1;
+        }
+    }
+
+    private static int readShort(byte[] b, int offset, boolean little) {
+        int b0 = b[offset] & 0xFF;
+        int b1 = b[offset + 1] & 0xFF;
+        return little ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] b, int offset, boolean little) {
+        int hi = readShort(b, little ? offset + 2 : offset, little);
+        int lo = readShort(b, little ? offset : offset + 2, little);
+        return (hi << 16) | lo;
+    }
+
+    private static boolean isImage(String path) {
+        return path.toLowerCase(Locale.ROOT).matches(".*\\.(jpe?g|png)$");
+    }
+
+    private static String stripExtension(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
+    }
+}
@@ -0,0 +1,402 @@
+package com.railway.concessionsystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable (tus-style) uploads for document scans. A client declares the
+ * total length up front, then PATCHes chunks at the offset the server reports;
+ * each chunk is streamed straight onto the end of a staging file through a
+ * FileChannel, optionally verified against an Upload-Checksum digest, and
+ * forced to disk before the new offset is acknowledged. A dropped connection
+ * only costs the chunk in flight - the client asks for the offset (HEAD) and
+ * carries on. Completed uploads are handed to createApplication as a
+ * file-backed MultipartFile, so validation and storage do not change.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    public static final Map<String, String> CHECKSUM_ALGORITHMS = Map.of(
+            "sha1", "SHA-1",
+            "sha256", "SHA-256",
+            "md5", "MD5");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO resumable_upload (id, student_id, file_name, upload_length, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String FIND_SQL =
+            "SELECT student_id, file_name, upload_length, expires_at FROM resumable_upload WHERE id = ?";
+
+    private static final String TOUCH_SQL =
+            "UPDATE resumable_upload SET expires_at = ? WHERE id = ?";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM resumable_upload WHERE id = ?";
+
+    private static final String EXPIRED_SQL =
+            "SELECT id FROM resumable_upload WHERE expires_at < ? LIMIT 500";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${uploads.resumable.dir:uploads-staging}")
+    private String stagingDir;
+
+    @Value("${uploads.resumable.expiry-hours:24}")
+    private long expiryHours;
+
+    @Value("${documents.validation.max-bytes:10485760}")
+    private long maxBytes;
+
+    // Uploads with a PATCH in progress - a second writer gets 423 instead of interleaving
+    private final Set<String> writing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Protocol failures with the HTTP status the controller should answer with
+     */
+    public static class UploadException extends RuntimeException {
+        private final int status;
+
+        public UploadException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * One upload: declared length, bytes received so far (the staging file size)
+     */
+    public static class Upload {
+        private final String id;
+        private final String studentId;
+        private final String fileName;
+        private final long length;
+        private final long offset;
+        private final LocalDateTime expiresAt;
+
+        Upload(String id, String studentId, String fileName, long length, long offset, LocalDateTime expiresAt) {
+            this.id = id;
+            this.studentId = studentId;
+            this.fileName = fileName;
+            this.length = length;
+            this.offset = offset;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getId() { return id; }
+        public String getStudentId() { return studentId; }
+        public String getFileName() { return fileName; }
+        public long getLength() { return length; }
+        public long getOffset() { return offset; }
+        public LocalDateTime getExpiresAt() { return expiresAt; }
+
+        public boolean isComplete() {
+            return offset == length;
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    // ==========================
+    // Create
+    // ==========================
+    public Upload create(String studentId, String fileName, long length) {
+        if (studentId == null || studentId.isBlank()) {
+            throw new UploadException(400, "studentId metadata is required");
+        }
+        if (length <= 0) {
+            throw new UploadException(400, "Upload-Length must be positive");
+        }
+        if (length > maxBytes) {
+            throw new UploadException(413, "Upload exceeds the maximum size of " + maxBytes + " bytes");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path path = stagingPath(id);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(expiryHours);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.createFile(path);
+            jdbcTemplate.update(INSERT_SQL, id, studentId, fileName, length,
+                    Timestamp.valueOf(now), Timestamp.valueOf(expiresAt));
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(path);
+            throw new UploadException(500, "Could not create upload: " + e.getMessage());
+        }
+        return new Upload(id, studentId, fileName, length, 0, expiresAt);
+    }
+
+    // ==========================
+    // Status (HEAD)
+    // ==========================
+    public Optional<Upload> find(String id) {
+        if (!isValidId(id)) {
+            return Optional.empty();
+        }
+        List<Upload> rows = jdbcTemplate.query(FIND_SQL, (rs, i) -> new Upload(id,
+                rs.getString(1), rs.getString(2), rs.getLong(3), 0,
+                rs.getTimestamp(4).toLocalDateTime()), id);
+        if (rows.isEmpty() || rows.get(0).getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        Upload row = rows.get(0);
+        try {
+            long offset = Files.size(stagingPath(id));
+            return Optional.of(new Upload(id, row.getStudentId(), row.getFileName(), row.getLength(), offset,
+                    row.getExpiresAt()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    // ==========================
+    // Append a chunk (PATCH)
+    // ==========================
+
+    /**
+     * Append body at offset. checksum is the raw Upload-Checksum header
+     * ("algorithm base64digest") or null. Returns the new offset.
+     */
+    public long append(String id, long offset, InputStream body, String checksum) {
+        MessageDigest digest = null;
+        byte[] expected = null;
+        if (checksum != null && !checksum.isBlank()) {
+            String[] parts = checksum.trim().split("\\s+", 2);
+            String algorithm = CHECKSUM_ALGORITHMS.get(parts[0].toLowerCase(Locale.ROOT));
+            if (algorithm == null || parts.length < 2) {
+                throw new UploadException(400, "Unsupported checksum algorithm: " + parts[0]);
+            }
+            try {
+                digest = MessageDigest.getInstance(algorithm);
+                expected = Base64.getDecoder().decode(parts[1]);
+            } catch (NoSuchAlgorithmException | IllegalArgumentException e) {
+                throw new UploadException(400, "Invalid Upload-Checksum header");
+            }
+        }
+
+        if (!writing.add(id)) {
+            throw new UploadException(423, "Another chunk for this upload is still being written");
+        }
+        try {
+            Upload upload = find(id).orElseThrow(() -> new UploadException(404, "Upload not found"));
+            if (offset != upload.getOffset()) {
+                throw new UploadException(409, "Upload-Offset " + offset + " does not match " + upload.getOffset());
+            }
+
+            long position = offset;
+            try (FileChannel channel = FileChannel.open(stagingPath(id), StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                try {
+                    int read;
+                    while ((read = body.read(buffer)) != -1) {
+                        if (position + read > upload.getLength()) {
+                            channel.truncate(offset);
+                            throw new UploadException(413, "Chunk runs past the declared Upload-Length");
+                        }
+                        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                        while (chunk.hasRemaining()) {
+                            position += channel.write(chunk, position);
+                        }
+                        if (digest != null) {
+                            digest.update(buffer, 0, read);
+                        }
+                    }
+                } catch (IOException e) {
+                    // Client went away mid-chunk. Keep what arrived unless it has to be verified first.
+                    if (digest != null) {
+                        channel.truncate(offset);
+                        position = offset;
+                    }
+                    channel.force(false);
+                    log.debug("Upload {} interrupted at offset {}: {}", id, position, e.getMessage());
+                    throw new UploadException(400, "Chunk interrupted at offset " + position);
+                }
+
+                if (digest != null && !MessageDigest.isEqual(digest.digest(), expected)) {
+                    channel.truncate(offset);
+                    throw new UploadException(460, "Checksum mismatch");
+                }
+                // Acknowledged bytes must survive a crash, or the next HEAD would report too much
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UploadException(500, "Could not write chunk: " + e.getMessage());
+            }
+
+            jdbcTemplate.update(TOUCH_SQL, Timestamp.valueOf(LocalDateTime.now().plusHours(expiryHours)), id);
+            return position;
+        } finally {
+            writing.remove(id);
+        }
+    }
+
+    // ==========================
+    // Hand-off to createApplication
+    // ==========================
+
+    /**
+     * A completed upload owned by studentId, as a MultipartFile read from the staging file
+     */
+    public MultipartFile openCompleted(String id, String studentId, String name) {
+        Upload upload = find(id)
+                .orElseThrow(() -> new UploadException(404, "Upload " + id + " not found or expired"));
+        if (!upload.getStudentId().equals(studentId)) {
+            throw new UploadException(403, "Upload " + id + " belongs to another student");
+        }
+        if (!upload.isComplete() || writing.contains(id)) {
+            throw new UploadException(409, "Upload " + id + " is not complete (" + upload.getOffset()
+                    + " of " + upload.getLength() + " bytes)");
+        }
+        return new StagedFile(name, upload.getFileName(), stagingPath(id), upload.getLength());
+    }
+
+    // ==========================
+    // Terminate (DELETE) / expiry
+    // ==========================
+    public boolean delete(String id) {
+        if (!isValidId(id)) {
+            return false;
+        }
+        boolean existed = jdbcTemplate.update(DELETE_SQL, id) > 0;
+        deleteQuietly(stagingPath(id));
+        return existed;
+    }
+
+    @Scheduled(fixedDelayString = "${uploads.resumable.cleanup-interval-ms:900000}")
+    public void deleteExpired() {
+        int deleted = 0;
+        int batchDeleted;
+        List<String> expired;
+        do {
+            batchDeleted = 0;
+            expired = jdbcTemplate.queryForList(EXPIRED_SQL, String.class, Timestamp.valueOf(LocalDateTime.now()));
+            for (String id : expired) {
+                if (!writing.contains(id) && delete(id)) {
+                    batchDeleted++;
+                }
+            }
+            deleted += batchDeleted;
+        } while (expired.size() == 500 && batchDeleted > 0);
+        if (deleted > 0) {
+            log.info("Deleted {} expired resumable uploads", deleted);
+        }
+    }
+
+    private Path stagingPath(String id) {
+        return Paths.get(stagingDir, id);
+    }
+
+    // Ids become file names - only accept our own UUIDs
+    private static boolean isValidId(String id) {
+        try {
+            return id != null && UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Picked up again by the next expiry sweep
+        }
+    }
+
+    /**
+     * Completed upload seen through the MultipartFile interface (content is re-read from disk on demand)
+     */
+    private static class StagedFile implements MultipartFile {
+        private final String name;
+        private final String originalFilename;
+        private final Path path;
+        private final long size;
+
+        StagedFile(String name, String originalFilename, Path path, long size) {
+            this.name = name;
+            this.originalFilename = originalFilename;
+            this.path = path;
+            this.size = size;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return null; // DocumentValidationService sniffs the content
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
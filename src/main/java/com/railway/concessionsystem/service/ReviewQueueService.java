@@ -0,0 +1,253 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ApplicationChangeEvent;
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Review work queue over pending applications. Each department is a queue
+ * ordered by application date; a reviewer claims the next few applications
+ * across their departments and holds them under a lease until they decide
+ * them, release them or the lease runs out. Claims lock candidate rows with
+ * FOR UPDATE SKIP LOCKED, so concurrent reviewers never wait on or receive
+ * the same application, and a reviewer's batch is capped at a fair share of
+ * the backlog so work spreads evenly over everyone currently reviewing.
+ */
+@Service
+public class ReviewQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewQueueService.class);
+
+    // Range scan of idx_application_department_status_date; leased rows are skipped by the
+    // filter, rows another claim is locking right now are skipped by SKIP LOCKED
+    private static final String CANDIDATES_SQL =
+            "SELECT app_id, application_date FROM application " +
+            "WHERE department = ? AND status = 'PENDING' " +
+            "AND (lease_expires_at IS NULL OR lease_expires_at <= ?) " +
+            "ORDER BY application_date, app_id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+            "UPDATE application SET assigned_to = ?, lease_expires_at = ? WHERE app_id IN (%s)";
+
+    // Backlog of the departments plus who is working on them right now
+    private static final String LOAD_SQL =
+            "SELECT COUNT(*), " +
+            "COUNT(DISTINCT CASE WHEN lease_expires_at > ? THEN assigned_to END), " +
+            "SUM(CASE WHEN lease_expires_at > ? AND assigned_to = ? THEN 1 ELSE 0 END) " +
+            "FROM application WHERE department IN (%s) AND status = 'PENDING'";
+
+    private static final String HELD_SQL =
+            "SELECT COUNT(*) FROM application WHERE assigned_to = ? AND status = 'PENDING' AND lease_expires_at > ?";
+
+    private static final String RENEW_SQL =
+            "UPDATE application SET lease_expires_at = ? " +
+            "WHERE assigned_to = ? AND status = 'PENDING' AND lease_expires_at > ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE application SET assigned_to = NULL, lease_expires_at = NULL " +
+            "WHERE app_id = ? AND assigned_to = ? AND status = 'PENDING'";
+
+    private static final String SWEEP_SQL =
+            "UPDATE application SET assigned_to = NULL, lease_expires_at = NULL " +
+            "WHERE lease_expires_at <= ? LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${review-queue.lease-minutes:15}")
+    private long leaseMinutes;
+
+    // Most applications one reviewer may hold at a time
+    @Value("${review-queue.max-active:20}")
+    private int maxActive;
+
+    @Value("${review-queue.sweep-batch-size:1000}")
+    private int sweepBatchSize;
+
+    private final Counter claimedCounter;
+    private final Counter expiredCounter;
+
+    public ReviewQueueService(MeterRegistry meterRegistry) {
+        this.claimedCounter = Counter.builder("review.queue.claimed")
+                .description("Pending applications leased to reviewers")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("review.queue.leases.expired")
+                .description("Leases that ran out before the application was decided")
+                .register(meterRegistry);
+    }
+
+    private static class Candidate {
+        private final long appId;
+        private final Timestamp applicationDate;
+
+        Candidate(long appId, Timestamp applicationDate) {
+            this.appId = appId;
+            this.applicationDate = applicationDate;
+        }
+    }
+
+    /**
+     * Lease the oldest pending applications of the given departments to staffId.
+     * Returns every application the reviewer now holds (old leases renewed).
+     * READ COMMITTED: InnoDB then unlocks scanned rows that fail the lease filter
+     * straight away instead of holding them until commit.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<Application> claim(Integer staffId, List<String> departments, int requested) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(leaseMinutes);
+
+        // 1️⃣ Fair share: backlog split over the reviewers active on these departments (caller included)
+        int want = fairShare(staffId, departments, requested, now);
+
+        // 2️⃣ Head of each department's queue, locked; merge to the globally oldest
+        List<Candidate> candidates = new ArrayList<>();
+        if (want > 0) {
+            Timestamp nowTs = Timestamp.valueOf(now);
+            for (String department : departments) {
+                candidates.addAll(jdbcTemplate.query(CANDIDATES_SQL,
+                        (rs, i) -> new Candidate(rs.getLong(1), rs.getTimestamp(2)),
+                        department, nowTs, want));
+            }
+            candidates.sort(Comparator
+                    .comparing((Candidate c) -> c.applicationDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparingLong(c -> c.appId));
+        }
+        List<Candidate> claimed = candidates.subList(0, Math.min(want, candidates.size()));
+
+        // 3️⃣ Lease them, and extend what the reviewer already holds so the batch expires together
+        jdbcTemplate.update(RENEW_SQL, Timestamp.valueOf(expiresAt), staffId, Timestamp.valueOf(now));
+        if (!claimed.isEmpty()) {
+            List<Object> args = new ArrayList<>();
+            args.add(staffId);
+            args.add(Timestamp.valueOf(expiresAt));
+            claimed.forEach(c -> args.add(c.appId));
+            jdbcTemplate.update(String.format(LEASE_SQL, placeholders(claimed.size())), args.toArray());
+            claimedCounter.increment(claimed.size());
+        }
+
+        // 4️⃣ Other dashboards in the department see the applications as taken
+        List<Application> held = getLeases(staffId);
+        for (Application application : held) {
+            if (claimed.stream().anyMatch(c -> c.appId == application.getAppId())) {
+                eventPublisher.publishEvent(ApplicationChangeEvent.updated(application));
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Applications currently leased to staffId, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<Application> getLeases(Integer staffId) {
+        return applicationRepository.findLeasedTo(staffId, LocalDateTime.now());
+    }
+
+    /**
+     * Push the reviewer's leases forward (called while they keep working)
+     */
+    @Transactional
+    public int renew(Integer staffId) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(RENEW_SQL,
+                Timestamp.valueOf(now.plusMinutes(leaseMinutes)), staffId, Timestamp.valueOf(now));
+    }
+
+    /**
+     * Put one application back at its place in the queue
+     */
+    @Transactional
+    public boolean release(Long appId, Integer staffId) {
+        if (jdbcTemplate.update(RELEASE_SQL, appId, staffId) == 0) {
+            return false;
+        }
+        applicationRepository.findById(appId)
+                .ifPresent(application -> eventPublisher.publishEvent(ApplicationChangeEvent.updated(application)));
+        return true;
+    }
+
+    /**
+     * True when another reviewer holds a live lease on the application
+     */
+    public boolean isLeasedToOther(Application application, Integer staffId) {
+        return application.getAssignedTo() != null
+                && application.getLeaseExpiresAt() != null
+                && application.getLeaseExpiresAt().isAfter(LocalDateTime.now())
+                && !application.getAssignedTo().equals(staffId);
+    }
+
+    /**
+     * Expired leases are already claimable; clearing them keeps "assigned to" honest on dashboards
+     */
+    @Scheduled(fixedDelayString = "${review-queue.sweep-interval-ms:60000}")
+    public void sweepExpiredLeases() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int cleared;
+        int total = 0;
+        do {
+            cleared = jdbcTemplate.update(SWEEP_SQL, now, sweepBatchSize);
+            total += cleared;
+        } while (cleared == sweepBatchSize);
+        if (total > 0) {
+            expiredCounter.increment(total);
+            log.info("Review queue: cleared {} expired leases", total);
+        }
+    }
+
+    /**
+     * How many more applications staffId may take now: no more than asked, than the
+     * per-reviewer cap, or than an even split of the departments' pending work
+     */
+    private int fairShare(Integer staffId, List<String> departments, int requested, LocalDateTime now) {
+        Timestamp nowTs = Timestamp.valueOf(now);
+        List<Object> args = new ArrayList<>(List.of(nowTs, nowTs, staffId));
+        args.addAll(departments);
+        long[] load = jdbcTemplate.queryForObject(
+                String.format(LOAD_SQL, placeholders(departments.size())),
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                args.toArray());
+
+        long backlog = load[0];
+        long reviewers = load[1] + (load[2] == 0 ? 1 : 0);
+        // Leases in other departments count against the cap too
+        Long heldAnywhere = jdbcTemplate.queryForObject(HELD_SQL, Long.class, staffId, nowTs);
+        long held = heldAnywhere != null ? heldAnywhere : 0;
+
+        long share = (backlog + reviewers - 1) / reviewers - load[2];
+        long want = Math.min(requested, Math.min(maxActive - held, share));
+        if (want <= 0 && held == 0 && backlog > 0) {
+            want = 1;   // someone with nothing in hand always gets the next application
+        }
+        return (int) Math.max(want, 0);
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
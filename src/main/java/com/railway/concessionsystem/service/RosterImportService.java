@@ -0,0 +1,494 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.RosterImportReport;
+import com.railway.concessionsystem.model.Student;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk upsert of the college roster into the student table.
+ * Rows are streamed from CSV / XLSX, validated in parallel and written with
+ * batched JDBC (the datasource URL enables rewriteBatchedStatements so each
+ * batch of new students becomes one multi-row INSERT). A row whose email
+ * already belongs to another student is reported as a row error.
+ */
+@Service
+public class RosterImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(RosterImportService.class);
+
+    // student has two unique keys (id and email), so ON DUPLICATE KEY UPDATE would also fire on
+    // an email match and overwrite that other student. Known ids are updated by id instead, new
+    // ids are plain INSERTs, and email ownership is checked up front per batch.
+    private static final String INSERT_SQL =
+            "INSERT INTO student (id, name, dob, email, category, department) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE student SET name = ?, dob = ?, email = ?, category = ?, department = ? WHERE id = ?";
+
+    private static final String EXISTING_IDS_SQL = "SELECT id FROM student WHERE id IN (%s)";
+
+    private static final String EMAIL_OWNERS_SQL = "SELECT id, email FROM student WHERE email IN (%s)";
+
+    // application.department mirrors student.department for join-free staff filters
+    private static final String SYNC_APPLICATION_DEPARTMENT_SQL =
+            "UPDATE application SET department = ? WHERE student_id = ? AND NOT (department <=> ?)";
+
+    // Days whose daily stats count applications that are about to change department
+    private static final String MOVED_APPLICATION_DAYS_SQL =
+            "SELECT student_id, department, DATE(application_date) FROM application " +
+            "WHERE student_id IN (%s) AND status <> 'DRAFT'";
+
+    private static final List<String> COLUMNS = List.of("id", "name", "dob", "email", "category", "department");
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy")
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ApplicationIndexService applicationIndexService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Value("${roster.import.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * One parsed roster line; student is null when validation failed
+     */
+    private static class RosterRow {
+        private final int rowNumber;
+        private final Map<String, String> values;
+        private Student student;
+        private String error;
+
+        RosterRow(int rowNumber, Map<String, String> values) {
+            this.rowNumber = rowNumber;
+            this.values = values;
+        }
+    }
+
+    public RosterImportReport importRoster(MultipartFile file) throws Exception {
+        long start = System.currentTimeMillis();
+
+        String filename = file.getOriginalFilename() != null
+                ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+
+        // 1️⃣ Stream rows out of the file
+        List<RosterRow> rows;
+        try (InputStream in = file.getInputStream()) {
+            rows = filename.endsWith(".xlsx") ? readXlsx(in) : readCsv(in);
+        }
+
+        // 2️⃣ Validate in parallel (pure CPU work, no shared state)
+        rows.parallelStream().forEach(this::validate);
+
+        // 3️⃣ Duplicate IDs / emails inside the file itself
+        Set<String> seenIds = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        for (RosterRow row : rows) {
+            if (row.student == null) continue;
+            if (!seenIds.add(row.student.getId())) {
+                fail(row, "Duplicate student ID in file");
+            } else if (!seenEmails.add(row.student.getEmail().toLowerCase(Locale.ROOT))) {
+                fail(row, "Duplicate email in file");
+            }
+        }
+
+        // 4️⃣ Batched upsert
+        RosterImportReport report = new RosterImportReport();
+        report.setTotalRows(rows.size());
+
+        List<RosterRow> valid = rows.stream().filter(r -> r.student != null).toList();
+        boolean departmentsMoved = false;
+        Set<LocalDate> movedDays = new HashSet<>();
+        for (int i = 0; i < valid.size(); i += batchSize) {
+            departmentsMoved |= writeBatch(valid.subList(i, Math.min(i + batchSize, valid.size())), movedDays);
+        }
+        if (departmentsMoved) {
+            applicationIndexService.rebuild();
+        }
+        // Aggregates are per department; the nightly repair only reaches back a few weeks
+        dailyStatsService.rebuildDays(movedDays);
+
+        // JDBC writes bypass Hibernate, so drop cached students and query results
+        if (!valid.isEmpty()) {
+            entityManagerFactory.getCache().evict(Student.class);
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        }
+
+        for (RosterRow row : rows) {
+            if (row.student != null) {
+                report.setImported(report.getImported() + 1);
+                searchService.indexStudent(row.student);
+            } else {
+                report.getErrors().add(new RosterImportReport.RowError(
+                        row.rowNumber, row.values.get("id"), row.error));
+            }
+        }
+        report.setFailed(report.getErrors().size());
+        report.setElapsedMs(System.currentTimeMillis() - start);
+
+        log.info("Roster import: {} rows, {} imported, {} failed in {} ms",
+                report.getTotalRows(), report.getImported(), report.getFailed(), report.getElapsedMs());
+        return report;
+    }
+
+    // ==========================
+    // Writing
+    // ==========================
+    /**
+     * Returns true when applications moved department (or the driver could not say);
+     * the submission days of moved applications are added to movedDays
+     */
+    private boolean writeBatch(List<RosterRow> batch, Set<LocalDate> movedDays) {
+        rejectForeignEmails(batch);
+
+        // ids are compared the way MySQL's collation does, case-insensitively
+        Set<String> existing = new HashSet<>();
+        existingIds(batch).forEach(id -> existing.add(id.toUpperCase(Locale.ROOT)));
+        List<RosterRow> updates = new ArrayList<>();
+        List<RosterRow> inserts = new ArrayList<>();
+        for (RosterRow row : batch) {
+            if (row.student == null) continue;
+            (existing.contains(row.student.getId()) ? updates : inserts).add(row);
+        }
+        write(UPDATE_SQL, updates, this::toUpdateParams);
+        write(INSERT_SQL, inserts, this::toInsertParams);
+
+        // Students moved to another department carry their applications along
+        List<Object[]> sync = batch.stream()
+                .filter(r -> r.student != null)
+                .map(r -> new Object[]{r.student.getDepartment(), r.student.getId(), r.student.getDepartment()})
+                .toList();
+        if (sync.isEmpty()) {
+            return false;
+        }
+        collectMovedDays(batch, movedDays);
+        return Arrays.stream(jdbcTemplate.batchUpdate(SYNC_APPLICATION_DEPARTMENT_SQL, sync)).anyMatch(n -> n != 0);
+    }
+
+    private void collectMovedDays(List<RosterRow> batch, Set<LocalDate> movedDays) {
+        Map<String, String> departments = new HashMap<>();
+        batch.stream().filter(r -> r.student != null)
+                .forEach(r -> departments.put(r.student.getId().toUpperCase(Locale.ROOT), r.student.getDepartment()));
+        jdbcTemplate.query(String.format(MOVED_APPLICATION_DAYS_SQL, placeholders(departments.size())),
+                rs -> {
+                    String department = departments.get(rs.getString(1).toUpperCase(Locale.ROOT));
+                    if (department != null && !department.equals(rs.getString(2)) && rs.getDate(3) != null) {
+                        movedDays.add(rs.getDate(3).toLocalDate());
+                    }
+                },
+                departments.keySet().toArray());
+    }
+
+    private void write(String sql, List<RosterRow> rows, Function<RosterRow, Object[]> params) {
+        if (rows.isEmpty()) return;
+        try {
+            jdbcTemplate.batchUpdate(sql, rows.stream().map(params).toList());
+        } catch (DataAccessException e) {
+            // A single bad row (e.g. an email claimed by a concurrent write since the
+            // ownership check) fails the whole batch - replay row by row so the error
+            // lands on the right line
+            for (RosterRow row : rows) {
+                try {
+                    jdbcTemplate.update(sql, params.apply(row));
+                } catch (DataAccessException rowError) {
+                    fail(row, "Database rejected row: " + rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    /**
+     * Fails rows whose email already belongs to a different student
+     */
+    private void rejectForeignEmails(List<RosterRow> batch) {
+        List<RosterRow> rows = batch.stream().filter(r -> r.student != null).toList();
+        if (rows.isEmpty()) return;
+
+        Map<String, String> owners = new HashMap<>();
+        jdbcTemplate.query(String.format(EMAIL_OWNERS_SQL, placeholders(rows.size())),
+                rs -> { owners.put(rs.getString(2).toLowerCase(Locale.ROOT), rs.getString(1)); },
+                rows.stream().map(r -> r.student.getEmail()).toArray());
+
+        for (RosterRow row : rows) {
+            String owner = owners.get(row.student.getEmail().toLowerCase(Locale.ROOT));
+            if (owner != null && !owner.equalsIgnoreCase(row.student.getId())) {
+                fail(row, "Email already belongs to student " + owner);
+            }
+        }
+    }
+
+    private List<String> existingIds(List<RosterRow> batch) {
+        List<Object> ids = batch.stream().filter(r -> r.student != null).map(r -> (Object) r.student.getId()).toList();
+        if (ids.isEmpty()) return List.of();
+        return jdbcTemplate.queryForList(String.format(EXISTING_IDS_SQL, placeholders(ids.size())),
+                String.class, ids.toArray());
+    }
+
+    private Object[] toInsertParams(RosterRow row) {
+        Student s = row.student;
+        return new Object[]{s.getId(), s.getName(), s.getDob(), s.getEmail(), s.getCategory(), s.getDepartment()};
+    }
+
+    private Object[] toUpdateParams(RosterRow row) {
+        Student s = row.student;
+        return new Object[]{s.getName(), s.getDob(), s.getEmail(), s.getCategory(), s.getDepartment(), s.getId()};
+    }
+
+    // ==========================
+    // Validation
+    // ==========================
+    private void validate(RosterRow row) {
+        String id = trimToNull(row.values.get("id"));
+        String name = trimToNull(row.values.get("name"));
+        String dob = trimToNull(row.values.get("dob"));
+        String email = trimToNull(row.values.get("email"));
+        String category = trimToNull(row.values.get("category"));
+        String department = trimToNull(row.values.get("department"));
+
+        if (id == null) { fail(row, "Student ID is required"); return; }
+        if (name == null) { fail(row, "Name is required"); return; }
+        if (email == null || !EMAIL.matcher(email).matches()) { fail(row, "Valid email is required"); return; }
+        if (department == null) { fail(row, "Department is required"); return; }
+
+        LocalDate parsedDob = parseDate(dob);
+        if (parsedDob == null) { fail(row, "Date of birth must be YYYY-MM-DD"); return; }
+
+        Student student = new Student();
+        student.setId(id.toUpperCase(Locale.ROOT));
+        student.setName(name);
+        student.setDob(parsedDob);
+        student.setEmail(email);
+        student.setCategory(category != null ? category.toUpperCase(Locale.ROOT) : null);
+        student.setDepartment(department.toUpperCase(Locale.ROOT));
+        row.student = student;
+    }
+
+    private void fail(RosterRow row, String message) {
+        row.student = null;
+        row.error = message;
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null) return null;
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // try next format
+            }
+        }
+        return null;
+    }
+
+    // ==========================
+    // CSV reading
+    // ==========================
+    private List<RosterRow> readCsv(InputStream in) throws Exception {
+        List<RosterRow> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new Exception("Roster file is empty");
+        }
+        List<String> header = normalizeHeader(parseCsvLine(headerLine.replace("\uFEFF", "")));
+
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            rows.add(new RosterRow(lineNumber, toValues(header, parseCsvLine(line))));
+        }
+        return rows;
+    }
+
+    private List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    // ==========================
+    // XLSX reading (SAX event model - the sheet is never held in memory)
+    // ==========================
+    private List<RosterRow> readXlsx(InputStream in) throws Exception {
+        List<RosterRow> rows = new ArrayList<>();
+
+        try (OPCPackage pkg = OPCPackage.open(in)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+
+            XSSFSheetXMLHandler.SheetContentsHandler handler = new XSSFSheetXMLHandler.SheetContentsHandler() {
+                private List<String> header;
+                private final Map<Integer, String> cells = new HashMap<>();
+
+                @Override
+                public void startRow(int rowNum) {
+                    cells.clear();
+                }
+
+                @Override
+                public void endRow(int rowNum) {
+                    int width = cells.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+                    List<String> line = new ArrayList<>();
+                    for (int i = 0; i < width; i++) {
+                        line.add(cells.getOrDefault(i, ""));
+                    }
+                    if (header == null) {
+                        header = normalizeHeader(line);
+                    } else if (line.stream().anyMatch(v -> !v.isBlank())) {
+                        rows.add(new RosterRow(rowNum + 1, toValues(header, line)));
+                    }
+                }
+
+                @Override
+                public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                    cells.put((int) new CellReference(cellReference).getCol(), formattedValue);
+                }
+            };
+
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(
+                    reader.getStylesTable(), null, strings, handler, new IsoDateFormatter(), false));
+
+            // Only the first sheet holds the roster
+            try (InputStream sheet = reader.getSheetsData().next()) {
+                parser.parse(new InputSource(sheet));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Renders date-formatted cells as ISO dates so they validate like CSV input
+     */
+    private static class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+    }
+
+    // ==========================
+    // Helpers
+    // ==========================
+    private List<String> normalizeHeader(List<String> header) {
+        List<String> normalized = header.stream()
+                .map(h -> h.trim().toLowerCase(Locale.ROOT).replace(" ", "").replace("_", ""))
+                .map(h -> h.equals("studentid") ? "id" : h)
+                .toList();
+        for (String required : COLUMNS) {
+            if (!required.equals("category") && !normalized.contains(required)) {
+                throw new IllegalArgumentException("Roster is missing column: " + required);
+            }
+        }
+        return normalized;
+    }
+
+    private Map<String, String> toValues(List<String> header, List<String> cells) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.size() && i < cells.size(); i++) {
+            values.put(header.get(i), cells.get(i));
+        }
+        return values;
+    }
+
+    private String trimToNull(String value) {
+        if (value == null || value.isBlank()) return null;
+        return value.trim();
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
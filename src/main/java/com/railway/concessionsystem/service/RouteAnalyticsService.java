@@ -0,0 +1,65 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.RouteCount;
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Route-level reporting over the interned station ids.
+ * The database groups (department, from, to) straight off
+ * idx_application_department_route; top-K per department is a bounded
+ * min-heap here, so only K rows per department are ever kept.
+ */
+@Service
+public class RouteAnalyticsService {
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private StationService stationService;
+
+    @Transactional(readOnly = true)
+    public Map<String, List<RouteCount>> topRoutes(List<String> departments, int k) {
+        List<Object[]> rows = (departments == null || departments.isEmpty())
+                ? applicationRepository.countRoutesByDepartment()
+                : applicationRepository.countRoutesByDepartmentIn(departments);
+
+        Comparator<RouteCount> byCount = Comparator.comparingLong(RouteCount::getApplications);
+        Map<String, PriorityQueue<RouteCount>> heaps = new TreeMap<>();
+
+        for (Object[] row : rows) {
+            String department = row[0] != null ? (String) row[0] : "UNKNOWN";
+            RouteCount route = new RouteCount((Integer) row[1], null, (Integer) row[2], null, (Long) row[3]);
+
+            PriorityQueue<RouteCount> heap = heaps.computeIfAbsent(department, d -> new PriorityQueue<>(byCount));
+            if (heap.size() < k) {
+                heap.add(route);
+            } else if (route.getApplications() > heap.peek().getApplications()) {
+                heap.poll();
+                heap.add(route);
+            }
+        }
+
+        Map<String, List<RouteCount>> result = new TreeMap<>();
+        heaps.forEach((department, heap) -> {
+            List<RouteCount> top = new ArrayList<>(heap);
+            top.sort(byCount.reversed());
+            top.forEach(r -> {
+                r.setFrom(stationService.nameOf(r.getFromStationId()));
+                r.setTo(stationService.nameOf(r.getToStationId()));
+            });
+            result.put(department, top);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,217 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ApplicationSearchHit;
+import com.railway.concessionsystem.dto.PagedResponse;
+import com.railway.concessionsystem.dto.StudentSearchHit;
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import com.railway.concessionsystem.model.Student;
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import com.railway.concessionsystem.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory search over students and applications.
+ * Replaces LIKE '%q%' scans: the index is built once at startup and kept
+ * current by the write paths (registration, profile update, application
+ * submit / status change).
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    private final TrigramIndex<String> studentIndex = new TrigramIndex<>();
+    private final TrigramIndex<Long> applicationIndex = new TrigramIndex<>();
+
+    // Display data for hits, so a search never touches the database
+    private final Map<String, StudentSearchHit> students = new ConcurrentHashMap<>();
+    private final Map<Long, ApplicationSearchHit> applications = new ConcurrentHashMap<>();
+
+    // studentId -> their application ids, so re-indexing a student never scans every application
+    private final Map<String, Set<Long>> applicationsByStudent = new ConcurrentHashMap<>();
+
+    // ==========================
+    // Startup build
+    // ==========================
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+
+        studentIndex.clear();
+        applicationIndex.clear();
+        students.clear();
+        applications.clear();
+        applicationsByStudent.clear();
+
+        studentRepository.findAll().forEach(this::indexStudent);
+
+        for (Object[] row : applicationRepository.findSearchRows()) {
+            indexApplication(
+                    (Long) row[0],
+                    (String) row[1],
+                    (String) row[2],
+                    (String) row[3],
+                    (String) row[4],
+                    (ApplicationStatus) row[5]
+            );
+        }
+
+        log.info("Search index built: {} students, {} applications in {} ms",
+                studentIndex.size(), applicationIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    // ==========================
+    // Incremental updates
+    // ==========================
+    public void indexStudent(Student student) {
+        if (student == null || student.getId() == null) {
+            return;
+        }
+        students.put(student.getId(), new StudentSearchHit(
+                student.getId(),
+                student.getName(),
+                student.getEmail(),
+                student.getDepartment(),
+                student.getCategory(),
+                0
+        ));
+
+        List<String> fields = new ArrayList<>(List.of(
+                nullToEmpty(student.getId()),
+                nullToEmpty(student.getName()),
+                nullToEmpty(student.getEmail()),
+                nullToEmpty(student.getDepartment())
+        ));
+        // Keep route terms already attached through applications
+        for (Long appId : applicationsByStudent.getOrDefault(student.getId(), Set.of())) {
+            ApplicationSearchHit app = applications.get(appId);
+            if (app != null) {
+                fields.add(nullToEmpty(app.getRouteFrom()));
+                fields.add(nullToEmpty(app.getRouteTo()));
+            }
+        }
+        studentIndex.put(student.getId(), fields);
+    }
+
+    /**
+     * Drops the student and the applications deleted along with them
+     */
+    public void removeStudent(String studentId) {
+        students.remove(studentId);
+        studentIndex.remove(studentId);
+        Set<Long> appIds = applicationsByStudent.remove(studentId);
+        if (appIds != null) {
+            for (Long appId : appIds) {
+                applications.remove(appId);
+                applicationIndex.remove(appId);
+            }
+        }
+    }
+
+    public void indexApplication(Application application) {
+        if (application == null || application.getAppId() == null) {
+            return;
+        }
+        indexApplication(
+                application.getAppId(),
+                application.getStudent() != null ? application.getStudent().getId() : null,
+                application.getStudentName(),
+                application.getRouteFrom(),
+                application.getRouteTo(),
+                application.getStatus()
+        );
+    }
+
+    /**
+     * Index from plain column values (batch jobs that write through JDBC)
+     */
+    public void indexApplication(Long appId, String studentId, String studentName,
+                                  String routeFrom, String routeTo, ApplicationStatus status) {
+        boolean isNew = !applications.containsKey(appId);
+
+        applications.put(appId, new ApplicationSearchHit(
+                appId,
+                studentId,
+                studentName,
+                routeFrom,
+                routeTo,
+                status != null ? status.name() : null,
+                0
+        ));
+        applicationIndex.put(appId, List.of(
+                String.valueOf(appId),
+                nullToEmpty(studentId),
+                nullToEmpty(studentName),
+                nullToEmpty(routeFrom),
+                nullToEmpty(routeTo)
+        ));
+
+        // Student documents are also searchable by the routes they travel
+        if (isNew && studentId != null) {
+            applicationsByStudent.computeIfAbsent(studentId, id -> ConcurrentHashMap.newKeySet()).add(appId);
+            studentIndex.append(studentId, List.of(nullToEmpty(routeFrom), nullToEmpty(routeTo)));
+        }
+    }
+
+    // ==========================
+    // Queries
+    // ==========================
+    public PagedResponse<StudentSearchHit> searchStudents(String query, int page, int size) {
+        List<StudentSearchHit> hits = new ArrayList<>();
+        for (TrigramIndex.Hit<String> hit : studentIndex.search(query)) {
+            StudentSearchHit student = students.get(hit.getKey());
+            if (student != null) {
+                hits.add(new StudentSearchHit(
+                        student.getId(),
+                        student.getName(),
+                        student.getEmail(),
+                        student.getDepartment(),
+                        student.getCategory(),
+                        hit.getScore()
+                ));
+            }
+        }
+        return PagedResponse.of(hits, page, size);
+    }
+
+    public PagedResponse<ApplicationSearchHit> searchApplications(String query, int page, int size) {
+        List<ApplicationSearchHit> hits = new ArrayList<>();
+        for (TrigramIndex.Hit<Long> hit : applicationIndex.search(query)) {
+            ApplicationSearchHit app = applications.get(hit.getKey());
+            if (app != null) {
+                hits.add(new ApplicationSearchHit(
+                        app.getAppId(),
+                        app.getStudentId(),
+                        app.getStudentName(),
+                        app.getRouteFrom(),
+                        app.getRouteTo(),
+                        app.getStatus(),
+                        hit.getScore()
+                ));
+            }
+        }
+        return PagedResponse.of(hits, page, size);
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
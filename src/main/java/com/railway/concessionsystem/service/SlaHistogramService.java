@@ -0,0 +1,358 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ApplicationChangeEvent;
+import com.railway.concessionsystem.dto.SlaPercentiles;
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DataFormatException;
+
+/**
+ * Turnaround SLA percentiles. Every approval / rejection records its
+ * application-to-decision time (minutes) into an HdrHistogram keyed by
+ * decision month, department, category and outcome. Recording is a couple of
+ * array increments, so the decision path pays nothing measurable. Each
+ * instance periodically merges the samples it recorded since its last flush
+ * into the shared sla_histogram rows (read, add, write back under a row lock,
+ * so instances never overwrite each other), and percentiles for any range of
+ * months merge the stored histograms with the samples not yet flushed. The
+ * same samples feed a Micrometer timer (concession.turnaround, rolling window)
+ * for dashboards and alerts.
+ */
+@Service
+public class SlaHistogramService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlaHistogramService.class);
+
+    // 1 minute .. 10 years at 2 significant digits (1% error)
+    private static final long HIGHEST_MINUTES = TimeUnit.DAYS.toMinutes(3650);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    // Locking read of the first row: on an empty table it locks the whole (empty) range,
+    // so two instances starting together cannot both seed
+    private static final String ANY_ROW_SQL = "SELECT period FROM sla_histogram LIMIT 1 FOR UPDATE";
+
+    private static final String LOCK_ROW_SQL =
+            "SELECT histogram FROM sla_histogram " +
+            "WHERE period = ? AND department = ? AND category = ? AND outcome = ? FOR UPDATE";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO sla_histogram (period, department, category, outcome, sample_count, histogram, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "sample_count = VALUES(sample_count), histogram = VALUES(histogram), updated_at = VALUES(updated_at)";
+
+    private static final String RANGE_SQL =
+            "SELECT period, department, category, outcome, histogram FROM sla_histogram " +
+            "WHERE period >= ? AND period <= ? AND outcome = ?";
+
+    // Seed for an empty table: approvals already on record (rejections carry no decision date)
+    private static final String HISTORY_SQL =
+            "SELECT approve_date, COALESCE(department, ''), COALESCE(category, ''), " +
+            "TIMESTAMPDIFF(MINUTE, application_date, approve_date) " +
+            "FROM application WHERE status IN ('APPROVED', 'EXPIRED') " +
+            "AND approve_date IS NOT NULL AND application_date IS NOT NULL";
+
+    // Rows are locked in one order by every instance, so concurrent flushes queue instead of deadlocking
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::period)
+            .thenComparing(Key::department).thenComparing(Key::category).thenComparing(Key::outcome);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    // Samples this instance recorded and has not yet merged into sla_histogram
+    private final Map<Key, Entry> histograms = new ConcurrentHashMap<>();
+    private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+
+    // Flush holds the write side from merge to subtract, so a query never counts a sample twice
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    public SlaHistogramService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    private record Key(String period, String department, String category, String outcome) { }
+
+    private static class Entry {
+        private final Recorder recorder = new Recorder(1, HIGHEST_MINUTES, SIGNIFICANT_DIGITS);
+        private final Histogram unflushed = newHistogram();
+
+        /**
+         * Everything recorded and not yet flushed
+         */
+        synchronized Histogram snapshot() {
+            unflushed.add(recorder.getIntervalHistogram());
+            return unflushed.copy();
+        }
+
+        synchronized void flushed(Histogram merged) {
+            unflushed.subtract(merged);
+        }
+    }
+
+    // ==========================
+    // Startup: seed an empty table from history
+    // ==========================
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long start = System.currentTimeMillis();
+        try {
+            Integer series = transactionTemplate.execute(status -> {
+                if (!jdbcTemplate.queryForList(ANY_ROW_SQL).isEmpty()) {
+                    return null;
+                }
+                // Approvals recorded live before now are part of the history read below
+                histograms.keySet().removeIf(key -> key.outcome().equals(ApplicationStatus.APPROVED.name()));
+
+                Map<Key, Histogram> history = new TreeMap<>(KEY_ORDER);
+                jdbcTemplate.query(HISTORY_SQL, rs -> {
+                    YearMonth month = YearMonth.from(rs.getTimestamp(1).toLocalDateTime());
+                    Key key = new Key(month.toString(), rs.getString(2), rs.getString(3),
+                            ApplicationStatus.APPROVED.name());
+                    history.computeIfAbsent(key, k -> newHistogram()).recordValue(clamp(rs.getLong(4)));
+                });
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                history.forEach((key, histogram) -> mergeInto(key, histogram, now));
+                return history.size();
+            });
+            if (series != null) {
+                log.info("SLA histograms seeded from history: {} series in {} ms",
+                        series, System.currentTimeMillis() - start);
+            }
+        } catch (RuntimeException e) {
+            // Typically another instance seeding at the same moment (deadlock victim)
+            log.warn("SLA history seed skipped: {}", e.getMessage());
+        }
+    }
+
+    // ==========================
+    // Recording
+    // ==========================
+
+    /**
+     * Committed approvals / rejections only (updateApplicationStatus publishes the change)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChange(ApplicationChangeEvent event) {
+        if (event.getType() != ApplicationChangeEvent.Type.STATUS_CHANGED
+                || event.getStatus() == event.getPreviousStatus()
+                || (event.getStatus() != ApplicationStatus.APPROVED && event.getStatus() != ApplicationStatus.REJECTED)) {
+            return;
+        }
+        Application app = event.getApplication();
+        if (app == null || app.getApplicationDate() == null) {
+            return;
+        }
+        LocalDateTime decidedAt = event.getStatus() == ApplicationStatus.APPROVED && app.getApproveDate() != null
+                ? app.getApproveDate()
+                : LocalDateTime.now();
+        long minutes = Duration.between(app.getApplicationDate(), decidedAt).toMinutes();
+        long value = clamp(minutes);
+        Key key = new Key(YearMonth.from(decidedAt).toString(),
+                Objects.requireNonNullElse(app.getDepartment(), ""),
+                Objects.requireNonNullElse(app.getCategory(), ""),
+                event.getStatus().name());
+        histograms.computeIfAbsent(key, k -> new Entry()).recorder.recordValue(value);
+        timer(key).record(Duration.ofMinutes(value));
+    }
+
+    private static long clamp(long minutes) {
+        return Math.min(Math.max(minutes, 0), HIGHEST_MINUTES);
+    }
+
+    private Timer timer(Key key) {
+        return timers.computeIfAbsent(List.of(key.department(), key.category(), key.outcome()), tags ->
+                Timer.builder("concession.turnaround")
+                        .description("Application date to approval / rejection")
+                        .tag("department", tags.get(0))
+                        .tag("category", tags.get(1))
+                        .tag("outcome", tags.get(2))
+                        .publishPercentiles(0.5, 0.9, 0.99)
+                        .distributionStatisticExpiry(Duration.ofDays(7))
+                        .distributionStatisticBufferLength(7)
+                        .register(meterRegistry));
+    }
+
+    // ==========================
+    // Persistence
+    // ==========================
+    @Scheduled(fixedDelayString = "${sla.flush-interval-ms:300000}")
+    public void flush() {
+        Map<Key, Histogram> pending = new TreeMap<>(KEY_ORDER);
+        histograms.forEach((key, entry) -> {
+            Histogram snapshot = entry.snapshot();
+            if (snapshot.getTotalCount() > 0) {
+                pending.put(key, snapshot);
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // On failure nothing is subtracted, so the samples go out with the next round
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        flushLock.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    pending.forEach((key, histogram) -> mergeInto(key, histogram, now)));
+            pending.forEach((key, histogram) -> {
+                Entry entry = histograms.get(key);
+                if (entry != null) {
+                    entry.flushed(histogram);
+                }
+            });
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+        log.debug("Flushed {} SLA histograms", pending.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Adds delta to the stored row of key; must run inside a transaction
+     */
+    private void mergeInto(Key key, Histogram delta, Timestamp now) {
+        Histogram merged = newHistogram();
+        for (byte[] stored : jdbcTemplate.query(LOCK_ROW_SQL, (rs, i) -> rs.getBytes(1),
+                key.period(), key.department(), key.category(), key.outcome())) {
+            Histogram decoded = decode(stored, key);
+            if (decoded != null) {
+                merged.add(decoded);
+            }
+        }
+        merged.add(delta);
+        jdbcTemplate.update(UPSERT_SQL, key.period(), key.department(), key.category(), key.outcome(),
+                merged.getTotalCount(), encode(merged), now);
+    }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[length];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static Histogram decode(byte[] bytes, Key key) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), 0);
+        } catch (DataFormatException e) {
+            log.warn("Skipping unreadable SLA histogram {} {} {}", key.period(), key.department(), key.category());
+            return null;
+        }
+    }
+
+    // ==========================
+    // Queries
+    // ==========================
+
+    /**
+     * Percentiles for decisions in [from, to]: overall, per department, and per department and category
+     */
+    public List<SlaPercentiles> percentiles(YearMonth from, YearMonth to, ApplicationStatus outcome,
+                                            List<String> departments, String category) {
+        Histogram total = newHistogram();
+        Map<String, Histogram> byDepartment = new TreeMap<>();
+        Map<List<String>, Histogram> byCategory = new TreeMap<>(
+                Comparator.<List<String>, String>comparing(k -> k.get(0)).thenComparing(k -> k.get(1)));
+
+        flushLock.readLock().lock();
+        try {
+            jdbcTemplate.query(RANGE_SQL, rs -> {
+                Key key = new Key(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4));
+                Histogram stored = decode(rs.getBytes(5), key);
+                if (stored != null && matches(key, departments, category)) {
+                    add(key, stored, total, byDepartment, byCategory);
+                }
+            }, from.toString(), to.toString(), outcome.name());
+
+            // Plus what this instance recorded since its last flush
+            histograms.forEach((key, entry) -> {
+                YearMonth month = YearMonth.parse(key.period());
+                if (month.isBefore(from) || month.isAfter(to)
+                        || !key.outcome().equals(outcome.name())
+                        || !matches(key, departments, category)) {
+                    return;
+                }
+                add(key, entry.snapshot(), total, byDepartment, byCategory);
+            });
+        } finally {
+            flushLock.readLock().unlock();
+        }
+
+        List<SlaPercentiles> result = new ArrayList<>();
+        result.add(summarize("ALL", "ALL", outcome, total));
+        byDepartment.forEach((department, histogram) -> result.add(summarize(department, "ALL", outcome, histogram)));
+        byCategory.forEach((key, histogram) -> result.add(summarize(key.get(0), key.get(1), outcome, histogram)));
+        return result;
+    }
+
+    private static boolean matches(Key key, List<String> departments, String category) {
+        return (departments == null || departments.isEmpty() || departments.contains(key.department()))
+                && (category == null || category.equals(key.category()));
+    }
+
+    private static void add(Key key, Histogram histogram, Histogram total, Map<String, Histogram> byDepartment,
+                            Map<List<String>, Histogram> byCategory) {
+        total.add(histogram);
+        byDepartment.computeIfAbsent(key.department(), k -> newHistogram()).add(histogram);
+        byCategory.computeIfAbsent(List.of(key.department(), key.category()), k -> newHistogram()).add(histogram);
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(1, HIGHEST_MINUTES, SIGNIFICANT_DIGITS);
+    }
+
+    private static SlaPercentiles summarize(String department, String category, ApplicationStatus outcome,
+                                            Histogram histogram) {
+        long count = histogram.getTotalCount();
+        return new SlaPercentiles(department, category, outcome.name(), count,
+                count == 0 ? 0 : hours(histogram.getValueAtPercentile(50)),
+                count == 0 ? 0 : hours(histogram.getValueAtPercentile(90)),
+                count == 0 ? 0 : hours(histogram.getValueAtPercentile(99)),
+                count == 0 ? 0 : hours(histogram.getMaxValue()));
+    }
+
+    private static double hours(long minutes) {
+        return Math.round(minutes / 6.0) / 10.0;
+    }
+}
@@ -0,0 +1,305 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.model.Station;
+import com.railway.concessionsystem.repository.StationAliasRepository;
+import com.railway.concessionsystem.repository.StationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Station dictionary. Free-text station names from the application form
+ * are normalized and resolved to a canonical station: exact alias first,
+ * then the closest known spelling within a small edit distance (which is
+ * then remembered as an alias), otherwise a new station is created.
+ * The dictionary is small, so it is held in memory. New stations and
+ * aliases are written in the caller's transaction (INSERT IGNORE, so a
+ * concurrent writer never fails it) and reach the in-memory dictionary
+ * only after that transaction commits.
+ */
+@Service
+public class StationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StationService.class);
+
+    // Words that never distinguish one station from another
+    private static final Set<String> NOISE = Set.of("station", "stn", "rly", "railway", "rs");
+    // Sides of the same station
+    private static final Set<String> SIDES = Set.of("e", "w", "east", "west");
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    @Autowired
+    private StationAliasRepository stationAliasRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stations.backfill.batch-size:500}")
+    private int backfillBatchSize;
+
+    private final Map<String, Integer> aliases = new ConcurrentHashMap<>();
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile boolean backfilled;
+    // Backfill position; only the scheduler thread touches these
+    private long backfillLastId;
+    private long backfillUpdated;
+
+    /**
+     * Resolve a typed station name to its canonical station
+     */
+    public Station resolve(String raw) {
+        String key = normalize(raw);
+        if (key.isEmpty()) {
+            throw new RuntimeException("Station name is required");
+        }
+        ensureLoaded();
+
+        Integer id = aliases.get(key);
+        if (id != null) {
+            return station(id);
+        }
+
+        synchronized (this) {
+            id = aliases.get(key);
+            if (id != null) {
+                return station(id);
+            }
+
+            // 1️⃣ Misspelling of a known station?
+            Integer match = closestMatch(key);
+            if (match != null) {
+                return station(rememberAlias(key, match));
+            }
+
+            // 2️⃣ Genuinely new station
+            Station created = createStation(displayName(raw));
+            Integer aliased = rememberAlias(key, created.getId());
+            return aliased.equals(created.getId()) ? created : station(aliased);
+        }
+    }
+
+    public String nameOf(Integer stationId) {
+        ensureLoaded();
+        return stationId != null ? names.get(stationId) : null;
+    }
+
+    /**
+     * Lower case, accents and punctuation removed, "Rd" -> "road", noise words
+     * and a trailing east/west side dropped, spaces removed
+     * (e.g. "Andheri (E) Stn" -> "andheri", "Khar Rd." -> "kharroad").
+     */
+    static String normalize(String raw) {
+        if (raw == null) {
+            return "";
+        }
+        String ascii = Normalizer.normalize(raw, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        String[] tokens = ascii.toLowerCase(Locale.ROOT).replace("&", " and ").split("[^a-z0-9]+");
+
+        List<String> kept = new ArrayList<>();
+        for (String token : tokens) {
+            if (token.isEmpty() || NOISE.contains(token)) continue;
+            kept.add(token.equals("rd") ? "road" : token);
+        }
+        if (kept.size() > 1 && SIDES.contains(kept.get(kept.size() - 1))) {
+            kept.remove(kept.size() - 1);
+        }
+        return String.join("", kept);
+    }
+
+    // ==========================
+    // Dictionary
+    // ==========================
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            stationRepository.findAll().forEach(s -> {
+                names.put(s.getId(), s.getName());
+                aliases.putIfAbsent(normalize(s.getName()), s.getId());
+            });
+            stationAliasRepository.findAll().forEach(a -> aliases.put(a.getAliasKey(), a.getStationId()));
+            loaded = true;
+            log.info("Station dictionary loaded: {} stations, {} spellings", names.size(), aliases.size());
+        }
+    }
+
+    private Station station(Integer id) {
+        // Stations added by another instance are picked up on first use
+        String name = names.computeIfAbsent(id, k -> stationRepository.findById(k).map(Station::getName).orElse(null));
+        Station station = new Station();
+        station.setId(id);
+        station.setName(name);
+        return station;
+    }
+
+    private Station createStation(String name) {
+        // Created concurrently (another instance) - the insert is ignored and that row is used
+        jdbcTemplate.update("INSERT IGNORE INTO station (name) VALUES (?)", name);
+        Integer id = jdbcTemplate.queryForObject("SELECT id FROM station WHERE name = ?", Integer.class, name);
+
+        Station station = new Station();
+        station.setId(id);
+        station.setName(name);
+        afterCommit(() -> {
+            names.put(id, name);
+            log.info("New station added to dictionary: {}", name);
+        });
+        return station;
+    }
+
+    private Integer rememberAlias(String key, Integer stationId) {
+        // Same spelling resolved elsewhere first - theirs wins
+        jdbcTemplate.update("INSERT IGNORE INTO station_alias (alias_key, station_id) VALUES (?, ?)", key, stationId);
+        Integer resolved = jdbcTemplate.queryForObject(
+                "SELECT station_id FROM station_alias WHERE alias_key = ?", Integer.class, key);
+        afterCommit(() -> aliases.put(key, resolved));
+        return resolved;
+    }
+
+    /**
+     * A rolled-back submission must not leave stations in memory that the database never kept
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Nearest known spelling, or null when nothing is close enough or two
+     * different stations are equally close. Short keys (codes like "cst")
+     * must match exactly.
+     */
+    private Integer closestMatch(String key) {
+        if (key.length() <= 4) {
+            return null;
+        }
+        int maxDistance = key.length() <= 7 ? 1 : 2;
+
+        int best = maxDistance + 1;
+        Integer bestStation = null;
+        boolean ambiguous = false;
+
+        for (Map.Entry<String, Integer> alias : aliases.entrySet()) {
+            String candidate = alias.getKey();
+            if (Math.abs(candidate.length() - key.length()) > maxDistance || candidate.length() <= 4) {
+                continue;
+            }
+            int distance = editDistance(key, candidate, best);
+            if (distance < best) {
+                best = distance;
+                bestStation = alias.getValue();
+                ambiguous = false;
+            } else if (distance == best && !alias.getValue().equals(bestStation)) {
+                ambiguous = true;
+            }
+        }
+        return ambiguous ? null : bestStation;
+    }
+
+    /**
+     * Levenshtein distance; stops early once every path exceeds limit
+     */
+    private static int editDistance(String a, String b, int limit) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) return limit + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static String displayName(String raw) {
+        StringBuilder name = new StringBuilder();
+        for (String word : raw.trim().split("\\s+")) {
+            if (name.length() > 0) name.append(' ');
+            boolean code = word.length() <= 4 && word.equals(word.toUpperCase(Locale.ROOT));
+            name.append(code ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1).toLowerCase(Locale.ROOT));
+        }
+        return name.length() > 100 ? name.substring(0, 100) : name.toString();
+    }
+
+    // ==========================
+    // Backfill of older applications
+    // ==========================
+
+    /**
+     * Intern routes of applications submitted before the dictionary existed, one
+     * keyset page (on app_id) per run in the background, so startup and request
+     * threads never wait for it. Route text is rewritten to the canonical names;
+     * the job stops polling once nothing is left.
+     */
+    @Scheduled(initialDelayString = "${stations.backfill.initial-delay-ms:60000}",
+               fixedDelayString = "${stations.backfill.interval-ms:5000}")
+    public void backfillApplications() {
+        if (backfilled) {
+            return;
+        }
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT app_id, route_from, route_to FROM application " +
+                "WHERE app_id > ? AND (route_from_station_id IS NULL OR route_to_station_id IS NULL) " +
+                "ORDER BY app_id LIMIT ?",
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3)},
+                backfillLastId, backfillBatchSize);
+        if (rows.isEmpty()) {
+            backfilled = true;
+            if (backfillUpdated > 0) {
+                log.info("Interned routes of {} existing applications", backfillUpdated);
+            }
+            return;
+        }
+
+        List<Object[]> params = new ArrayList<>();
+        for (Object[] row : rows) {
+            try {
+                Station from = resolve((String) row[1]);
+                Station to = resolve((String) row[2]);
+                params.add(new Object[]{from.getId(), from.getName(), to.getId(), to.getName(), row[0]});
+            } catch (RuntimeException e) {
+                log.warn("Route of application {} not interned: {}", row[0], e.getMessage());
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE application SET route_from_station_id = ?, route_from = ?, " +
+                "route_to_station_id = ?, route_to = ? WHERE app_id = ?", params);
+
+        backfillUpdated += params.size();
+        backfillLastId = (Long) rows.get(rows.size() - 1)[0];
+    }
+}
@@ -0,0 +1,247 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ReconcileReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Finds upload files that no application row references and reclaims them.
+ * Upload directories are walked in parallel, the referenced paths are
+ * streamed from MySQL in binary order, and the two sorted lists are merged
+ * in one pass. Files younger than the grace period are left alone so
+ * in-flight submissions and background normalization are never touched.
+ */
+@Service
+public class StorageReconcilerService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageReconcilerService.class);
+
+    public enum Mode { REPORT, QUARANTINE, DELETE }
+
+    // Paths are normalized in SQL exactly like normalize() (backslashes to '/', one leading
+    // "./" stripped) before sorting, so the stream arrives in the order the merge compares in.
+    // Binary collation so MySQL orders exactly like String.compareTo on ASCII paths.
+    // Archived documents live in packs, not as loose files, so they are skipped.
+    private static final String REFERENCED_PATHS_SQL =
+            "SELECT n.path FROM (" +
+            "  SELECT CASE WHEN LEFT(s.path, 2) = './' THEN SUBSTRING(s.path, 3) ELSE s.path END AS path FROM (" +
+            "    SELECT REPLACE(p.path, '\\\\', '/') AS path FROM (" +
+            "      SELECT aadhar_card AS path FROM application WHERE aadhar_card IS NOT NULL" +
+            "      UNION" +
+            "      SELECT caste_certificate FROM application WHERE caste_certificate IS NOT NULL" +
+            "    ) p WHERE NOT EXISTS (SELECT 1 FROM archived_document d WHERE d.original_path = p.path)" +
+            "  ) s" +
+            ") n ORDER BY CAST(n.path AS BINARY)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${storage.reconcile.directories:uploads/aadhar-cards,uploads/caste-certificates}")
+    private List<String> directories;
+
+    @Value("${storage.reconcile.quarantine-dir:uploads/.quarantine}")
+    private String quarantineDir;
+
+    @Value("${storage.reconcile.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${storage.reconcile.mode:QUARANTINE}")
+    private Mode mode;
+
+    private final Counter filesReclaimed;
+    private final Counter bytesReclaimed;
+    private final AtomicReference<ReconcileReport> lastReport = new AtomicReference<>();
+    private final ReentrantLock running = new ReentrantLock();
+
+    public StorageReconcilerService(MeterRegistry meterRegistry) {
+        this.filesReclaimed = Counter.builder("storage.reconcile.files.reclaimed")
+                .description("Orphaned upload files deleted or quarantined")
+                .register(meterRegistry);
+        this.bytesReclaimed = Counter.builder("storage.reconcile.bytes.reclaimed")
+                .description("Bytes freed from the upload directories")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static class StoredFile {
+        private final String path;
+        private final long size;
+        private final Instant modified;
+
+        StoredFile(String path, long size, Instant modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    @Scheduled(cron = "${storage.reconcile.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        reconcile();
+    }
+
+    public ReconcileReport getLastReport() {
+        return lastReport.get();
+    }
+
+    public ReconcileReport reconcile() {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("Storage reconciliation is already running");
+        }
+        try {
+            ReconcileReport report = new ReconcileReport();
+            report.setStartedAt(LocalDateTime.now());
+            report.setMode(mode.name());
+            long start = System.currentTimeMillis();
+
+            // 1️⃣ Walk every upload directory in parallel, then sort
+            List<StoredFile> files = directories.parallelStream()
+                    .flatMap(this::walk)
+                    .sorted(Comparator.comparing((StoredFile f) -> f.path))
+                    .toList();
+            report.setFilesScanned(files.size());
+
+            // 2️⃣ Stream referenced paths (sorted) and merge against the file list
+            Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+            List<StoredFile> orphans = new ArrayList<>();
+            int[] cursor = {0};
+            long[] referenced = {0};
+            String[] previous = {null};
+
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(REFERENCED_PATHS_SQL);
+                statement.setFetchSize(Integer.MIN_VALUE); // MySQL row streaming
+                return statement;
+            }, rs -> {
+                String path = normalize(rs.getString(1));
+
+                // "uploads\x" and "uploads/x" are the same file once normalized
+                if (path.equals(previous[0])) {
+                    return;
+                }
+                // An out-of-order reference would turn every file it skips into an orphan
+                if (previous[0] != null && path.compareTo(previous[0]) < 0) {
+                    throw new IllegalStateException("Referenced paths arrived out of order at " + path);
+                }
+                previous[0] = path;
+                referenced[0]++;
+
+                // Files sorting before the current reference are unreferenced
+                while (cursor[0] < files.size() && files.get(cursor[0]).path.compareTo(path) < 0) {
+                    orphans.add(files.get(cursor[0]++));
+                }
+                if (cursor[0] < files.size() && files.get(cursor[0]).path.equals(path)) {
+                    cursor[0]++;
+                } else {
+                    report.setMissingFiles(report.getMissingFiles() + 1);
+                }
+            });
+            while (cursor[0] < files.size()) {
+                orphans.add(files.get(cursor[0]++));
+            }
+            report.setReferencedPaths(referenced[0]);
+            report.setOrphansFound(orphans.size());
+
+            // 3️⃣ Reclaim orphans past the grace period
+            for (StoredFile orphan : orphans) {
+                if (orphan.modified.isAfter(cutoff)) {
+                    report.setOrphansInGracePeriod(report.getOrphansInGracePeriod() + 1);
+                    continue;
+                }
+                if (reclaim(orphan)) {
+                    report.setFilesReclaimed(report.getFilesReclaimed() + 1);
+                    report.setBytesReclaimed(report.getBytesReclaimed() + orphan.size);
+                    report.getReclaimed().add(orphan.path);
+                }
+            }
+
+            report.setElapsedMs(System.currentTimeMillis() - start);
+            lastReport.set(report);
+            log.info("Storage reconcile ({}): scanned {}, orphans {}, reclaimed {} files / {} bytes, missing {}",
+                    mode, report.getFilesScanned(), report.getOrphansFound(),
+                    report.getFilesReclaimed(), report.getBytesReclaimed(), report.getMissingFiles());
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private boolean reclaim(StoredFile orphan) {
+        if (mode == Mode.REPORT) {
+            return false;
+        }
+        try {
+            Path source = Paths.get(orphan.path);
+            if (mode == Mode.DELETE) {
+                Files.deleteIfExists(source);
+            } else {
+                Path target = Paths.get(quarantineDir).resolve(orphan.path.replace('/', '_'));
+                Files.createDirectories(target.getParent());
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            filesReclaimed.increment();
+            bytesReclaimed.increment(orphan.size);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not reclaim {}: {}", orphan.path, e.getMessage());
+            return false;
+        }
+    }
+
+    private Stream<StoredFile> walk(String directory) {
+        Path root = Paths.get(directory);
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+        List<StoredFile> found = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.forEach(path -> {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attrs.isRegularFile()) {
+                        found.add(new StoredFile(normalize(path.toString()), attrs.size(),
+                                attrs.lastModifiedTime().toInstant()));
+                    }
+                } catch (IOException e) {
+                    // File vanished mid-walk (e.g. normalization swap) - skip it
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return found.stream();
+    }
+
+    /**
+     * Rows store "uploads/dir/file" - Windows-era rows may use backslashes.
+     * REFERENCED_PATHS_SQL repeats this in SQL; keep the two in step.
+     */
+    private static String normalize(String path) {
+        String p = path.replace('\\', '/');
+        return p.startsWith("./") ? p.substring(2) : p;
+    }
+}
@@ -0,0 +1,76 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.PagedResponse;
+import com.railway.concessionsystem.dto.StudentSummary;
+import com.railway.concessionsystem.model.Application;
+import com.railway.concessionsystem.model.Student;
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import com.railway.concessionsystem.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+public class StudentService {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    /**
+     * Student with the applications collection already loaded (safe to serialize)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Student> getStudentWithApplications(String id) {
+        return studentRepository.findWithApplicationsById(id);
+    }
+
+    /**
+     * Delete a student; their applications go with them (cascade).
+     * Returns the deleted application IDs so the in-memory indexes can drop them, empty when there is no such student.
+     */
+    @Transactional
+    public Optional<List<Long>> deleteStudent(String id) {
+        return studentRepository.findById(id).map(student -> {
+            List<Long> appIds = student.getApplications() != null
+                    ? student.getApplications().stream().map(Application::getAppId).toList()
+                    : List.of();
+            studentRepository.delete(student);
+            return appIds;
+        });
+    }
+
+    /**
+     * Paged student directory built from flat projections.
+     * Application counts (optional) come from a single GROUP BY over the page's IDs.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<StudentSummary> getDirectory(int page, int size, String department, boolean withCounts) {
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("id"));
+
+        Page<StudentSummary> result = (department == null || department.isBlank())
+                ? studentRepository.findSummaries(pageRequest)
+                : studentRepository.findSummariesByDepartment(department, pageRequest);
+
+        List<StudentSummary> students = result.getContent();
+
+        if (withCounts && !students.isEmpty()) {
+            List<String> ids = students.stream().map(StudentSummary::getId).toList();
+            Map<String, Long> counts = applicationRepository.countByStudentIds(ids).stream()
+                    .collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+            students.forEach(s -> s.setApplicationCount(counts.getOrDefault(s.getId(), 0L)));
+        }
+
+        return new PagedResponse<>(students, result.getTotalElements(), page, size);
+    }
+}
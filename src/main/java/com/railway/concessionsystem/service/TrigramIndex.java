@@ -0,0 +1,238 @@
+package com.railway.concessionsystem.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram + token-prefix index.
+ * Each key owns a list of text fields; queries of 3+ characters are matched
+ * by trigram overlap, shorter queries by token prefix.
+ */
+class TrigramIndex<K> {
+
+    // Minimum share of query trigrams a document must contain to be returned
+    private static final double MIN_TRIGRAM_SCORE = 0.5;
+
+    private final Map<String, Set<K>> postings = new HashMap<>();
+    private final NavigableMap<String, Set<K>> tokens = new TreeMap<>();
+    private final Map<K, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    static class Hit<K> {
+        private final K key;
+        private final double score;
+
+        Hit(K key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        K getKey() {
+            return key;
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+
+    private static class Document {
+        private final List<String> fields = new ArrayList<>();
+        private final Set<String> grams = new HashSet<>();
+        private final Set<String> tokens = new HashSet<>();
+    }
+
+    /**
+     * Replace all fields indexed for the key
+     */
+    void put(K key, List<String> fields) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(key);
+            Document document = new Document();
+            documents.put(key, document);
+            fields.forEach(field -> addField(key, document, field));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add extra fields to an already indexed key (no-op for unknown keys)
+     */
+    void append(K key, List<String> fields) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.get(key);
+            if (document == null) {
+                return;
+            }
+            fields.forEach(field -> addField(key, document, field));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            tokens.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked hits, best first. Exact and prefix field matches rank above
+     * plain trigram overlap.
+     */
+    List<Hit<K>> search(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<K, Double> scores = new HashMap<>();
+
+            if (normalized.length() < 3) {
+                String upper = normalized + Character.MAX_VALUE;
+                tokens.subMap(normalized, true, upper, false).values()
+                        .forEach(keys -> keys.forEach(key -> scores.put(key, 1.0)));
+            } else {
+                Set<String> queryGrams = trigrams(normalized);
+                Map<K, Integer> matches = new HashMap<>();
+                for (String gram : queryGrams) {
+                    Set<K> keys = postings.get(gram);
+                    if (keys != null) {
+                        keys.forEach(key -> matches.merge(key, 1, Integer::sum));
+                    }
+                }
+                matches.forEach((key, count) -> {
+                    double score = (double) count / queryGrams.size();
+                    if (score >= MIN_TRIGRAM_SCORE) {
+                        scores.put(key, score);
+                    }
+                });
+            }
+
+            List<Hit<K>> hits = new ArrayList<>(scores.size());
+            scores.forEach((key, score) -> hits.add(
+                    new Hit<>(key, score + fieldBoost(documents.get(key), normalized))));
+            hits.sort(Comparator.comparingDouble((Hit<K> hit) -> hit.score).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addField(K key, Document document, String field) {
+        String normalized = normalize(field);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        document.fields.add(normalized);
+
+        for (String gram : trigrams(normalized)) {
+            if (document.grams.add(gram)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+            }
+        }
+        for (String token : normalized.split(" ")) {
+            if (document.tokens.add(token)) {
+                tokens.computeIfAbsent(token, t -> new HashSet<>()).add(key);
+            }
+        }
+    }
+
+    private void removeInternal(K key) {
+        Document document = documents.remove(key);
+        if (document == null) {
+            return;
+        }
+        document.grams.forEach(gram -> detach(postings, gram, key));
+        document.tokens.forEach(token -> detach(tokens, token, key));
+    }
+
+    private void detach(Map<String, Set<K>> map, String term, K key) {
+        Set<K> keys = map.get(term);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                map.remove(term);
+            }
+        }
+    }
+
+    private double fieldBoost(Document document, String query) {
+        if (document == null) {
+            return 0;
+        }
+        double boost = 0;
+        for (String field : document.fields) {
+            if (field.equals(query)) {
+                return 2.0;
+            }
+            if (field.startsWith(query)) {
+                boost = Math.max(boost, 1.0);
+            } else if (field.contains(query)) {
+                boost = Math.max(boost, 0.5);
+            }
+        }
+        return boost;
+    }
+
+    /**
+     * Trigrams of every token, padded so that word starts score higher
+     */
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (String token : text.split(" ")) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9@.]+", " ")
+                .trim();
+    }
+}
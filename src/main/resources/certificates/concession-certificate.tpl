@@ -0,0 +1,45 @@
+# Railway student concession certificate, A4 portrait (595 x 842 pt, origin bottom-left).
+# Compiled once at startup by CertificateTemplate. One drawing op per line:
+#   TEXT  x y font size text      fonts: F1 = Helvetica, F2 = Helvetica-Bold; {field} is filled per application
+#   LINE  x1 y1 x2 y2 width
+#   RECT  x y w h width
+#   IMAGE x y w h name            skipped when the image is not configured
+RECT  40 40 515 762 1.5
+IMAGE 467 712 72 72 logo
+TEXT  60 770 F2 18 Indian Railways - Suburban Section
+TEXT  60 748 F2 14 Student Season Ticket Concession Certificate
+LINE  60 735 535 735 0.8
+TEXT  60 705 F1 11 Certificate No:
+TEXT  200 705 F2 11 {certificateNo}
+TEXT  360 705 F1 11 Application:
+TEXT  440 705 F1 11 {appId}
+TEXT  60 675 F1 11 Student name:
+TEXT  200 675 F2 11 {studentName}
+TEXT  60 655 F1 11 Student ID:
+TEXT  200 655 F1 11 {studentId}
+TEXT  60 635 F1 11 Date of birth:
+TEXT  200 635 F1 11 {studentDob}
+TEXT  60 615 F1 11 Class / department:
+TEXT  200 615 F1 11 {department}
+TEXT  60 595 F1 11 Category:
+TEXT  200 595 F1 11 {category}
+LINE  60 575 535 575 0.5
+TEXT  60 550 F1 11 From station:
+TEXT  200 550 F2 12 {routeFrom}
+TEXT  60 528 F1 11 To station:
+TEXT  200 528 F2 12 {routeTo}
+TEXT  60 506 F1 11 Previous certificate:
+TEXT  200 506 F1 11 {prevCertificateNo}
+LINE  60 486 535 486 0.5
+TEXT  60 460 F1 11 Approved on:
+TEXT  200 460 F1 11 {approveDate}
+TEXT  60 440 F1 11 Valid until:
+TEXT  200 440 F2 11 {validUntil}
+TEXT  60 420 F1 11 Issued on:
+TEXT  200 420 F1 11 {issueDate}
+TEXT  60 330 F1 9 Certified that the above student is a bona fide student of this institution and is
+TEXT  60 318 F1 9 eligible for the railway season ticket concession between the stations shown.
+LINE  360 200 535 200 0.5
+TEXT  360 186 F1 10 Authorised signatory
+TEXT  360 174 F1 9 {issuedBy}
+TEXT  60 60 F1 8 Generated by the Railway Concession System. Present with college ID card at the booking office.
@@ -0,0 +1,13 @@
+-- Turnaround (application_date -> decision) per decision month, department,
+-- category and outcome, as a compressed HdrHistogram (SlaHistogramService).
+-- Months merge losslessly, so percentiles over any range need no raw rows.
+CREATE TABLE sla_histogram (
+    period       CHAR(7)      NOT NULL,   -- yyyy-MM of the decision
+    department   VARCHAR(255) NOT NULL,
+    category     VARCHAR(255) NOT NULL,
+    outcome      VARCHAR(16)  NOT NULL,   -- APPROVED / REJECTED
+    sample_count BIGINT       NOT NULL,
+    histogram    MEDIUMBLOB   NOT NULL,
+    updated_at   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (period, department, category, outcome)
+);
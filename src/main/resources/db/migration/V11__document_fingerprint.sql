@@ -0,0 +1,14 @@
+-- One fingerprint per stored document (DuplicateDetectionService).
+-- DHASH: 64-bit difference hash of a JPEG / PNG scan, compared by Hamming distance.
+-- SHA256: first 64 bits of a PDF's content hash, compared exactly (PDFs are not rendered).
+-- student_id is copied so the in-memory index loads without a join.
+CREATE TABLE document_fingerprint (
+    app_id     BIGINT       NOT NULL,
+    document   VARCHAR(16)  NOT NULL,   -- AADHAR / CASTE
+    student_id VARCHAR(255) NOT NULL,
+    kind       VARCHAR(8)   NOT NULL,
+    hash       BIGINT       NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (app_id, document),
+    CONSTRAINT fk_document_fingerprint_application FOREIGN KEY (app_id) REFERENCES application (app_id)
+);
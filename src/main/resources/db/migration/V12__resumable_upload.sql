@@ -0,0 +1,12 @@
+-- Resumable (tus-style) uploads in progress (ResumableUploadService).
+-- Bytes are appended to a staging file named after the id; the current offset
+-- is that file's size, so only the declared length and ownership live here.
+CREATE TABLE resumable_upload (
+    id            CHAR(36)     NOT NULL PRIMARY KEY,
+    student_id    VARCHAR(255) NOT NULL,
+    file_name     VARCHAR(255),
+    upload_length BIGINT       NOT NULL,
+    created_at    DATETIME(6)  NOT NULL,
+    expires_at    DATETIME(6)  NOT NULL,
+    INDEX idx_resumable_upload_expires (expires_at)
+);
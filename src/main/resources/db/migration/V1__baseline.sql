@@ -0,0 +1,45 @@
+-- Baseline schema as it existed before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate)
+-- so only V2+ run against them; fresh databases are created from here.
+
+CREATE TABLE student (
+    id         VARCHAR(255) NOT NULL,
+    name       VARCHAR(255) NOT NULL,
+    dob        DATE         NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255),
+    category   VARCHAR(255),
+    department VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_student_email UNIQUE (email)
+);
+
+CREATE TABLE staff (
+    id         INT          NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    department VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_staff_email UNIQUE (email)
+);
+
+CREATE TABLE application (
+    app_id                 BIGINT       NOT NULL AUTO_INCREMENT,
+    student_id             VARCHAR(255) NOT NULL,
+    student_name           VARCHAR(255) NOT NULL,
+    student_dob            DATE         NOT NULL,
+    category               VARCHAR(255),
+    caste_certificate      VARCHAR(255),
+    route_from             VARCHAR(255) NOT NULL,
+    route_to               VARCHAR(255) NOT NULL,
+    prev_certificate_no    VARCHAR(255),
+    current_certificate_no VARCHAR(255),
+    aadhar_card            VARCHAR(255),
+    status                 ENUM('PENDING', 'APPROVED', 'REJECTED'),
+    application_date       DATETIME(6),
+    approve_date           DATETIME(6),
+    issue_date             DATETIME(6),
+    PRIMARY KEY (app_id),
+    CONSTRAINT fk_application_student FOREIGN KEY (student_id) REFERENCES student (id)
+);
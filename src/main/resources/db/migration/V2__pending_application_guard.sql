@@ -0,0 +1,8 @@
+-- At most one PENDING application per student.
+-- MySQL has no partial unique index, so a stored generated column that is
+-- only non-NULL while the row is PENDING carries the UNIQUE constraint
+-- (NULLs never collide). The column is not mapped by JPA.
+ALTER TABLE application
+    ADD COLUMN pending_student_id VARCHAR(255)
+        GENERATED ALWAYS AS (CASE WHEN status = 'PENDING' THEN student_id END) STORED,
+    ADD CONSTRAINT uk_application_one_pending_per_student UNIQUE (pending_student_id);
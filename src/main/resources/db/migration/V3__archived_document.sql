@@ -0,0 +1,12 @@
+-- Offset index for documents packed into uploads/archive/<year>/<dept>-*.zip
+CREATE TABLE archived_document (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    original_path VARCHAR(255) NOT NULL,
+    pack_path     VARCHAR(255) NOT NULL,
+    data_offset   BIGINT       NOT NULL,
+    length        BIGINT       NOT NULL,
+    crc32         BIGINT       NOT NULL,
+    archived_at   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_archived_document_original_path UNIQUE (original_path)
+);
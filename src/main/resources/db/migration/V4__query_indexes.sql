@@ -0,0 +1,16 @@
+-- Indexes matched to the ApplicationRepository / StudentRepository queries.
+-- RepositoryQueryPlanTests runs EXPLAIN on each of these queries and fails on a full scan.
+
+-- findByStudentId, existsByStudent_IdAndStatus, countByStudentIds
+-- (leading student_id also serves the fk_application_student foreign key)
+CREATE INDEX idx_application_student_status ON application (student_id, status);
+
+-- findByStatus, countByStatus, findArchiveCandidates (status + date range)
+CREATE INDEX idx_application_status_date ON application (status, application_date);
+
+-- findByCurrentCertificateNoBetween / GreaterThanEqual / LessThanEqual
+CREATE INDEX idx_application_certificate_no ON application (current_certificate_no);
+
+-- findByStudent_Department(In), findSummariesByDepartment: filter student first, then
+-- join application through idx_application_student_status
+CREATE INDEX idx_student_department ON student (department);
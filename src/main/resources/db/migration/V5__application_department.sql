@@ -0,0 +1,13 @@
+-- Copy of student.department on each application so staff queues filter
+-- application alone instead of joining student.
+-- Kept in sync on create (ApplicationService) and on roster re-import
+-- (RosterImportService), the only places a student's department changes.
+ALTER TABLE application ADD COLUMN department VARCHAR(255);
+
+UPDATE application a
+    JOIN student s ON s.id = a.student_id
+SET a.department = s.department;
+
+-- findByDepartment(In), staff queue listings / reports: department range, then
+-- status + date straight from the index
+CREATE INDEX idx_application_department_status_date ON application (department, status, application_date);
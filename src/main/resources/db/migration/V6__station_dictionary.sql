@@ -0,0 +1,75 @@
+-- Station dictionary: one row per canonical station, plus every spelling
+-- seen for it (alias_key is the normalized form, see StationService.normalize).
+CREATE TABLE station (
+    id   INT          NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_station_name UNIQUE (name)
+);
+
+CREATE TABLE station_alias (
+    alias_key  VARCHAR(100) NOT NULL,
+    station_id INT          NOT NULL,
+    PRIMARY KEY (alias_key),
+    CONSTRAINT fk_station_alias_station FOREIGN KEY (station_id) REFERENCES station (id)
+);
+
+-- Interned route on each application (route_from / route_to keep the canonical text)
+ALTER TABLE application
+    ADD COLUMN route_from_station_id INT,
+    ADD COLUMN route_to_station_id   INT,
+    ADD CONSTRAINT fk_application_route_from FOREIGN KEY (route_from_station_id) REFERENCES station (id),
+    ADD CONSTRAINT fk_application_route_to   FOREIGN KEY (route_to_station_id)   REFERENCES station (id);
+
+-- Top routes per department: GROUP BY is answered from this index alone
+CREATE INDEX idx_application_department_route
+    ON application (department, route_from_station_id, route_to_station_id);
+
+-- Mumbai suburban stations (Western, Central, Harbour)
+INSERT INTO station (name) VALUES
+    ('Churchgate'), ('Marine Lines'), ('Charni Road'), ('Grant Road'), ('Mumbai Central'),
+    ('Mahalaxmi'), ('Lower Parel'), ('Prabhadevi'), ('Dadar'), ('Matunga Road'), ('Mahim'),
+    ('Bandra'), ('Khar Road'), ('Santacruz'), ('Vile Parle'), ('Andheri'), ('Jogeshwari'),
+    ('Ram Mandir'), ('Goregaon'), ('Malad'), ('Kandivali'), ('Borivali'), ('Dahisar'),
+    ('Mira Road'), ('Bhayandar'), ('Naigaon'), ('Vasai Road'), ('Nalasopara'), ('Virar'),
+    ('CSMT'), ('Masjid'), ('Sandhurst Road'), ('Byculla'), ('Chinchpokli'), ('Currey Road'),
+    ('Parel'), ('Matunga'), ('Sion'), ('Kurla'), ('Vidyavihar'), ('Ghatkopar'), ('Vikhroli'),
+    ('Kanjurmarg'), ('Bhandup'), ('Nahur'), ('Mulund'), ('Thane'), ('Kalwa'), ('Mumbra'),
+    ('Diva'), ('Dombivli'), ('Thakurli'), ('Kalyan'), ('Ulhasnagar'), ('Ambernath'), ('Badlapur'),
+    ('Dockyard Road'), ('Reay Road'), ('Cotton Green'), ('Sewri'), ('Vadala Road'), ('GTB Nagar'),
+    ('Chunabhatti'), ('Tilak Nagar'), ('Chembur'), ('Govandi'), ('Mankhurd'), ('Vashi'),
+    ('Sanpada'), ('Juinagar'), ('Nerul'), ('Seawoods'), ('Belapur CBD'), ('Kharghar'),
+    ('Mansarovar'), ('Khandeshwar'), ('Panvel'), ('Airoli'), ('Ghansoli'), ('Kopar Khairane'),
+    ('Turbhe');
+
+-- Canonical spellings (normalized: lower case, letters and digits only)
+INSERT INTO station_alias (alias_key, station_id)
+SELECT LOWER(REGEXP_REPLACE(name, '[^A-Za-z0-9]', '')), id FROM station;
+
+-- Common alternate names
+INSERT INTO station_alias (alias_key, station_id)
+SELECT a.alias_key, s.id
+FROM (
+    SELECT 'cst' AS alias_key, 'CSMT' AS name UNION ALL
+    SELECT 'vt', 'CSMT' UNION ALL
+    SELECT 'mumbaicst', 'CSMT' UNION ALL
+    SELECT 'chhatrapatishivajimaharajterminus', 'CSMT' UNION ALL
+    SELECT 'chhatrapatishivajiterminus', 'CSMT' UNION ALL
+    SELECT 'victoriaterminus', 'CSMT' UNION ALL
+    SELECT 'bombaycentral', 'Mumbai Central' UNION ALL
+    SELECT 'vasai', 'Vasai Road' UNION ALL
+    SELECT 'cbdbelapur', 'Belapur CBD' UNION ALL
+    SELECT 'belapur', 'Belapur CBD' UNION ALL
+    SELECT 'wadala', 'Vadala Road' UNION ALL
+    SELECT 'wadalaroad', 'Vadala Road' UNION ALL
+    SELECT 'kanjurmarg', 'Kanjurmarg' UNION ALL
+    SELECT 'kanjurmarq', 'Kanjurmarg' UNION ALL
+    SELECT 'bhayander', 'Bhayandar' UNION ALL
+    SELECT 'santacruze', 'Santacruz' UNION ALL
+    SELECT 'dombivali', 'Dombivli' UNION ALL
+    SELECT 'kandivli', 'Kandivali' UNION ALL
+    SELECT 'borivli', 'Borivali' UNION ALL
+    SELECT 'ghatkoper', 'Ghatkopar'
+) a
+JOIN station s ON s.name = a.name
+WHERE NOT EXISTS (SELECT 1 FROM station_alias x WHERE x.alias_key = a.alias_key);
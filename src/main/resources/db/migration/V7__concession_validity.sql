@@ -0,0 +1,8 @@
+-- Concession validity and renewal.
+-- EXPIRED: an approved concession past valid_until (set by ConcessionExpiryService).
+-- DRAFT: renewal pre-created for the student when the previous concession expires,
+-- linked through prev_certificate_no. Neither is PENDING, so the one-pending guard
+-- (pending_student_id) is unaffected.
+ALTER TABLE application
+    MODIFY COLUMN status ENUM('PENDING', 'APPROVED', 'REJECTED', 'EXPIRED', 'DRAFT'),
+    ADD COLUMN valid_until DATETIME(6);
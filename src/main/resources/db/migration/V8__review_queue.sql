@@ -0,0 +1,11 @@
+-- Review work queue: a pending application is leased to one reviewer at a time.
+-- Claims read idx_application_department_status_date in application_date order
+-- with SELECT ... FOR UPDATE SKIP LOCKED (see ReviewQueueService); an expired
+-- lease simply makes the row claimable again.
+ALTER TABLE application
+    ADD COLUMN assigned_to      INT,
+    ADD COLUMN lease_expires_at DATETIME(6),
+    ADD CONSTRAINT fk_application_assigned_to FOREIGN KEY (assigned_to) REFERENCES staff (id);
+
+-- The lease sweeper only touches the few leased rows (assigned_to is indexed by its FK)
+CREATE INDEX idx_application_lease ON application (lease_expires_at);
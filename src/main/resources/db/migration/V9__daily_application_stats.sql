@@ -0,0 +1,24 @@
+-- Daily aggregates for trend reports, by submission day (application_date).
+-- Kept current by DailyStatsService from status changes; a batch job re-derives
+-- them from application. Approved includes EXPIRED (they were approved);
+-- renewal DRAFTs are not submissions. NULL department / category are stored as ''.
+CREATE TABLE daily_application_stats (
+    stat_date  DATE         NOT NULL,
+    department VARCHAR(255) NOT NULL,
+    category   VARCHAR(255) NOT NULL,
+    submitted  INT          NOT NULL DEFAULT 0,
+    approved   INT          NOT NULL DEFAULT 0,
+    rejected   INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, department, category)
+);
+
+-- Time-to-approve of the same cohorts as a log-scale histogram (bucket -> approvals),
+-- so medians can be taken over any range of days and departments without the raw rows
+CREATE TABLE daily_approval_time (
+    stat_date  DATE         NOT NULL,
+    department VARCHAR(255) NOT NULL,
+    category   VARCHAR(255) NOT NULL,
+    bucket     SMALLINT     NOT NULL,
+    approvals  INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (stat_date, department, category, bucket)
+);
@@ -0,0 +1,177 @@
+package com.railway.concessionsystem;
+
+import com.railway.concessionsystem.model.ApplicationStatus;
+import com.railway.concessionsystem.repository.ApplicationRepository;
+import com.railway.concessionsystem.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs each filtered repository query against a seeded MySQL (schema from the
+ * Flyway migrations), picks the SQL Hibernate actually sent out of the general
+ * query log, and fails if EXPLAIN shows a full table scan. Only log rows from the
+ * connection the query ran on are checked, so scheduled jobs running meanwhile
+ * cannot fail the test.
+ * findAll() / findAllSummaries() are full scans by design and are not checked.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTests {
+
+    private static final String[] YEARS = {"FE", "SE", "TE", "BE"};
+    private static final String[] BRANCHES = {"IT", "MECH", "COMP", "EXTC", "CIVIL", "ELEC", "CHEM", "INST"};
+    private static final int STUDENTS = 4000;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withCommand("--general-log=1", "--log-output=TABLE");
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> students = new ArrayList<>();
+        List<Object[]> applications = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            String id = String.format("TU%07d", i);
+            String department = YEARS[i % YEARS.length] + BRANCHES[(i / YEARS.length) % BRANCHES.length];
+            students.add(new Object[]{id, "Student " + i, LocalDate.of(2004, 1, 1).plusDays(i % 700),
+                    id.toLowerCase(Locale.ROOT) + "@college.edu", department});
+            for (int j = 0; j < 3; j++) {
+                // Mostly closed applications, a few pending - the real-world skew
+                String status = j == 2 && i % 10 == 0 ? "PENDING" : (i + j) % 7 == 0 ? "REJECTED" : "APPROVED";
+                applications.add(new Object[]{id, "Student " + i, LocalDate.of(2004, 1, 1), department,
+                        "Thane", "CSMT", status, LocalDateTime.of(2023, 6, 1, 10, 0).plusDays((i * 3L + j) % 900),
+                        status.equals("APPROVED") ? String.format("C%08d", i * 3 + j) : null});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO student (id, name, dob, email, department) VALUES (?, ?, ?, ?, ?)", students);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO application (student_id, student_name, student_dob, department, route_from, route_to, " +
+                "status, application_date, current_certificate_no) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", applications);
+        jdbcTemplate.execute("ANALYZE TABLE student, application");
+    }
+
+    @Test
+    void studentAndStatusLookupsUseIndexes() throws SQLException {
+        assertNoFullScan("findByStudentId", () -> applicationRepository.findByStudentId("TU0000042"));
+        assertNoFullScan("findByStatus", () -> applicationRepository.findByStatus(ApplicationStatus.PENDING));
+        assertNoFullScan("countByStatus", () -> applicationRepository.countByStatus(ApplicationStatus.PENDING));
+        assertNoFullScan("existsByStudent_IdAndStatus",
+                () -> applicationRepository.existsByStudent_IdAndStatus("TU0000042", ApplicationStatus.PENDING));
+        assertNoFullScan("countByStudentIds",
+                () -> applicationRepository.countByStudentIds(List.of("TU0000001", "TU0000002", "TU0000003")));
+    }
+
+    @Test
+    void certificateRangeUsesIndex() throws SQLException {
+        assertNoFullScan("findByCurrentCertificateNoBetween",
+                () -> applicationRepository.findByCurrentCertificateNoBetween("C00000100", "C00000200"));
+        assertNoFullScan("countByCurrentCertificateNoBetween",
+                () -> applicationRepository.countByCurrentCertificateNoBetween("C00000100", "C00000200"));
+        assertNoFullScan("findTop10ByCurrentCertificateNoBetweenOrderByCurrentCertificateNo",
+                () -> applicationRepository.findTop10ByCurrentCertificateNoBetweenOrderByCurrentCertificateNo(
+                        "C00000100", "C00000200"));
+    }
+
+    @Test
+    void departmentFiltersUseIndexes() throws SQLException {
+        assertNoFullScan("findByDepartment", () -> applicationRepository.findByDepartment("FEIT"));
+        assertNoFullScan("findByDepartmentIn",
+                () -> applicationRepository.findByDepartmentIn(List.of("FEIT", "SEIT")));
+        assertNoFullScan("findByStudentDepartmentInExplicit",
+                () -> applicationRepository.findByStudentDepartmentInExplicit(List.of("FEIT", "SEIT")));
+        assertNoFullScan("countByStudentDepartment", () -> applicationRepository.countByStudentDepartment("FEIT"));
+        assertNoFullScan("findSummariesByDepartment",
+                () -> studentRepository.findSummariesByDepartment("FEIT", PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void studentKeyLookupsUseIndexes() throws SQLException {
+        assertNoFullScan("findByEmail", () -> studentRepository.findByEmail("tu0000042@college.edu"));
+        assertNoFullScan("findSummaryById", () -> studentRepository.findSummaryById("TU0000042"));
+    }
+
+    // ==========================
+    // Helpers
+    // ==========================
+    private void assertNoFullScan(String name, Runnable query) throws SQLException {
+        try (Connection root = DriverManager.getConnection(mysql.getJdbcUrl(), "root", mysql.getPassword());
+             Statement statement = root.createStatement()) {
+
+            statement.execute("TRUNCATE TABLE mysql.general_log");
+
+            // The transaction pins one pooled connection for both the id lookup and the query
+            Long connectionId = transactionTemplate.execute(status -> {
+                Long id = jdbcTemplate.queryForObject("SELECT CONNECTION_ID()", Long.class);
+                query.run();
+                return id;
+            });
+
+            List<String> executed = new ArrayList<>();
+            try (PreparedStatement log = root.prepareStatement(
+                    "SELECT CONVERT(argument USING utf8mb4) FROM mysql.general_log " +
+                    "WHERE thread_id = ? AND command_type = 'Query' " +
+                    "AND CONVERT(argument USING utf8mb4) LIKE 'select%' " +
+                    "AND CONVERT(argument USING utf8mb4) NOT LIKE '%CONNECTION_ID()%'")) {
+                log.setLong(1, connectionId);
+                try (ResultSet rs = log.executeQuery()) {
+                    while (rs.next()) {
+                        executed.add(rs.getString(1));
+                    }
+                }
+            }
+            assertFalse(executed.isEmpty(), name + ": no SELECT captured");
+
+            for (String sql : executed) {
+                try (ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+                    while (plan.next()) {
+                        String table = plan.getString("table");
+                        String type = plan.getString("type");
+                        if ("ALL".equals(type)) {
+                            fail(name + ": full scan of " + table + "\n" + sql);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
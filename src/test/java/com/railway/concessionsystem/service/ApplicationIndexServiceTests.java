@@ -0,0 +1,190 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ApplicationIndexResult;
+import com.railway.concessionsystem.model.ApplicationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApplicationIndexServiceTests {
+
+    private static final LocalDateTime MARCH = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+    private ApplicationIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ApplicationIndexService(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void filtersByDepartmentStatusCategoryAndDate() {
+        index.index(1L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH);
+        index.index(2L, ApplicationStatus.APPROVED, "FEIT", "SC", MARCH.plusDays(1));
+        index.index(3L, ApplicationStatus.PENDING, "SEIT", "OPEN", MARCH.plusDays(2));
+        index.index(4L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH.plusDays(10));
+        index.index(5L, ApplicationStatus.REJECTED, "TEIT", "OPEN", MARCH);
+
+        ApplicationIndexResult all = index.query(List.of("FEIT", "SEIT"), null, null, null, null, 0, 50);
+        assertEquals(4, all.getTotal());
+        assertEquals(3L, all.getCountsByStatus().get("PENDING"));
+        assertEquals(1L, all.getCountsByStatus().get("APPROVED"));
+        assertEquals(0L, all.getCountsByStatus().get("REJECTED"));
+
+        ApplicationIndexResult pendingOpen = index.query(List.of("FEIT", "SEIT"), ApplicationStatus.PENDING, "OPEN",
+                MARCH.toLocalDate(), MARCH.toLocalDate().plusDays(2), 0, 50);
+        assertEquals(2, pendingOpen.getTotal());
+        assertEquals(List.of(3L, 1L), pendingOpen.getAppIds());
+        // Tab counts ignore the status filter but keep the others
+        assertEquals(0L, pendingOpen.getCountsByStatus().get("APPROVED"));
+
+        assertEquals(0, index.query(List.of("FEIT"), null, "ST", null, null, 0, 50).getTotal());
+        assertEquals(0, index.query(List.of("UNKNOWN"), null, null, null, null, 0, 50).getTotal());
+    }
+
+    @Test
+    void newestFirstFollowsApplicationDayNotInsertionOrder() {
+        // Renewal draft indexed long before the others, then submitted in place
+        index.index(1L, ApplicationStatus.DRAFT, "FEIT", "OPEN", MARCH.minusMonths(3));
+        index.index(2L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH);
+        index.index(3L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH.plusDays(1));
+        index.index(4L, ApplicationStatus.PENDING, "FEIT", "OPEN", null);
+        index.index(1L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH.plusDays(4));
+
+        assertEquals(List.of(1L, 3L, 2L, 4L),
+                index.query(List.of("FEIT"), ApplicationStatus.PENDING, null, null, null, 0, 10).getAppIds());
+        assertEquals(List.of(2L, 4L),
+                index.query(List.of("FEIT"), ApplicationStatus.PENDING, null, null, null, 1, 2).getAppIds());
+        assertEquals(List.of(),
+                index.query(List.of("FEIT"), ApplicationStatus.PENDING, null, null, null, 5, 2).getAppIds());
+    }
+
+    @Test
+    void matchesLinearScanAcrossManyScatteredIds() {
+        Random random = new Random(44);
+        String[] departments = {"FEIT", "SEIT", "TECOMP", "BEMECH"};
+        ApplicationStatus[] statuses = ApplicationStatus.values();
+        Map<Long, Object[]> expected = new HashMap<>();
+
+        // Sparse 64-bit ids force id table collisions and several resizes
+        for (int i = 0; i < 20_000; i++) {
+            long appId = random.nextLong() & Long.MAX_VALUE;
+            Object[] row = {statuses[random.nextInt(statuses.length)], departments[random.nextInt(departments.length)],
+                    MARCH.plusDays(random.nextInt(60))};
+            expected.put(appId, row);
+            index.index(appId, (ApplicationStatus) row[0], (String) row[1], "OPEN", (LocalDateTime) row[2]);
+        }
+        // Status flips on existing rows (the expiry job's path)
+        List<Long> ids = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < 5000; i++) {
+            long appId = ids.get(random.nextInt(ids.size()));
+            expected.get(appId)[0] = ApplicationStatus.EXPIRED;
+            index.updateStatus(appId, ApplicationStatus.EXPIRED);
+        }
+        index.updateStatus(-1L, ApplicationStatus.APPROVED);    // unknown id: ignored
+        // Deleted students' applications, including ids in the middle of probe runs
+        List<Long> removed = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            removed.add(ids.get(random.nextInt(ids.size())));
+        }
+        index.remove(removed);
+        removed.forEach(expected::remove);
+        index.remove(List.of(-1L));
+        assertEquals(expected.size(), index.size());
+        // Survivors must still be found through the id table
+        for (Long appId : expected.keySet()) {
+            if (random.nextBoolean()) {
+                expected.get(appId)[0] = ApplicationStatus.APPROVED;
+                index.updateStatus(appId, ApplicationStatus.APPROVED);
+            }
+        }
+
+        LocalDate from = MARCH.toLocalDate().plusDays(10);
+        LocalDate to = MARCH.toLocalDate().plusDays(40);
+        for (ApplicationStatus status : statuses) {
+            long count = expected.values().stream()
+                    .filter(row -> row[0] == status && (row[1].equals("FEIT") || row[1].equals("BEMECH")))
+                    .filter(row -> !((LocalDateTime) row[2]).toLocalDate().isBefore(from)
+                            && !((LocalDateTime) row[2]).toLocalDate().isAfter(to))
+                    .count();
+            ApplicationIndexResult result = index.query(List.of("FEIT", "BEMECH"), status, null, from, to, 0, 100_000);
+            assertEquals(count, result.getTotal(), status.name());
+            assertEquals(count, result.getAppIds().size());
+            LocalDate previous = LocalDate.MAX;
+            for (Long appId : result.getAppIds()) {
+                LocalDate day = ((LocalDateTime) expected.get(appId)[2]).toLocalDate();
+                assertEquals(status, expected.get(appId)[0]);
+                assertTrue(!day.isAfter(previous), "not newest first");
+                previous = day;
+            }
+        }
+    }
+
+    @Test
+    void removedRowsLeaveEveryResult() {
+        index.index(1L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH);
+        index.index(2L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH.plusDays(1));
+        index.index(3L, ApplicationStatus.APPROVED, "FEIT", "SC", MARCH.plusDays(2));
+
+        index.remove(List.of(2L, 3L));
+
+        ApplicationIndexResult result = index.query(List.of("FEIT"), null, null, null, null, 0, 10);
+        assertEquals(List.of(1L), result.getAppIds());
+        assertEquals(1, result.getTotal());
+        assertEquals(0L, result.getCountsByStatus().get("APPROVED"));
+        assertEquals(0, index.query(List.of("FEIT"), null, "SC", null, null, 0, 10).getTotal());
+        assertEquals(1, index.size());
+
+        // A later application with a reused id is a new row
+        index.index(2L, ApplicationStatus.PENDING, "SEIT", "OPEN", MARCH.plusDays(5));
+        assertEquals(List.of(2L), index.query(List.of("SEIT"), null, null, null, null, 0, 10).getAppIds());
+    }
+
+    @Test
+    void rebuildReplaysChangesMadeWhileReading() {
+        List<Object[]> table = List.<Object[]>of(
+                new Object[]{1L, "PENDING", "FEIT", "OPEN", Timestamp.valueOf(MARCH)},
+                new Object[]{2L, "PENDING", "FEIT", "OPEN", Timestamp.valueOf(MARCH.plusDays(1))});
+        int[] calls = {0};
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                if (calls[0]++ > 0) {
+                    return List.of();
+                }
+                // Committed while the table is being read: lands in the old columns and the replay log
+                index.index(3L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH.plusDays(2));
+                index.updateStatus(1L, ApplicationStatus.APPROVED);
+                index.remove(List.of(2L));
+                return (List<T>) table;
+            }
+        };
+        index.index(1L, ApplicationStatus.PENDING, "FEIT", "OPEN", MARCH);
+        ReflectionTestUtils.setField(index, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(index, "buildBatchSize", 100);
+
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        ApplicationIndexResult result = index.query(List.of("FEIT"), null, null, null, null, 0, 10);
+        assertEquals(List.of(3L, 1L), result.getAppIds());
+        assertEquals(1L, result.getCountsByStatus().get("APPROVED"));
+        assertEquals(1L, result.getCountsByStatus().get("PENDING"));
+    }
+}
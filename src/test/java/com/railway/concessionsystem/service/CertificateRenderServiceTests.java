@@ -0,0 +1,189 @@
+package com.railway.concessionsystem.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The merged PDF is assembled by hand, so a wrong byte count anywhere shifts
+ * every later xref offset. These checks parse the output the way a reader
+ * would: startxref, then each xref entry, then the streams they point at.
+ */
+class CertificateRenderServiceTests {
+
+    private static final Pattern STARTXREF = Pattern.compile("startxref\n(\\d+)\n%%EOF\n$");
+    private static final Pattern XREF_ENTRY = Pattern.compile("(\\d{10}) (\\d{5}) ([nf]) \n");
+    private static final Pattern STREAM = Pattern.compile("/Length (\\d+)[^>]*>>\nstream\n");
+
+    private CertificateRenderService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void xrefOffsetsPointAtEveryObject() throws Exception {
+        service = start("");
+        List<Map<String, String>> pages = pages(50);   // more than the look-ahead window
+
+        String pdf = write(pages);
+
+        List<Long> offsets = checkXref(pdf);
+        assertEquals(5 + pages.size() * 2, offsets.size());
+        assertTrue(pdf.contains("/Count " + pages.size() + " "), "page count");
+        for (int i = 0; i < pages.size(); i++) {
+            String content = pageContent(pdf, offsets, 6 + i * 2);
+            assertTrue(content.contains("(" + pages.get(i).get("certificateNo") + ")"), "page " + i);
+        }
+    }
+
+    @Test
+    void xrefOffsetsAccountForTheSharedLogo() throws Exception {
+        Path logo = Files.createTempFile("certificate-logo", ".jpg");
+        String pdf;
+        List<Map<String, String>> pages = pages(3);
+        try {
+            ImageIO.write(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB), "jpg", logo.toFile());
+            service = start(logo.toString());
+            pdf = write(pages);
+        } finally {
+            Files.deleteIfExists(logo);
+        }
+
+        List<Long> offsets = checkXref(pdf);
+        assertEquals(6 + pages.size() * 2, offsets.size());
+        assertTrue(objectAt(pdf, offsets, 6).contains("/Subtype /Image"), "logo object");
+        assertTrue(pageContent(pdf, offsets, 7).contains("/logo Do"), "logo drawn");
+    }
+
+    @Test
+    void escapedValuesKeepStreamLengthsExact() throws Exception {
+        service = start("");
+        List<Map<String, String>> pages = pages(2);
+        pages.get(0).put("studentName", "D'Souza (Jr.) \\ Fernandes");
+        pages.get(1).put("studentName", "स्नेहा Patil");
+
+        String pdf = write(pages);
+
+        List<Long> offsets = checkXref(pdf);
+        assertTrue(pageContent(pdf, offsets, 6).contains("(D'Souza \\(Jr.\\) \\\\ Fernandes)"));
+        assertTrue(pageContent(pdf, offsets, 8).contains("(?????? Patil)"));
+    }
+
+    // ==========================
+    // Helpers
+    // ==========================
+    private static CertificateRenderService start(String logoPath) throws IOException {
+        CertificateRenderService service = new CertificateRenderService();
+        ReflectionTestUtils.setField(service, "templateResource",
+                new ClassPathResource("certificates/concession-certificate.tpl"));
+        ReflectionTestUtils.setField(service, "logoPath", logoPath);
+        ReflectionTestUtils.setField(service, "renderThreads", 2);
+        ReflectionTestUtils.setField(service, "lookAhead", 4);
+        ReflectionTestUtils.setField(service, "maxBatch", 1000);
+        service.init();
+        return service;
+    }
+
+    private static List<Map<String, String>> pages(int count) {
+        List<Map<String, String>> pages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, String> values = new LinkedHashMap<>();
+            CertificateRenderService.FIELDS.forEach(field -> values.put(field, ""));
+            values.put("certificateNo", String.format("C%08d", i));
+            values.put("appId", String.valueOf(1000 + i));
+            // Varying lengths so a miscounted page shifts the offsets after it
+            values.put("studentName", "Student " + "x".repeat(i % 7));
+            pages.add(values);
+        }
+        return pages;
+    }
+
+    private String write(List<Map<String, String>> pages) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writePdf(pages, out);
+        return out.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Follows startxref to the table, checks /Size and that each in-use entry
+     * lands on its own "N 0 obj". Returns the offsets indexed by object number - 1.
+     */
+    private static List<Long> checkXref(String pdf) {
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        Matcher tail = STARTXREF.matcher(pdf);
+        assertTrue(tail.find(), "startxref trailer");
+        int xref = Integer.parseInt(tail.group(1));
+        assertTrue(pdf.startsWith("xref\n0 ", xref), "startxref points at xref");
+
+        int at = pdf.indexOf('\n', xref + 5) + 1;
+        int size = Integer.parseInt(pdf.substring(xref + 7, at - 1));
+        Matcher entry = XREF_ENTRY.matcher(pdf);
+        assertTrue(entry.find(at) && entry.start() == at && entry.group(3).equals("f"), "free entry 0");
+
+        List<Long> offsets = new ArrayList<>();
+        for (int object = 1; object < size; object++) {
+            at = entry.end();
+            assertTrue(entry.find(at) && entry.start() == at && entry.group(3).equals("n"), "entry " + object);
+            long offset = Long.parseLong(entry.group(1));
+            assertTrue(pdf.startsWith(object + " 0 obj\n", (int) offset), "object " + object + " at " + offset);
+            offsets.add(offset);
+        }
+        assertTrue(pdf.startsWith("trailer\n<< /Size " + size + " /Root 1 0 R >>", entry.end()), "trailer");
+        return offsets;
+    }
+
+    private static String objectAt(String pdf, List<Long> offsets, int object) {
+        int from = offsets.get(object - 1).intValue();
+        return pdf.substring(from, pdf.indexOf("endobj\n", from));
+    }
+
+    /**
+     * Inflates the content stream the page object references, using its /Length
+     */
+    private static String pageContent(String pdf, List<Long> offsets, int pageObject) throws DataFormatException {
+        Matcher contents = Pattern.compile("/Contents (\\d+) 0 R").matcher(objectAt(pdf, offsets, pageObject));
+        assertTrue(contents.find(), "page " + pageObject + " has contents");
+        String object = objectAt(pdf, offsets, Integer.parseInt(contents.group(1)));
+
+        Matcher stream = STREAM.matcher(object);
+        assertTrue(stream.find(), "content stream");
+        int length = Integer.parseInt(stream.group(1));
+        assertTrue(object.startsWith("\nendstream", stream.end() + length), "/Length " + length + " is exact");
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(object.substring(stream.end(), stream.end() + length).getBytes(StandardCharsets.ISO_8859_1));
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        while (!inflater.finished()) {
+            int n = inflater.inflate(buffer);
+            assertTrue(n > 0 || !inflater.needsInput(), "truncated stream");
+            content.write(buffer, 0, n);
+        }
+        inflater.end();
+        return content.toString(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.railway.concessionsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CertificateTemplateTests {
+
+    private static final Set<String> FIELDS = Set.of("name", "route");
+
+    @Test
+    void compilesOperatorsAndFillsFields() {
+        CertificateTemplate template = CertificateTemplate.compile(String.join("\n",
+                "# comment",
+                "",
+                "TEXT 60 700 F2 11 Name: {name} ({route})",
+                "LINE 60 690 535 690 0.5",
+                "RECT 40 40 515 762 1.5"), FIELDS, Set.of());
+
+        assertEquals("BT /F2 11 Tf 60 700 Td (Name: Priya \\(Thane - CSMT\\)) Tj ET\n" +
+                        "0.5 w 60 690 m 535 690 l S\n" +
+                        "1.5 w 40 40 515 762 re S\n",
+                render(template, Map.of("name", "Priya", "route", "Thane - CSMT")));
+    }
+
+    @Test
+    void escapesValuesAndBlanksMissingOnes() {
+        CertificateTemplate template = CertificateTemplate.compile("TEXT 0 0 F1 9 {name}|{route}", FIELDS, Set.of());
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "a(b)c\\d\teéन");
+
+        assertEquals("BT /F1 9 Tf 0 0 Td (a\\(b\\)c\\\\d eé?|) Tj ET\n", render(template, values));
+    }
+
+    @Test
+    void imagesAreDrawnOnlyWhenAvailable() {
+        String source = "IMAGE 467 712 72 72 logo";
+
+        CertificateTemplate without = CertificateTemplate.compile(source, FIELDS, Set.of());
+        assertTrue(without.getImages().isEmpty());
+        assertEquals("", render(without, Map.of()));
+
+        CertificateTemplate with = CertificateTemplate.compile(source, FIELDS, Set.of("logo"));
+        assertEquals(Set.of("logo"), with.getImages());
+        assertEquals("q 72 0 0 72 467 712 cm /logo Do Q\n", render(with, Map.of()));
+    }
+
+    @Test
+    void badLinesFailAtCompileTimeWithTheirLineNumber() {
+        assertCompileError("TEXT 0 0 F1 9 {nope}", "line 1: unknown field {nope}");
+        assertCompileError("# c\nTEXT 0 0 F9 9 x", "line 2: unknown font F9");
+        assertCompileError("LINE 0 0 1 one 1", "line 1: not a number: one");
+        assertCompileError("RECT 0 0 1", "line 1: expected 5 arguments");
+        assertCompileError("CIRCLE 1 2 3", "line 1: unknown op CIRCLE");
+        // Operator injection through a coordinate
+        assertCompileError("LINE 0 0 1 1 1)Tj", "line 1: not a number: 1)Tj");
+    }
+
+    @Test
+    void shippedTemplateCompilesAgainstTheRenderFields() throws IOException {
+        String source;
+        try (InputStream in = getClass().getResourceAsStream("/certificates/concession-certificate.tpl")) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        CertificateTemplate template = CertificateTemplate.compile(source, CertificateRenderService.FIELDS, Set.of());
+        Map<String, String> values = new HashMap<>();
+        CertificateRenderService.FIELDS.forEach(field -> values.put(field, "<" + field + ">"));
+
+        String content = render(template, values);
+        CertificateRenderService.FIELDS.forEach(field ->
+                assertTrue(content.contains("(<" + field + ">) Tj"), field + " not drawn"));
+        assertFalse(content.contains("/logo"));
+    }
+
+    private static void assertCompileError(String source, String message) {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> CertificateTemplate.compile(source, FIELDS, Set.of()));
+        assertTrue(e.getMessage().endsWith(message), e.getMessage());
+    }
+
+    private static String render(CertificateTemplate template, Map<String, String> values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        template.render(values, out);
+        return out.toString(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,73 @@
+package com.railway.concessionsystem.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentValidationServiceTests {
+
+    private DocumentValidationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DocumentValidationService(1, 4);
+        ReflectionTestUtils.setField(service, "maxBytes", 10L * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "maxDimension", 8000);
+        ReflectionTestUtils.setField(service, "maxPixels", 40_000_000L);
+        ReflectionTestUtils.setField(service, "timeoutMs", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void pdfWithXrefTableIsAccepted() {
+        assertEquals(DocumentValidationService.DocumentType.PDF, service.validate(pdf(pdfWithXrefTable()), "Test"));
+    }
+
+    @Test
+    void pdfWithXrefStreamIsAccepted() {
+        String body = "%PDF-1.5\n1 0 obj\n<< /Type /Catalog >>\nendobj\n";
+        int xrefOffset = body.length();
+        String content = body + "2 0 obj\n<< /Type /XRef /Size 3 /W [1 2 1] /Length 0 >>\nstream\n\nendstream\nendobj\n" +
+                "startxref\n" + xrefOffset + "\n%%EOF\n";
+        assertEquals(DocumentValidationService.DocumentType.PDF, service.validate(pdf(content), "Test"));
+    }
+
+    @Test
+    void pdfWithOnlyTrailerTokensIsRejected() {
+        String content = "%PDF-1.4\nnot really a pdf\nstartxref\n9\n%%EOF\n";
+        assertThrows(RuntimeException.class, () -> service.validate(pdf(content), "Test"));
+    }
+
+    @Test
+    void pdfWithStartxrefPastEndIsRejected() {
+        String content = pdfWithXrefTable().replaceFirst("startxref\n\\d+", "startxref\n999999");
+        assertThrows(RuntimeException.class, () -> service.validate(pdf(content), "Test"));
+    }
+
+    @Test
+    void pdfWithoutStartxrefIsRejected() {
+        assertThrows(RuntimeException.class, () -> service.validate(pdf("%PDF-1.4\n1 0 obj\n<<>>\nendobj\n"), "Test"));
+    }
+
+    private static String pdfWithXrefTable() {
+        String body = "%PDF-1.4\n1 0 obj\n<< /Type /Catalog >>\nendobj\n";
+        int xrefOffset = body.length();
+        return body + "xref\n0 2\n0000000000 65535 f \n0000000009 00000 n \n" +
+                "trailer\n<< /Size 2 /Root 1 0 R >>\nstartxref\n" + xrefOffset + "\n%%EOF\n";
+    }
+
+    private static MockMultipartFile pdf(String content) {
+        return new MockMultipartFile("file", "scan.pdf", "application/pdf", content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
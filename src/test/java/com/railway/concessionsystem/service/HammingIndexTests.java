@@ -0,0 +1,112 @@
+package com.railway.concessionsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HammingIndexTests {
+
+    private static final int MAX_DISTANCE = 8;
+
+    @Test
+    void matchesBruteForceOn200kHashes() {
+        Random random = new Random(48);
+        HammingIndex<Integer> index = new HammingIndex<>();
+        long[] hashes = new long[200_000];
+
+        // Random hashes almost never fall within 8 bits of each other, so most are
+        // planted as near copies (0..12 flipped bits) of an earlier one
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = i < 1000 || random.nextInt(4) == 0
+                    ? random.nextLong()
+                    : flip(hashes[random.nextInt(i)], random.nextInt(13), random);
+            index.put(i, hashes[i]);
+        }
+        assertEquals(hashes.length, index.size());
+
+        for (int q = 0; q < 300; q++) {
+            long query = q % 3 == 0 ? random.nextLong() : flip(hashes[random.nextInt(hashes.length)], random.nextInt(10), random);
+            for (int radius : new int[]{0, 3, MAX_DISTANCE, 11}) {
+                Map<Integer, Integer> expected = new TreeMap<>();
+                for (int i = 0; i < hashes.length; i++) {
+                    int distance = Long.bitCount(hashes[i] ^ query);
+                    if (distance <= radius) {
+                        expected.put(i, distance);
+                    }
+                }
+
+                List<HammingIndex.Match<Integer>> found = index.search(query, radius);
+                Map<Integer, Integer> actual = new TreeMap<>();
+                for (HammingIndex.Match<Integer> match : found) {
+                    assertNull(actual.put(match.getKey(), match.getDistance()), "key reported twice");
+                }
+                assertEquals(expected, actual, "query " + q + " radius " + radius);
+                for (int i = 1; i < found.size(); i++) {
+                    assertTrue(found.get(i - 1).getDistance() <= found.get(i).getDistance(), "not nearest first");
+                }
+            }
+        }
+    }
+
+    @Test
+    void replacingAHashDropsTheOldOne() {
+        HammingIndex<String> index = new HammingIndex<>();
+        index.put("a", 0L);
+        index.put("a", -1L);
+        index.put("a", -1L);    // same hash again is a no-op
+
+        assertEquals(1, index.size());
+        assertTrue(index.search(0L, MAX_DISTANCE).isEmpty());
+        List<HammingIndex.Match<String>> matches = index.search(-1L, 0);
+        assertEquals(1, matches.size());
+        assertEquals("a", matches.get(0).getKey());
+    }
+
+    @Test
+    void removedKeysAreNotFound() {
+        HammingIndex<String> index = new HammingIndex<>();
+        index.put("a", 0x00FF00FF00FF00FFL);
+        index.put("b", 0x00FF00FF00FF00FEL);
+        index.remove("a");
+        index.remove("missing");
+
+        assertEquals(1, index.size());
+        List<HammingIndex.Match<String>> matches = index.search(0x00FF00FF00FF00FFL, MAX_DISTANCE);
+        assertEquals(1, matches.size());
+        assertEquals("b", matches.get(0).getKey());
+        assertEquals(1, matches.get(0).getDistance());
+    }
+
+    @Test
+    void crowdedBucketsGrowAndShrink() {
+        // Same low chunk everywhere: one bucket per chunk table takes every slot
+        HammingIndex<Integer> index = new HammingIndex<>();
+        for (int i = 0; i < 5000; i++) {
+            index.put(i, ((long) i << 16) | 0xABCDL);
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            index.remove(i);
+        }
+        assertEquals(2500, index.size());
+        List<HammingIndex.Match<Integer>> matches = index.search((1234L << 16) | 0xABCDL, 0);
+        assertTrue(matches.isEmpty());
+        matches = index.search((1235L << 16) | 0xABCDL, 0);
+        assertEquals(1, matches.size());
+        assertEquals(1235, matches.get(0).getKey());
+    }
+
+    private static long flip(long hash, int bits, Random random) {
+        long flipped = 0;
+        while (Long.bitCount(flipped) < bits) {
+            flipped |= 1L << random.nextInt(64);
+        }
+        return hash ^ flipped;
+    }
+}
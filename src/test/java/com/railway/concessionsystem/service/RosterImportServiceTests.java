@@ -0,0 +1,137 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.RosterImportReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Roster upserts against MySQL: student has unique keys on both id and email,
+ * so a row must never update a different student through an email match.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class RosterImportServiceTests {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private RosterImportService rosterImportService;
+
+    @Autowired
+    private DailyStatsService dailyStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM application WHERE student_id LIKE 'RI%'");
+        jdbcTemplate.update("DELETE FROM student WHERE id LIKE 'RI%'");
+        jdbcTemplate.update("INSERT INTO student (id, name, dob, email, department) VALUES (?, ?, ?, ?, ?)",
+                "RI0001", "Existing Owner", "2004-01-01", "owner@college.edu", "FEIT");
+        jdbcTemplate.update("INSERT INTO student (id, name, dob, email, department) VALUES (?, ?, ?, ?, ?)",
+                "RI0002", "Old Name", "2004-02-02", "second@college.edu", "FEIT");
+    }
+
+    @Test
+    void emailOwnedByAnotherStudentIsRowErrorAndLeavesOwnerUntouched() throws Exception {
+        RosterImportReport report = rosterImportService.importRoster(csv(
+                "id,name,dob,email,department",
+                "RI0003,Newcomer,2005-03-03,owner@college.edu,SEIT",
+                "RI0004,Other Newcomer,2005-04-04,fourth@college.edu,SEIT"));
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        RosterImportReport.RowError error = report.getErrors().get(0);
+        assertEquals(2, error.getRow());
+        assertEquals("RI0003", error.getStudentId());
+        assertTrue(error.getMessage().contains("RI0001"), error.getMessage());
+
+        Map<String, Object> owner = jdbcTemplate.queryForMap(
+                "SELECT name, department FROM student WHERE id = 'RI0001'");
+        assertEquals("Existing Owner", owner.get("name"));
+        assertEquals("FEIT", owner.get("department"));
+        assertEquals(0, count("RI0003"));
+        assertEquals(1, count("RI0004"));
+    }
+
+    @Test
+    void existingIdIsUpdatedInPlace() throws Exception {
+        RosterImportReport report = rosterImportService.importRoster(csv(
+                "id,name,dob,email,department",
+                "RI0002,New Name,2004-02-02,second.new@college.edu,SEIT"));
+
+        assertEquals(1, report.getImported());
+        assertEquals(0, report.getFailed());
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT name, email, department FROM student WHERE id = 'RI0002'");
+        assertEquals("New Name", row.get("name"));
+        assertEquals("second.new@college.edu", row.get("email"));
+        assertEquals("SEIT", row.get("department"));
+    }
+
+    @Test
+    void keepingOwnEmailIsNotACollision() throws Exception {
+        RosterImportReport report = rosterImportService.importRoster(csv(
+                "id,name,dob,email,department",
+                "RI0001,Renamed Owner,2004-01-01,OWNER@college.edu,FEIT"));
+
+        assertEquals(1, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertEquals("Renamed Owner",
+                jdbcTemplate.queryForObject("SELECT name FROM student WHERE id = 'RI0001'", String.class));
+    }
+
+    @Test
+    void departmentMoveReDerivesOldDailyStats() throws Exception {
+        // Well outside the nightly repair window
+        LocalDate day = LocalDate.now().minusDays(200);
+        jdbcTemplate.update("INSERT INTO application (student_id, student_name, student_dob, department, route_from, " +
+                "route_to, status, application_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                "RI0002", "Old Name", "2004-02-02", "FEIT", "Thane", "CSMT", "REJECTED", day.atTime(10, 0));
+        dailyStatsService.rebuildDays(Set.of(day));
+        assertEquals(1, submitted(day, "FEIT"));
+
+        rosterImportService.importRoster(csv(
+                "id,name,dob,email,department",
+                "RI0002,Old Name,2004-02-02,second@college.edu,SEIT"));
+
+        assertEquals(0, submitted(day, "FEIT"));
+        assertEquals(1, submitted(day, "SEIT"));
+    }
+
+    private int submitted(LocalDate day, String department) {
+        Integer n = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(submitted), 0) FROM daily_application_stats " +
+                "WHERE stat_date = ? AND department = ?", Integer.class, day, department);
+        return n != null ? n : 0;
+    }
+
+    private int count(String id) {
+        Integer n = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student WHERE id = ?", Integer.class, id);
+        return n != null ? n : 0;
+    }
+
+    private MockMultipartFile csv(String... lines) {
+        return new MockMultipartFile("file", "roster.csv", "text/csv",
+                String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
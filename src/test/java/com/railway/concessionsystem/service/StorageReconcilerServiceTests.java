@@ -0,0 +1,101 @@
+package com.railway.concessionsystem.service;
+
+import com.railway.concessionsystem.dto.ReconcileReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Referenced paths stored with backslashes or a leading "./" must still merge
+ * in order against the walked files - otherwise live scans get reclaimed.
+ */
+@SpringBootTest(properties = {
+        "storage.reconcile.directories=target/reconcile-test/aadhar-cards",
+        "storage.reconcile.quarantine-dir=target/reconcile-test/.quarantine",
+        "storage.reconcile.grace-hours=1",
+        "storage.reconcile.mode=DELETE"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class StorageReconcilerServiceTests {
+
+    private static final Path ROOT = Paths.get("target/reconcile-test");
+    private static final String DIR = "target/reconcile-test/aadhar-cards";
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private StorageReconcilerService storageReconcilerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+        Files.createDirectories(Paths.get(DIR));
+        for (String name : List.of("a.jpg", "b.jpg", "c.jpg", "d.jpg", "e.jpg")) {
+            Path file = Files.write(Paths.get(DIR, name), new byte[]{1, 2, 3});
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        }
+
+        jdbcTemplate.update("INSERT IGNORE INTO student (id, name, dob, email, department) " +
+                "VALUES ('SR0001', 'Reconcile Student', '2004-01-01', 'sr0001@college.edu', 'FEIT')");
+        // Raw binary order is ./c, target/b, target/d, target\a - normalized order is a, b, c, d
+        for (String path : List.of(
+                "target\\reconcile-test\\aadhar-cards\\a.jpg",
+                "target/reconcile-test/aadhar-cards/b.jpg",
+                "./target/reconcile-test/aadhar-cards/c.jpg",
+                "target/reconcile-test/aadhar-cards/d.jpg",
+                "target\\reconcile-test\\aadhar-cards\\d.jpg")) {
+            jdbcTemplate.update("INSERT INTO application (student_id, student_name, student_dob, department, " +
+                    "route_from, route_to, status, aadhar_card) " +
+                    "VALUES ('SR0001', 'Reconcile Student', '2004-01-01', 'FEIT', 'Thane', 'CSMT', 'REJECTED', ?)",
+                    path);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        jdbcTemplate.update("DELETE FROM application WHERE student_id = 'SR0001'");
+        FileSystemUtils.deleteRecursively(ROOT);
+    }
+
+    @Test
+    void mixedSeparatorReferencesKeepTheirFiles() {
+        ReconcileReport report = storageReconcilerService.reconcile();
+
+        assertEquals(5, report.getFilesScanned());
+        assertEquals(4, report.getReferencedPaths());
+        assertEquals(0, report.getMissingFiles());
+        assertEquals(1, report.getOrphansFound());
+        assertEquals(List.of(DIR + "/e.jpg"), report.getReclaimed());
+
+        for (String name : List.of("a.jpg", "b.jpg", "c.jpg", "d.jpg")) {
+            assertTrue(Files.exists(Paths.get(DIR, name)), name + " was reclaimed");
+        }
+        assertFalse(Files.exists(Paths.get(DIR, "e.jpg")));
+    }
+}
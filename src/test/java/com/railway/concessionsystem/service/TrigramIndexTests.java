@@ -0,0 +1,105 @@
+package com.railway.concessionsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTests {
+
+    @Test
+    void exactFieldMatchRanksFirst() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put("S1", List.of("Priya Sharma", "S1", "priya@college.edu"));
+        index.put("S2", List.of("Priya Sharmaji", "S2"));
+        index.put("S3", List.of("Rahul Verma", "S3"));
+
+        List<TrigramIndex.Hit<String>> hits = index.search("priya sharma");
+        assertEquals(List.of("S1", "S2"), keys(hits));
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void toleratesATypo() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put("S1", List.of("Aishwarya Kulkarni"));
+        index.put("S2", List.of("Rahul Verma"));
+
+        assertEquals(List.of("S1"), keys(index.search("kulkarny")));
+    }
+
+    @Test
+    void shortQueriesMatchTokenPrefixes() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put("S1", List.of("Om Patil"));
+        index.put("S2", List.of("Omkar Joshi"));
+        index.put("S3", List.of("Rohan More"));
+
+        assertEquals(List.of("S1", "S2"), keys(index.search("om")).stream().sorted().toList());
+        assertTrue(index.search("x").isEmpty());
+        assertTrue(index.search("  ").isEmpty());
+    }
+
+    @Test
+    void normalizesCaseAndPunctuation() {
+        assertEquals("priya sharma", TrigramIndex.normalize("  PRIYA, Sharma! "));
+        assertEquals("a.b@c.edu", TrigramIndex.normalize("A.B@C.EDU"));
+        assertEquals("", TrigramIndex.normalize(null));
+    }
+
+    @Test
+    void putReplacesAndRemoveForgets() {
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put("S1", List.of("Old Name"));
+        index.put("S1", List.of("New Name"));
+        assertTrue(index.search("ol").isEmpty());
+        assertEquals(List.of("S1"), keys(index.search("new name")));
+
+        index.append("S1", List.of("Thane"));
+        index.append("S9", List.of("Thane"));      // unknown key: ignored
+        assertEquals(List.of("S1"), keys(index.search("thane")));
+        assertEquals(1, index.size());
+
+        index.remove("S1");
+        assertEquals(0, index.size());
+        assertTrue(index.search("new name").isEmpty());
+        assertTrue(index.search("th").isEmpty());
+    }
+
+    @Test
+    void exactNamesAgreeWithLinearScan() {
+        String[] first = {"priya", "rahul", "sneha", "amit", "pooja", "rohan", "neha", "vikas", "kiran", "om"};
+        String[] last = {"sharma", "patil", "joshi", "kulkarni", "verma", "more", "desai", "naik", "shah", "rao"};
+        Random random = new Random(26);
+        TrigramIndex<Integer> index = new TrigramIndex<>();
+        String[] names = new String[2000];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = first[random.nextInt(first.length)] + " " + last[random.nextInt(last.length)];
+            index.put(i, List.of(names[i]));
+        }
+        for (int i = 0; i < names.length; i += 3) {
+            index.remove(i);
+        }
+
+        // Every remaining holder of an exact name comes back, scored as an exact match
+        for (int q = 0; q < 50; q++) {
+            String query = first[random.nextInt(first.length)] + " " + last[random.nextInt(last.length)];
+            List<TrigramIndex.Hit<Integer>> hits = index.search(query);
+            for (int i = 0; i < names.length; i++) {
+                boolean expected = i % 3 != 0 && names[i].equals(query);
+                int key = i;
+                boolean exact = hits.stream().anyMatch(h -> h.getKey() == key && h.getScore() >= 3.0);
+                assertEquals(expected, exact, query + " / " + names[i]);
+            }
+            assertFalse(hits.stream().anyMatch(h -> h.getKey() % 3 == 0), "removed key returned");
+        }
+    }
+
+    private static <K> List<K> keys(List<TrigramIndex.Hit<K>> hits) {
+        return hits.stream().map(TrigramIndex.Hit::getKey).toList();
+    }
+}